@@ -0,0 +1,79 @@
+package com.remal.jceks.benchmark;
+
+import com.remal.jceks.keystore.EntryCache;
+import com.remal.jceks.keystore.FileKeystore;
+import com.remal.jceks.util.DevNullPrintStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.KeyStore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of recovering entries from a loaded keystore: the password based
+ * unwrapping of {@code getEntry}, the base64 encoding of {@code getSecretKeyValue}
+ * and the same read served from the {@link EntryCache}.
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntryRecoveryBenchmark {
+
+    @Param({"10", "1000", "10000", "100000"})
+    int entries;
+
+    private FileKeystore keystore;
+    private FileKeystore cachedKeystore;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        String location = KeystoreFixture.keystore(entries).toString();
+        keystore = new FileKeystore(
+                DevNullPrintStream.getPrintStream(),
+                location,
+                KeystoreFixture.KEYSTORE_PASSWORD.clone());
+
+        cachedKeystore = new FileKeystore(
+                DevNullPrintStream.getPrintStream(),
+                location,
+                KeystoreFixture.KEYSTORE_PASSWORD.clone());
+        cachedKeystore.setEntryCache(new EntryCache(entries, 1, TimeUnit.HOURS));
+    }
+
+    @Benchmark
+    public KeyStore.Entry getEntry() {
+        return keystore.getEntry(randomAlias(), KeystoreFixture.ENTRY_PASSWORD);
+    }
+
+    @Benchmark
+    public String getSecretKeyValue() {
+        return keystore.getSecretKeyValue(randomAlias(), KeystoreFixture.ENTRY_PASSWORD);
+    }
+
+    @Benchmark
+    public KeyStore.Entry getEntryCached() {
+        return cachedKeystore.getEntry(randomAlias(), KeystoreFixture.ENTRY_PASSWORD);
+    }
+
+    private String randomAlias() {
+        return KeystoreFixture.alias(ThreadLocalRandom.current().nextInt(entries));
+    }
+}
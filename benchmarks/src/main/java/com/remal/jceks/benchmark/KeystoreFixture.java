@@ -0,0 +1,122 @@
+package com.remal.jceks.benchmark;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.Random;
+
+/**
+ * Generates synthetic JCEKS keystores for the benchmarks.
+ *
+ * <p>The keystores contain AES secret keys with the {@code key-00000}, {@code key-00001}, ...
+ * aliases. Generating a large keystore is slow, because every entry is sealed with the
+ * password based encryption of the JCEKS provider, so the files are kept in the
+ * {@code target/fixtures} directory and reused by the later runs. The location can be
+ * changed with the {@code jceks.benchmark.fixtures} system property.</p>
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+public final class KeystoreFixture {
+
+    /**
+     * Password of the generated keystores.
+     */
+    public static final char[] KEYSTORE_PASSWORD = "changeit".toCharArray();
+
+    /**
+     * Password of the generated keystore entries.
+     */
+    public static final char[] ENTRY_PASSWORD = "changeit".toCharArray();
+
+    private static final String FIXTURE_DIRECTORY = System.getProperty("jceks.benchmark.fixtures", "target/fixtures");
+    private static final long SEED = 20211023L;
+
+    /**
+     * Get the path of a keystore with the given number of entries, the
+     * keystore is generated if it does not exist yet.
+     *
+     * @param entries number of the secret key entries
+     * @return path to the keystore
+     * @throws IOException in case of an I/O error
+     * @throws GeneralSecurityException if the keystore cannot be generated
+     */
+    public static synchronized Path keystore(int entries) throws IOException, GeneralSecurityException {
+        Path directory = Paths.get(FIXTURE_DIRECTORY);
+        Path keystore = directory.resolve("keystore-" + entries + ".jceks");
+        if (Files.exists(keystore)) {
+            return keystore;
+        }
+
+        Files.createDirectories(directory);
+        Path tempFile = Files.createTempFile(directory, "keystore-" + entries, ".tmp");
+        try (OutputStream out = Files.newOutputStream(tempFile)) {
+            generate(entries).store(out, KEYSTORE_PASSWORD);
+        }
+        Files.move(tempFile, keystore, StandardCopyOption.REPLACE_EXISTING);
+        return keystore;
+    }
+
+    /**
+     * Copy a fixture keystore to a temporary file, used by the benchmarks
+     * that modify the keystore.
+     *
+     * @param entries number of the secret key entries
+     * @return path to the copy
+     * @throws IOException in case of an I/O error
+     * @throws GeneralSecurityException if the keystore cannot be generated
+     */
+    public static Path copy(int entries) throws IOException, GeneralSecurityException {
+        Path source = keystore(entries);
+        Path copy = Files.createTempFile(source.getParent(), "copy-" + entries, ".jceks");
+        Files.copy(source, copy, StandardCopyOption.REPLACE_EXISTING);
+        return copy;
+    }
+
+    /**
+     * Alias name of the n-th entry.
+     *
+     * @param index index of the entry
+     * @return the alias name
+     */
+    public static String alias(int index) {
+        return String.format("key-%05d", index);
+    }
+
+    /**
+     * Generate a random secret key entry.
+     *
+     * @param random source of the key material
+     * @return the secret key entry
+     */
+    public static KeyStore.SecretKeyEntry secretKeyEntry(Random random) {
+        byte[] key = new byte[16];
+        random.nextBytes(key);
+        return new KeyStore.SecretKeyEntry(new SecretKeySpec(key, "AES"));
+    }
+
+    private static KeyStore generate(int entries) throws IOException, GeneralSecurityException {
+        KeyStore keyStore = KeyStore.getInstance("jceks");
+        keyStore.load(null, KEYSTORE_PASSWORD);
+
+        Random random = new Random(SEED);
+        KeyStore.PasswordProtection protection = new KeyStore.PasswordProtection(ENTRY_PASSWORD);
+        for (int i = 0; i < entries; i++) {
+            keyStore.setEntry(alias(i), secretKeyEntry(random), protection);
+        }
+        return keyStore;
+    }
+
+    /**
+     * Utility classes should not have a public or default constructor.
+     */
+    private KeystoreFixture() {
+    }
+}
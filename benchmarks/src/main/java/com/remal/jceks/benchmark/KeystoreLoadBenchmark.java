@@ -0,0 +1,54 @@
+package com.remal.jceks.benchmark;
+
+import com.remal.jceks.keystore.FileKeystore;
+import com.remal.jceks.util.DevNullPrintStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of opening a keystore: reading the file and {@code KeyStore.load},
+ * including the integrity check over the whole file.
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KeystoreLoadBenchmark {
+
+    @Param({"10", "1000", "10000", "100000"})
+    int entries;
+
+    private Path keystore;
+    private PrintStream logWriter;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        keystore = KeystoreFixture.keystore(entries);
+        logWriter = DevNullPrintStream.getPrintStream();
+    }
+
+    @Benchmark
+    public FileKeystore load() {
+        return new FileKeystore(logWriter, keystore.toString(), KeystoreFixture.KEYSTORE_PASSWORD.clone());
+    }
+}
@@ -0,0 +1,87 @@
+package com.remal.jceks.benchmark;
+
+import com.remal.jceks.keystore.FileKeystore;
+import com.remal.jceks.keystore.KeystoreTransaction;
+import com.remal.jceks.util.DevNullPrintStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of modifying a keystore: adding one entry with {@code addEntry}, that
+ * saves the whole keystore, versus adding a batch of entries in one transaction.
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KeystoreStoreBenchmark {
+
+    /**
+     * Number of the entries added by one transaction.
+     */
+    private static final int BATCH_SIZE = 100;
+
+    @Param({"10", "1000", "10000", "100000"})
+    int entries;
+
+    private Path keystoreFile;
+    private FileKeystore keystore;
+    private final Random random = new Random();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        keystoreFile = KeystoreFixture.copy(entries);
+        keystore = new FileKeystore(
+                DevNullPrintStream.getPrintStream(),
+                keystoreFile.toString(),
+                KeystoreFixture.KEYSTORE_PASSWORD.clone());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(keystoreFile);
+    }
+
+    @Benchmark
+    public void addEntry() {
+        keystore.addEntry(
+                KeystoreFixture.secretKeyEntry(random),
+                KeystoreFixture.alias(random.nextInt(entries)),
+                KeystoreFixture.ENTRY_PASSWORD);
+    }
+
+    @Benchmark
+    public void transaction() {
+        KeystoreTransaction transaction = keystore.begin();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            transaction.setEntry(
+                    KeystoreFixture.secretKeyEntry(random),
+                    KeystoreFixture.alias(random.nextInt(entries)),
+                    KeystoreFixture.ENTRY_PASSWORD);
+        }
+        transaction.commit();
+    }
+}
@@ -0,0 +1,93 @@
+#!/bin/bash
+# ******************************************************************************
+# Startup-time benchmark of the jceks-tool launchers.
+#
+# Runs the 'show' and 'copy' commands against the sample keystores with every
+# launcher that has been built and prints the minimum, median and mean wall
+# time of the runs in milliseconds. Every launcher is warmed up once before
+# the measurement, so the file system cache is hot for all of them.
+#
+# Usage: benchmarks/startup.sh [number-of-runs]
+#
+# Launchers:
+#    jar:     java -jar target/jceks-tool-<version>.jar          (mvn package)
+#    cds:     target/jceks-tool.sh, AppCDS archive and tuned JVM (mvn -Pcds package)
+#    native:  target/jceks-tool-<version>                        (mvn -Pnative package)
+#
+# Copyright 2021 Arnold Somogyi
+#
+# @author arnold.somogyi@gmail.com
+# ******************************************************************************
+set -e
+
+cd "$(dirname "$0")/.."
+RUNS=${1:-20}
+VERSION=$(sed -n 's:^    <version>\(.*\)</version>$:\1:p' pom.xml | head -1)
+JAR="target/jceks-tool-$VERSION.jar"
+ARCHIVE="target/jceks-tool-$VERSION.jsa"
+LAUNCHER="target/jceks-tool.sh"
+NATIVE="target/jceks-tool-$VERSION"
+WORK_DIR=$(mktemp -d)
+trap 'rm -rf "$WORK_DIR"' EXIT
+
+declare -a NAMES
+declare -a LAUNCHERS
+if [ -f "$JAR" ]; then
+    NAMES+=("jar")
+    LAUNCHERS+=("java -jar $JAR")
+fi
+if [ -x "$LAUNCHER" ] && [ -f "$ARCHIVE" ]; then
+    NAMES+=("cds")
+    LAUNCHERS+=("$LAUNCHER")
+fi
+if [ -x "$NATIVE" ]; then
+    NAMES+=("native")
+    LAUNCHERS+=("$NATIVE")
+fi
+if [ ${#LAUNCHERS[@]} -eq 0 ]; then
+    echo "no launcher has been built, run 'mvn package' first" >&2
+    exit 1
+fi
+
+SHOW="show -q \
+    -k sample/amster/amster-transportkey-keystore.jceks \
+    -f sample/amster/.storepass \
+    -a sms.transport.key \
+    -n sample/amster/.keypass"
+
+COPY="copy -q \
+    -s sample/amster/amster-transportkey-keystore.jceks \
+    -f sample/amster/.storepass \
+    -a sms.transport.key \
+    -n sample/amster/.keypass \
+    -t $WORK_DIR/keystore.jceks \
+    -u sample/empty-keystore/.storepass \
+    -l sms.transport.key \
+    -z sample/empty-keystore/.keypass"
+
+# measure <launcher> <arguments>: prints the elapsed times in milliseconds, one per line
+measure() {
+    for ((i = 0; i < RUNS; i++)); do
+        cp sample/empty-keystore/keystore.jceks "$WORK_DIR/keystore.jceks"
+        start=$(date +%s%N)
+        $1 $2 > /dev/null
+        end=$(date +%s%N)
+        echo $(((end - start) / 1000000))
+    done
+}
+
+# summary: reads the elapsed times and prints min, median and mean
+summary() {
+    sort -n | awk '{ t[NR] = $1; sum += $1 }
+        END { printf "%8d %8d %8.1f\n", t[1], t[int((NR + 1) / 2)], sum / NR }'
+}
+
+printf "%-10s %-8s %8s %8s %8s\n" "COMMAND" "LAUNCHER" "MIN" "MEDIAN" "MEAN"
+for command in show copy; do
+    if [ "$command" = "show" ]; then arguments=$SHOW; else arguments=$COPY; fi
+    for index in "${!LAUNCHERS[@]}"; do
+        cp sample/empty-keystore/keystore.jceks "$WORK_DIR/keystore.jceks"
+        ${LAUNCHERS[$index]} $arguments > /dev/null
+        printf "%-10s %-8s %s\n" "$command" "${NAMES[$index]}" "$(measure "${LAUNCHERS[$index]}" "$arguments" | summary)"
+    done
+done
@@ -1,8 +1,22 @@
 package com.remal.jceks;
 
+import com.remal.jceks.command.ConvertCommand;
 import com.remal.jceks.command.CopySecretKeyCommand;
+import com.remal.jceks.command.ExportCommand;
+import com.remal.jceks.command.FindCommand;
+import com.remal.jceks.command.GenerateCommand;
+import com.remal.jceks.command.ImportCommand;
+import com.remal.jceks.command.InfoCommand;
+import com.remal.jceks.command.ListCommand;
+import com.remal.jceks.command.MergeCommand;
+import com.remal.jceks.command.RekeyCommand;
+import com.remal.jceks.command.ScanCommand;
+import com.remal.jceks.command.ServeCommand;
 import com.remal.jceks.command.ShowSecretKeyCommand;
+import com.remal.jceks.command.SyncCommand;
+import com.remal.jceks.metrics.Metrics;
 import com.remal.jceks.picocli.CustomOptionRenderer;
+import com.remal.jceks.picocli.ErrorMessageHandler;
 import picocli.CommandLine;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Option;
@@ -15,8 +29,22 @@ import picocli.CommandLine.Option;
  * @author arnold.somogyi@gmail.com
  */
 @Command(
-        subcommands = {ShowSecretKeyCommand.class, CopySecretKeyCommand.class},
-        synopsisSubcommandLabel = "(show | copy)",
+        subcommands = {
+                ShowSecretKeyCommand.class,
+                CopySecretKeyCommand.class,
+                ServeCommand.class,
+                ScanCommand.class,
+                ExportCommand.class,
+                ListCommand.class,
+                InfoCommand.class,
+                SyncCommand.class,
+                ConvertCommand.class,
+                RekeyCommand.class,
+                MergeCommand.class,
+                FindCommand.class,
+                GenerateCommand.class,
+                ImportCommand.class},
+        synopsisSubcommandLabel = "(show | copy | serve | scan | export | list | info | sync | convert | rekey | merge | find | generate | import)",
         name = "jceks-tool",
         description = "JCEKS keystore command line tool.%n",
         usageHelpAutoWidth = true,
@@ -40,6 +68,15 @@ public class JceksTool {
      */
     public static final String FOOTER_HEADING = "%nPlease report issues at arnold.somogyi@gmail.com.";
 
+    /**
+     * CLI definition: print the timings and counters of the keystore operations at exit.
+     * Every subcommand accepts this option.
+     */
+    @Option(names = {"-S", "--stats"},
+            description = "print the timings and counters of the keystore operations to the standard error at exit",
+            scope = CommandLine.ScopeType.INHERIT)
+    static boolean stats;
+
     /**
      * CLI definition: display the help message.
      */
@@ -52,8 +89,27 @@ public class JceksTool {
      * @param args command line arguments
      */
     public static void main(String... args) {
+        // a shutdown hook also covers the long-running commands stopped by a signal
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (stats) {
+                Metrics.printSummary(System.err);
+            }
+        }));
+        System.exit(execute(args));
+    }
+
+    /**
+     * Run a command in the current process. The errors are reported with the
+     * exit code, the JVM is not stopped.
+     *
+     * @param args command line arguments
+     * @return exit code
+     */
+    public static int execute(String... args) {
         CommandLine cmd = new CommandLine(new JceksTool());
         cmd.setHelpFactory(new CustomOptionRenderer());
-        System.exit(cmd.execute(args));
+        cmd.setExecutionExceptionHandler(new ErrorMessageHandler());
+        cmd.setCaseInsensitiveEnumValuesAllowed(true);
+        return cmd.execute(args);
     }
 }
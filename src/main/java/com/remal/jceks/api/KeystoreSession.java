@@ -0,0 +1,203 @@
+package com.remal.jceks.api;
+
+import com.remal.jceks.keystore.Keystore;
+import com.remal.jceks.keystore.KeystoreException;
+import com.remal.jceks.keystore.KeystoreTransaction;
+import com.remal.jceks.keystore.KeystoreType;
+import com.remal.jceks.util.DevNullPrintStream;
+import com.remal.jceks.util.SecretBuffers;
+
+import javax.crypto.SecretKey;
+import java.io.PrintStream;
+import java.security.KeyStore;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Library API of the tool: an opened keystore that serves any number of
+ * reads and writes in the same process.
+ *
+ * <p>The keystore file is loaded once, when the session is opened, and saved
+ * by every write. Errors are reported with {@link KeystoreException}, nothing
+ * exits the JVM, so the session can be used by long-running applications.
+ * A session is thread-safe, the reads run in parallel and the writes are
+ * serialized.</p>
+ *
+ * <p>Usage:</p>
+ * <pre>
+ *     try (KeystoreSession session = new KeystoreSession("keystore.jceks", storePassword)) {
+ *         char[] value = session.get("sms.transport.key", entryPassword);
+ *         ...
+ *     }
+ * </pre>
+ *
+ * <p>The session keeps a copy of the keystore password and overwrites it
+ * when the session is closed, the caller may wipe its own array right after
+ * the session has been opened. A closed session throws
+ * {@link IllegalStateException}; the keystore and the transactions obtained
+ * from the session must not be used after it has been closed either, they
+ * share the overwritten password.</p>
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+public class KeystoreSession implements AutoCloseable {
+
+    private final char[] keyStorePassword;
+    private final Keystore keystore;
+    private volatile boolean closed;
+
+    /**
+     * Open an existing keystore without logging. The format of the keystore is
+     * detected from the content of the file.
+     *
+     * @param keyStoreLocation keystore location
+     * @param keyStorePassword keystore password
+     * @throws KeystoreException if the keystore cannot be loaded or the password is wrong
+     */
+    public KeystoreSession(String keyStoreLocation, char[] keyStorePassword) {
+        this(DevNullPrintStream.getPrintStream(), keyStoreLocation, keyStorePassword, null);
+    }
+
+    /**
+     * Open an existing keystore.
+     *
+     * @param logWriter log writer stream
+     * @param keyStoreLocation keystore location
+     * @param keyStorePassword keystore password
+     * @param type format of the keystore file or null to detect it from the content of the file
+     * @throws KeystoreException if the keystore cannot be loaded or the password is wrong
+     */
+    public KeystoreSession(PrintStream logWriter, String keyStoreLocation, char[] keyStorePassword, KeystoreType type) {
+        this.keyStorePassword = keyStorePassword.clone();
+        try {
+            this.keystore = Keystore.open(logWriter, keyStoreLocation, this.keyStorePassword, type);
+        } catch (KeystoreException e) {
+            SecretBuffers.wipe(this.keyStorePassword);
+            throw e;
+        }
+    }
+
+    /**
+     * Read the value of a secret key entry. The caller should overwrite the
+     * returned array when it is not needed anymore.
+     *
+     * @param alias alias for the keystore entry
+     * @param entryPassword password for the keystore entry
+     * @return the base64 encoded value of the secret key
+     * @throws KeystoreException if the entry does not exist or it is not a secret key
+     */
+    public char[] get(String alias, char[] entryPassword) {
+        return open().getSecretKeyChars(alias, entryPassword);
+    }
+
+    /**
+     * Get a keystore entry.
+     *
+     * @param alias alias for the keystore entry
+     * @param entryPassword password for the keystore entry, ignored for trusted certificates
+     * @return the keystore entry or null if the entry does not exist
+     */
+    public KeyStore.Entry getEntry(String alias, char[] entryPassword) {
+        return open().getEntry(alias, entryPassword);
+    }
+
+    /**
+     * Get the alias names of the keystore entries.
+     *
+     * @return the sorted list of the alias names
+     */
+    public List<String> list() {
+        return open().getAliases();
+    }
+
+    /**
+     * Add a secret key to the keystore and save the keystore.
+     * If the entry with the given alias name is exist then it will be overwritten.
+     *
+     * @param alias alias for the keystore entry
+     * @param secretKey the secret key
+     * @param entryPassword password for the keystore entry
+     */
+    public void put(String alias, SecretKey secretKey, char[] entryPassword) {
+        put(alias, new KeyStore.SecretKeyEntry(secretKey), entryPassword);
+    }
+
+    /**
+     * Add an entry to the keystore and save the keystore.
+     * If the entry with the given alias name is exist then it will be overwritten.
+     *
+     * @param alias alias for the keystore entry
+     * @param entry the keystore entry
+     * @param entryPassword password for the keystore entry
+     */
+    public void put(String alias, KeyStore.Entry entry, char[] entryPassword) {
+        open().addEntry(entry, alias, entryPassword);
+    }
+
+    /**
+     * Copy an entry to another keystore and save the other keystore.
+     *
+     * @param alias alias for the entry of this keystore
+     * @param entryPassword password for the entry of this keystore
+     * @param target the target keystore
+     * @param targetAlias alias for the target keystore entry
+     * @param targetEntryPassword password for the target keystore entry
+     * @throws KeystoreException if the entry does not exist or the target keystore cannot be saved
+     */
+    public void copy(String alias,
+                     char[] entryPassword,
+                     KeystoreSession target,
+                     String targetAlias,
+                     char[] targetEntryPassword) {
+        KeyStore.Entry entry = getEntry(alias, entryPassword);
+        if (Objects.isNull(entry)) {
+            throw new KeystoreException("source entry does not exist, alias: '" + alias + "'");
+        }
+        target.put(targetAlias, entry, targetEntryPassword);
+    }
+
+    /**
+     * Start a new transaction, e.g. to add many entries with one save.
+     *
+     * @return the new transaction
+     */
+    public KeystoreTransaction begin() {
+        return open().begin();
+    }
+
+    /**
+     * Get the opened keystore, for the operations that the session does not offer.
+     *
+     * @return the keystore, it must not be used after the session has been closed
+     */
+    public Keystore getKeystore() {
+        return open();
+    }
+
+    /**
+     * Close the session and overwrite the copy of the keystore password.
+     * The session cannot be used after it has been closed, closing it again
+     * has no effect.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        SecretBuffers.wipe(keyStorePassword);
+    }
+
+    /**
+     * Get the keystore of an open session.
+     *
+     * @return the keystore
+     * @throws IllegalStateException if the session has been closed
+     */
+    private Keystore open() {
+        if (closed) {
+            throw new IllegalStateException("the keystore session has been closed: '"
+                    + keystore.getKeyStoreLocation() + "'");
+        }
+        return keystore;
+    }
+}
@@ -0,0 +1,160 @@
+package com.remal.jceks.command;
+
+import com.remal.jceks.keystore.KeystoreException;
+import com.remal.jceks.util.Constants;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One line of a batch mapping file.
+ *
+ * <p>Format of a line: {@code source-alias,target-alias[,source-entry-password-ref[,target-entry-password-ref]]}.
+ * Empty lines and lines starting with {@code #} are ignored. A field that
+ * contains a comma is quoted as in CSV, e.g. {@code "file:a,b.txt"}. A password
+ * reference is resolved by {@link com.remal.jceks.password.PasswordResolver},
+ * e.g. {@code file:<path-to-password-file>} or {@code env:<name>}. Inline
+ * {@code pass:} references are rejected, so the mapping file does not hold
+ * plaintext passwords. If a reference is omitted or empty then the password
+ * given on the command line is used.</p>
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+public class AliasMapping {
+
+    private static final String COMMENT = "#";
+    private static final String INLINE_REFERENCE = "pass:";
+    private static final int MAX_FIELDS = 4;
+
+    private final int lineNumber;
+    private final String sourceAlias;
+    private final String targetAlias;
+    private final String sourceEntryPasswordRef;
+    private final String targetEntryPasswordRef;
+
+    /**
+     * Initialize a mapping.
+     *
+     * @param lineNumber line number in the mapping file
+     * @param sourceAlias alias name of the source keystore entry
+     * @param targetAlias alias name of the target keystore entry
+     * @param sourceEntryPasswordRef password reference of the source entry or null
+     * @param targetEntryPasswordRef password reference of the target entry or null
+     */
+    public AliasMapping(int lineNumber,
+                        String sourceAlias,
+                        String targetAlias,
+                        String sourceEntryPasswordRef,
+                        String targetEntryPasswordRef) {
+        this.lineNumber = lineNumber;
+        this.sourceAlias = sourceAlias;
+        this.targetAlias = targetAlias;
+        this.sourceEntryPasswordRef = sourceEntryPasswordRef;
+        this.targetEntryPasswordRef = targetEntryPasswordRef;
+    }
+
+    /**
+     * Read all mappings from a batch mapping file.
+     *
+     * @param logWriter log writer stream
+     * @param pathToFile path to the mapping file
+     * @return list of the mappings in file order
+     * @throws IllegalArgumentException if a line of the file is invalid
+     * @throws KeystoreException if the file cannot be read
+     */
+    public static List<AliasMapping> read(PrintStream logWriter, String pathToFile) {
+        List<AliasMapping> mappings = new ArrayList<>();
+        logWriter.printf(Constants.INFO_MESSAGE, "reading the '" + pathToFile + "' mapping file...");
+
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(pathToFile))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith(COMMENT)) {
+                    continue;
+                }
+
+                List<String> fields;
+                try {
+                    fields = SecretKeyReader.splitCsv(trimmed);
+                } catch (IllegalArgumentException e) {
+                    throw invalidLine(pathToFile, lineNumber, e.getMessage());
+                }
+                if (fields.size() > MAX_FIELDS) {
+                    throw invalidLine(
+                            pathToFile,
+                            lineNumber,
+                            "too many fields, quote the fields that contain a comma");
+                }
+                if (fields.size() < 2 || fields.get(0).trim().isEmpty() || fields.get(1).trim().isEmpty()) {
+                    throw invalidLine(pathToFile, lineNumber, "the source and the target aliases are required");
+                }
+
+                mappings.add(new AliasMapping(
+                        lineNumber,
+                        fields.get(0).trim(),
+                        fields.get(1).trim(),
+                        fields.size() > 2 ? passwordRef(pathToFile, lineNumber, fields.get(2)) : null,
+                        fields.size() > 3 ? passwordRef(pathToFile, lineNumber, fields.get(3)) : null));
+            }
+        } catch (IOException e) {
+            throw new KeystoreException(e);
+        }
+
+        return mappings;
+    }
+
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    public String getSourceAlias() {
+        return sourceAlias;
+    }
+
+    public String getTargetAlias() {
+        return targetAlias;
+    }
+
+    public String getSourceEntryPasswordRef() {
+        return sourceEntryPasswordRef;
+    }
+
+    public String getTargetEntryPasswordRef() {
+        return targetEntryPasswordRef;
+    }
+
+    /**
+     * Check a password reference field.
+     *
+     * @param pathToFile path to the mapping file
+     * @param lineNumber line number of the mapping
+     * @param value value of the field
+     * @return the password reference or null if the field is empty
+     */
+    private static String passwordRef(String pathToFile, int lineNumber, String value) {
+        String trimmed = value.trim();
+        if (trimmed.startsWith(INLINE_REFERENCE)) {
+            throw invalidLine(
+                    pathToFile,
+                    lineNumber,
+                    "inline '" + INLINE_REFERENCE + "' passwords are not allowed in a mapping file, "
+                            + "use a 'file:' or 'env:' reference");
+        }
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private static IllegalArgumentException invalidLine(String pathToFile, int lineNumber, String reason) {
+        return new IllegalArgumentException(
+                "invalid mapping in '" + pathToFile + "' at line " + lineNumber + ": " + reason);
+    }
+}
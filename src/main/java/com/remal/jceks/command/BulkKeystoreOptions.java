@@ -0,0 +1,175 @@
+package com.remal.jceks.command;
+
+import com.remal.jceks.keystore.EntryProtection;
+import com.remal.jceks.keystore.Keystore;
+import com.remal.jceks.keystore.KeystoreTransaction;
+import com.remal.jceks.keystore.KeystoreType;
+import com.remal.jceks.password.PasswordResolver;
+import picocli.CommandLine;
+import picocli.CommandLine.ArgGroup;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Spec;
+
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Objects;
+
+/**
+ * Target keystore options shared by the 'generate' and 'import' commands.
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+public class BulkKeystoreOptions {
+
+    /**
+     * Picocli specification of the command that uses the options, used to report invalid input.
+     */
+    @Spec(Spec.Target.MIXEE)
+    CommandSpec mixee;
+
+    /**
+     * CLI definition: set the keystore path.
+     */
+    @Option(names = {"-k", "--keystore"},
+            description = "path to the keystore, it is created if it does not exist",
+            required = true)
+    String keystoreLocation;
+
+    /**
+     * Exclusive CLI group definition for keystore password.
+     */
+    @ArgGroup(multiplicity = "1")
+    KeystorePasswordGroup keystorePasswordGroup;
+
+    static class KeystorePasswordGroup {
+
+        /**
+         * CLI definition: set the keystore password.
+         */
+        @Option(names = {"-p", "--keystore-password"},
+                description = "password for the keystore",
+                required = true)
+        String keystorePassword;
+
+        /**
+         * CLI definition: set the path of the keystore password file.
+         */
+        @Option(names = {"-f", "--keystore-password-file"},
+                description = "keystore password file or reference: " + PasswordResolver.REFERENCES,
+                required = true)
+        String keystorePasswordFile;
+    }
+
+    /**
+     * CLI definition: set the format of the keystore.
+     */
+    @Option(names = {"-T", "--keystore-type"},
+            description = "keystore format: ${COMPLETION-CANDIDATES}, default: detected from the content of an "
+                    + "existing file, JCEKS for a new one")
+    KeystoreType keystoreType;
+
+    /**
+     * Exclusive CLI group definition for the keystore entry password.
+     */
+    @ArgGroup(multiplicity = "1")
+    EntryPasswordGroup entryPasswordGroup;
+
+    static class EntryPasswordGroup {
+
+        /**
+         * CLI definition: set the keystore entry password.
+         */
+        @Option(names = {"-e", "--entry-password"},
+                description = "password for the new keystore entries",
+                required = true)
+        String entryPassword;
+
+        /**
+         * CLI definition: set the path of the keystore entry password file.
+         */
+        @Option(names = {"-n", "--entry-password-file"},
+                description = "keystore entry password file or reference: " + PasswordResolver.REFERENCES,
+                required = true)
+        String entryPasswordFile;
+    }
+
+    /**
+     * CLI definition: set the protection algorithm of the new entries.
+     */
+    @Option(names = {"-g", "--protection-algorithm"},
+            description = "PBE algorithm of the new entries, PKCS12 and BCFKS only, e.g. "
+                    + EntryProtection.DEFAULT_ALGORITHM + ", default: the provider default")
+    String protectionAlgorithm;
+
+    /**
+     * CLI definition: set the iteration count of the new entry protection.
+     */
+    @Option(names = {"-i", "--iteration-count"},
+            description = "PBE iteration count of the new entries, PKCS12 and BCFKS only, "
+                    + "default: the provider default")
+    int iterationCount;
+
+    /**
+     * CLI definition: set the number of worker threads.
+     */
+    @Option(names = {"-t", "--threads"},
+            description = "number of entries built at the same time, default: number of processors")
+    int threads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Check the options that picocli cannot check.
+     */
+    void validate() {
+        if (threads < 1) {
+            throw new CommandLine.ParameterException(mixee.commandLine(), "Error: --threads must be at least 1");
+        }
+    }
+
+    /**
+     * Open the keystore, or create it if the file does not exist.
+     *
+     * @param logWriter log writer stream
+     * @param passwords resolver of the password references
+     * @return the keystore, its new entries are protected as the options say
+     */
+    Keystore openOrCreate(PrintStream logWriter, PasswordResolver passwords) {
+        char[] keystorePassword = passwords.resolve(
+                keystorePasswordGroup.keystorePassword,
+                keystorePasswordGroup.keystorePasswordFile);
+
+        Keystore keystore = Files.exists(Paths.get(keystoreLocation))
+                ? Keystore.open(logWriter, keystoreLocation, keystorePassword, keystoreType)
+                : Keystore.create(
+                        logWriter,
+                        keystoreLocation,
+                        keystorePassword,
+                        Objects.isNull(keystoreType) ? KeystoreType.JCEKS : keystoreType);
+        keystore.setEntryProtection(new EntryProtection(protectionAlgorithm, iterationCount));
+        return keystore;
+    }
+
+    /**
+     * Resolve the password of the new entries.
+     *
+     * @param passwords resolver of the password references
+     * @return the entry password
+     */
+    char[] entryPassword(PasswordResolver passwords) {
+        return passwords.resolve(entryPasswordGroup.entryPassword, entryPasswordGroup.entryPasswordFile);
+    }
+
+    /**
+     * Start building the new entries on {@code --threads} worker threads.
+     *
+     * @param transaction the transaction that gets the new entries
+     * @param entryPassword password for the new entries
+     * @return the builder, it must be closed
+     */
+    ParallelEntryBuilder newEntryBuilder(KeystoreTransaction transaction, char[] entryPassword) {
+        return new ParallelEntryBuilder(transaction, entryPassword, threads);
+    }
+}
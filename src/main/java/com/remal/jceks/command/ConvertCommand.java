@@ -0,0 +1,258 @@
+package com.remal.jceks.command;
+
+import com.remal.jceks.JceksTool;
+import com.remal.jceks.keystore.EntryProtection;
+import com.remal.jceks.keystore.Keystore;
+import com.remal.jceks.keystore.KeystoreType;
+import com.remal.jceks.keystore.KeystoreTransaction;
+import com.remal.jceks.password.PasswordResolver;
+import com.remal.jceks.util.Constants;
+import com.remal.jceks.util.DevNullPrintStream;
+import picocli.CommandLine;
+import picocli.CommandLine.ArgGroup;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+
+/**
+ * Implementation of the 'convert' command.
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+@Command(
+        name = "convert",
+        sortOptions = false,
+        usageHelpAutoWidth = true,
+        description = "Copy every entry of the source keystore to a new keystore with a different format.",
+        descriptionHeading = "%n",
+        optionListHeading = "%n",
+        footerHeading = JceksTool.FOOTER_HEADING,
+        footer = JceksTool.FOOTER)
+public class ConvertCommand implements Callable<Integer> {
+
+    /**
+     * CLI definition: display the help message.
+     */
+    @Option(names = {"-q", "--quiet"},
+            description = "In this mode nothing will be printed to the output.")
+    private boolean quiet;
+
+    /**
+     * CLI definition: set the source keystore path.
+     */
+    @Option(
+            names = {"-s", "--source-keystore"},
+            description = "path to the source keystore",
+            required = true)
+    String sourceKeystoreLocation;
+
+    /**
+     * Exclusive CLI group definition for source keystore password.
+     */
+    @ArgGroup(multiplicity = "1")
+    SourceKeystorePasswordGroup sourceKeystorePasswordGroup;
+
+    static class SourceKeystorePasswordGroup {
+
+        /**
+         * CLI definition: set the source keystore password.
+         */
+        @Option(
+                names = {"-p", "--source-keystore-password"},
+                description = "password for the source keystore",
+                required = true)
+        String sourceKeystorePassword;
+
+        /**
+         * CLI definition: set the path of the source keystore password file.
+         */
+        @Option(
+                names = {"-f", "--source-keystore-password-file"},
+                description = "source keystore password file or reference: " + PasswordResolver.REFERENCES,
+                required = true)
+        String sourceKeystorePasswordFile;
+    }
+
+    /**
+     * CLI definition: set the format of the source keystore.
+     */
+    @Option(
+            names = {"-c", "--source-keystore-type"},
+            description = "source keystore format: ${COMPLETION-CANDIDATES}, default: detected from the content of the file")
+    KeystoreType sourceKeystoreType;
+
+    /**
+     * Exclusive CLI group definition for the source keystore entry password.
+     */
+    @ArgGroup(multiplicity = "1")
+    SourceEntryPasswordGroup sourceEntryPasswordGroup;
+
+    static class SourceEntryPasswordGroup {
+
+        /**
+         * CLI definition: set the source keystore entry password.
+         */
+        @Option(
+                names = {"-e", "--source-entry-password"},
+                description = "password for the source keystore entries",
+                required = true)
+        String sourceEntryPassword;
+
+        /**
+         * CLI definition: set the path of the source keystore entry password file.
+         */
+        @Option(
+                names = {"-n", "--source-entry-password-file"},
+                description = "source keystore entry password file or reference: " + PasswordResolver.REFERENCES,
+                required = true)
+        String sourceEntryPasswordFile;
+    }
+
+    /**
+     * CLI definition: set the target keystore path.
+     */
+    @Option(
+            names = {"-t", "--target-keystore"},
+            description = "path to the new target keystore, the file must not exist",
+            required = true)
+    String targetKeystoreLocation;
+
+    /**
+     * Exclusive CLI group definition for target keystore password.
+     */
+    @ArgGroup(multiplicity = "1")
+    TargetKeystorePasswordGroup targetKeystorePasswordGroup;
+
+    static class TargetKeystorePasswordGroup {
+
+        /**
+         * CLI definition: set the target keystore password.
+         */
+        @Option(
+                names = {"-o", "--target-keystore-password"},
+                description = "password for the target keystore",
+                required = true)
+        String targetKeystorePassword;
+
+        /**
+         * CLI definition: set the path of the target keystore password file.
+         */
+        @Option(
+                names = {"-u", "--target-keystore-password-file"},
+                description = "target keystore password file or reference: " + PasswordResolver.REFERENCES,
+                required = true)
+        String targetKeystorePasswordFile;
+    }
+
+    /**
+     * CLI definition: set the format of the target keystore.
+     */
+    @Option(
+            names = {"-y", "--target-keystore-type"},
+            description = "target keystore format: ${COMPLETION-CANDIDATES}, default: ${DEFAULT-VALUE}",
+            defaultValue = "pkcs12")
+    KeystoreType targetKeystoreType;
+
+    /**
+     * Exclusive CLI group definition for the target keystore entry password.
+     */
+    @ArgGroup(multiplicity = "0..1")
+    TargetEntryPasswordGroup targetEntryPasswordGroup;
+
+    static class TargetEntryPasswordGroup {
+
+        /**
+         * CLI definition: set the target keystore entry password.
+         */
+        @Option(
+                names = {"-r", "--target-entry-password"},
+                description = "password for the target keystore entries, default: the source entry password",
+                required = true)
+        String targetEntryPassword;
+
+        /**
+         * CLI definition: set the path of the target keystore entry password file.
+         */
+        @Option(
+                names = {"-z", "--target-entry-password-file"},
+                description = "target keystore entry password file or reference: " + PasswordResolver.REFERENCES,
+                required = true)
+        String targetEntryPasswordFile;
+    }
+
+    /**
+     * CLI definition: set the protection algorithm of the target entries.
+     */
+    @Option(
+            names = {"-g", "--protection-algorithm"},
+            description = "PBE algorithm of the target entries, PKCS12 and BCFKS only, e.g. "
+                    + EntryProtection.DEFAULT_ALGORITHM + ", default: the provider default")
+    String protectionAlgorithm;
+
+    /**
+     * CLI definition: set the iteration count of the target entry protection.
+     */
+    @Option(
+            names = {"-i", "--iteration-count"},
+            description = "PBE iteration count of the target entries, PKCS12 and BCFKS only, "
+                    + "default: the provider default")
+    int iterationCount;
+
+    /**
+     * Execute the command and computes a result.
+     *
+     * @return exit code
+     */
+    @Override
+    public Integer call() {
+        PrintStream logWriter = this.quiet ? DevNullPrintStream.getPrintStream() : System.out;
+
+        try (PasswordResolver passwords = new PasswordResolver(logWriter)) {
+            char[] sourceKeystorePassword = passwords.resolve(
+                    sourceKeystorePasswordGroup.sourceKeystorePassword,
+                    sourceKeystorePasswordGroup.sourceKeystorePasswordFile);
+            char[] sourceEntryPassword = passwords.resolve(
+                    sourceEntryPasswordGroup.sourceEntryPassword,
+                    sourceEntryPasswordGroup.sourceEntryPasswordFile);
+            char[] targetKeystorePassword = passwords.resolve(
+                    targetKeystorePasswordGroup.targetKeystorePassword,
+                    targetKeystorePasswordGroup.targetKeystorePasswordFile);
+            char[] targetEntryPassword = Objects.isNull(targetEntryPasswordGroup)
+                    ? sourceEntryPassword
+                    : passwords.resolve(
+                            targetEntryPasswordGroup.targetEntryPassword,
+                            targetEntryPasswordGroup.targetEntryPasswordFile);
+
+            Keystore sourceKeystore = Keystore.open(
+                    logWriter, sourceKeystoreLocation, sourceKeystorePassword, sourceKeystoreType);
+            List<String> aliases = sourceKeystore.getAliases();
+            if (aliases.isEmpty()) {
+                logWriter.printf(Constants.INFO_MESSAGE, "the source keystore is empty, nothing to convert");
+                return CommandLine.ExitCode.OK;
+            }
+
+            Keystore targetKeystore = Keystore.create(
+                    logWriter, targetKeystoreLocation, targetKeystorePassword, targetKeystoreType);
+            targetKeystore.setEntryProtection(new EntryProtection(protectionAlgorithm, iterationCount));
+
+            // one pass over the source entries, the target file is written once
+            KeystoreTransaction transaction = targetKeystore.begin();
+            for (String alias : aliases) {
+                transaction.setEntry(sourceKeystore.getEntry(alias, sourceEntryPassword), alias, targetEntryPassword);
+            }
+            transaction.commit();
+
+            logWriter.printf(
+                    Constants.INFO_MESSAGE,
+                    aliases.size() + " entries have been converted from "
+                            + sourceKeystore.getType() + " to " + targetKeystore.getType());
+            return CommandLine.ExitCode.OK;
+        }
+    }
+}
@@ -1,16 +1,23 @@
 package com.remal.jceks.command;
 
 import com.remal.jceks.JceksTool;
-import com.remal.jceks.keystore.JceksKeystore;
+import com.remal.jceks.api.KeystoreSession;
+import com.remal.jceks.keystore.EntryProtection;
+import com.remal.jceks.keystore.KeystoreTransaction;
+import com.remal.jceks.keystore.KeystoreType;
+import com.remal.jceks.password.PasswordResolver;
+import com.remal.jceks.util.Constants;
 import com.remal.jceks.util.DevNullPrintStream;
-import com.remal.jceks.util.FileReader;
 import picocli.CommandLine;
 import picocli.CommandLine.ArgGroup;
 import picocli.CommandLine.Command;
+import picocli.CommandLine.Model.CommandSpec;
 import picocli.CommandLine.Option;
+import picocli.CommandLine.Spec;
 
 import java.io.PrintStream;
 import java.security.KeyStore;
+import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.Callable;
 
@@ -32,6 +39,12 @@ import java.util.concurrent.Callable;
         footer = JceksTool.FOOTER)
 public class CopySecretKeyCommand implements Callable<Integer> {
 
+    /**
+     * Picocli command specification, used to report invalid input.
+     */
+    @Spec
+    CommandSpec spec;
+
     /**
      * CLI definition: display the help message.
      */
@@ -70,24 +83,31 @@ public class CopySecretKeyCommand implements Callable<Integer> {
          */
         @Option(
                 names = {"-f", "--source-keystore-password-file"},
-                description = "source keystore password file",
+                description = "source keystore password file or reference: " + PasswordResolver.REFERENCES,
                 required = true)
         String sourceKeystorePasswordFile;
     }
 
+    /**
+     * CLI definition: set the format of the source keystore.
+     */
+    @Option(
+            names = {"-c", "--source-keystore-type"},
+            description = "source keystore format: ${COMPLETION-CANDIDATES}, default: detected from the content of the file")
+    KeystoreType sourceKeystoreType;
+
     /**
      * CLI definition: set the source keystore alias name.
      */
     @Option(
             names = {"-a", "--source-alias"},
-            description = "alias name of the source keystore entry",
-            required = true)
+            description = "alias name of the source keystore entry")
     String sourceAlias;
 
     /**
      * Exclusive CLI group definition for the source keystore entry password.
      */
-    @ArgGroup(multiplicity = "1")
+    @ArgGroup(multiplicity = "0..1")
     SourceEntryPasswordGroup sourceEntryPasswordGroup;
 
     static class SourceEntryPasswordGroup {
@@ -106,7 +126,7 @@ public class CopySecretKeyCommand implements Callable<Integer> {
          */
         @Option(
                 names = {"-n", "--source-entry-password-file"},
-                description = "source keystore entry password file",
+                description = "source keystore entry password file or reference: " + PasswordResolver.REFERENCES,
                 required = true)
         String sourceEntryPasswordFile;
     }
@@ -142,24 +162,31 @@ public class CopySecretKeyCommand implements Callable<Integer> {
          */
         @Option(
                 names = {"-u", "--target-keystore-password-file"},
-                description = "target keystore password file",
+                description = "target keystore password file or reference: " + PasswordResolver.REFERENCES,
                 required = true)
         String targetKeystorePasswordFile;
     }
 
+    /**
+     * CLI definition: set the format of the target keystore.
+     */
+    @Option(
+            names = {"-y", "--target-keystore-type"},
+            description = "target keystore format: ${COMPLETION-CANDIDATES}, default: detected from the content of the file")
+    KeystoreType targetKeystoreType;
+
     /**
      * CLI definition: set the target keystore alias name.
      */
     @Option(
             names = {"-l", "--target-alias"},
-            description = "alias name of the target keystore entry",
-            required = true)
+            description = "alias name of the target keystore entry")
     String targetAlias;
 
     /**
      * Exclusive CLI group definition for the target keystore entry password.
      */
-    @ArgGroup(multiplicity = "1")
+    @ArgGroup(multiplicity = "0..1")
     TargetEntryPasswordGroup targetEntryPasswordGroup;
 
     static class TargetEntryPasswordGroup {
@@ -178,11 +205,37 @@ public class CopySecretKeyCommand implements Callable<Integer> {
          */
         @Option(
                 names = {"-z", "--target-entry-password-file"},
-                description = "target keystore entry password file",
+                description = "target keystore entry password file or reference: " + PasswordResolver.REFERENCES,
                 required = true)
         String targetEntryPasswordFile;
     }
 
+    /**
+     * CLI definition: set the protection algorithm of the target entries.
+     */
+    @Option(
+            names = {"-g", "--protection-algorithm"},
+            description = "PBE algorithm of the target entries, PKCS12 and BCFKS only, e.g. "
+                    + EntryProtection.DEFAULT_ALGORITHM + ", default: the provider default")
+    String protectionAlgorithm;
+
+    /**
+     * CLI definition: set the iteration count of the target entry protection.
+     */
+    @Option(
+            names = {"-i", "--iteration-count"},
+            description = "PBE iteration count of the target entries, PKCS12 and BCFKS only, "
+                    + "default: the provider default")
+    int iterationCount;
+
+    /**
+     * CLI definition: set the path of the batch mapping file.
+     */
+    @Option(
+            names = {"-b", "--batch"},
+            description = "batch mapping file, copies every alias listed in the file")
+    String batchFile;
+
     /**
      * Execute the command and computes a result.
      *
@@ -190,37 +243,147 @@ public class CopySecretKeyCommand implements Callable<Integer> {
      */
     @Override
     public Integer call() {
+        validateOptions();
         PrintStream logWriter = this.quiet ? DevNullPrintStream.getPrintStream() : System.out;
 
-        String sourceKeystorePassword = Objects.isNull(sourceKeystorePasswordGroup.sourceKeystorePassword)
-                ? FileReader.firstLine(logWriter, sourceKeystorePasswordGroup.sourceKeystorePasswordFile)
-                : sourceKeystorePasswordGroup.sourceKeystorePassword;
-
-        String sourceEntryPassword = Objects.isNull(sourceEntryPasswordGroup.sourceEntryPassword)
-                ? FileReader.firstLine(logWriter, sourceEntryPasswordGroup.sourceEntryPasswordFile)
-                : sourceEntryPasswordGroup.sourceEntryPassword;
-
-        String targetKeystorePassword = Objects.isNull(targetKeystorePasswordGroup.targetKeystorePassword)
-                ? FileReader.firstLine(logWriter, targetKeystorePasswordGroup.targetKeystorePasswordFile)
-                : targetKeystorePasswordGroup.targetKeystorePassword;
-
-        String targetEntryPassword = Objects.isNull(targetEntryPasswordGroup.targetEntryPassword)
-                ? FileReader.firstLine(logWriter, targetEntryPasswordGroup.targetEntryPasswordFile)
-                : targetEntryPasswordGroup.targetEntryPassword;
-
-        JceksKeystore sourceKeystore = new JceksKeystore(
-                logWriter,
-                sourceKeystoreLocation,
-                sourceKeystorePassword.toCharArray());
+        try (PasswordResolver passwords = new PasswordResolver(logWriter)) {
+            char[] sourceKeystorePassword = passwords.resolve(
+                    sourceKeystorePasswordGroup.sourceKeystorePassword,
+                    sourceKeystorePasswordGroup.sourceKeystorePasswordFile);
+            char[] targetKeystorePassword = passwords.resolve(
+                    targetKeystorePasswordGroup.targetKeystorePassword,
+                    targetKeystorePasswordGroup.targetKeystorePasswordFile);
+
+            try (KeystoreSession source = new KeystoreSession(
+                    logWriter, sourceKeystoreLocation, sourceKeystorePassword, sourceKeystoreType);
+                 KeystoreSession target = new KeystoreSession(
+                         logWriter, targetKeystoreLocation, targetKeystorePassword, targetKeystoreType)) {
+                target.getKeystore().setEntryProtection(new EntryProtection(protectionAlgorithm, iterationCount));
+
+                if (Objects.nonNull(batchFile)) {
+                    return copyBatch(logWriter, passwords, source, target);
+                }
+
+                char[] sourceEntryPassword = passwords.resolve(
+                        sourceEntryPasswordGroup.sourceEntryPassword,
+                        sourceEntryPasswordGroup.sourceEntryPasswordFile);
+                char[] targetEntryPassword = passwords.resolve(
+                        targetEntryPasswordGroup.targetEntryPassword,
+                        targetEntryPasswordGroup.targetEntryPasswordFile);
+
+                source.copy(sourceAlias, sourceEntryPassword, target, targetAlias, targetEntryPassword);
+                return CommandLine.ExitCode.OK;
+            }
+        }
+    }
 
-        JceksKeystore targetKeystore = new JceksKeystore(
-                logWriter,
-                targetKeystoreLocation,
-                targetKeystorePassword.toCharArray());
+    /**
+     * Copy every entry listed in the batch mapping file. Both keystores are
+     * loaded once and the target keystore is saved once, in one transaction.
+     * Every password reference is resolved only once.
+     *
+     * @param logWriter log writer stream
+     * @param passwords resolver of the password references
+     * @param source the source keystore
+     * @param target the target keystore
+     * @return exit code
+     */
+    private Integer copyBatch(PrintStream logWriter,
+                              PasswordResolver passwords,
+                              KeystoreSession source,
+                              KeystoreSession target) {
+        List<AliasMapping> mappings;
+        try {
+            mappings = AliasMapping.read(logWriter, batchFile);
+        } catch (IllegalArgumentException e) {
+            throw new CommandLine.ParameterException(spec.commandLine(), "Error: " + e.getMessage());
+        }
+        KeystoreTransaction transaction = target.begin();
+
+        char[] defaultSourceEntryPassword = Objects.isNull(sourceEntryPasswordGroup)
+                ? null
+                : passwords.resolve(
+                        sourceEntryPasswordGroup.sourceEntryPassword,
+                        sourceEntryPasswordGroup.sourceEntryPasswordFile);
+
+        char[] defaultTargetEntryPassword = Objects.isNull(targetEntryPasswordGroup)
+                ? null
+                : passwords.resolve(
+                        targetEntryPasswordGroup.targetEntryPassword,
+                        targetEntryPasswordGroup.targetEntryPasswordFile);
+
+        for (AliasMapping mapping : mappings) {
+            char[] sourceEntryPassword = resolvePassword(
+                    passwords,
+                    mapping.getSourceEntryPasswordRef(),
+                    defaultSourceEntryPassword,
+                    mapping);
+
+            char[] targetEntryPassword = resolvePassword(
+                    passwords,
+                    mapping.getTargetEntryPasswordRef(),
+                    defaultTargetEntryPassword,
+                    mapping);
+
+            KeyStore.Entry entry = source.getEntry(mapping.getSourceAlias(), sourceEntryPassword);
+            if (Objects.isNull(entry)) {
+                logWriter.printf(
+                        Constants.ERROR_MESSAGE,
+                        "source entry does not exist, alias: '" + mapping.getSourceAlias() + "'");
+                return CommandLine.ExitCode.SOFTWARE;
+            }
+            transaction.setEntry(entry, mapping.getTargetAlias(), targetEntryPassword);
+        }
+
+        transaction.commit();
+        logWriter.printf(Constants.INFO_MESSAGE, mappings.size() + " entries have been copied");
+        return CommandLine.ExitCode.OK;
+    }
 
-        KeyStore.Entry entry = sourceKeystore.getEntry(sourceAlias, sourceEntryPassword.toCharArray());
-        targetKeystore.addEntry(entry, targetAlias, targetEntryPassword.toCharArray());
+    /**
+     * Resolve a password reference of the batch mapping file.
+     *
+     * @param passwords resolver of the password references
+     * @param passwordRef the password reference or null
+     * @param defaultPassword the password given on the command line or null
+     * @param mapping the mapping that the reference belongs to
+     * @return the password
+     */
+    private char[] resolvePassword(PasswordResolver passwords,
+                                   String passwordRef,
+                                   char[] defaultPassword,
+                                   AliasMapping mapping) {
+        if (Objects.nonNull(passwordRef)) {
+            return passwords.resolve(passwordRef);
+        }
+
+        if (Objects.isNull(defaultPassword)) {
+            throw new CommandLine.ParameterException(
+                    spec.commandLine(),
+                    "Missing entry password at line " + mapping.getLineNumber() + " of the batch file and no "
+                            + "default entry password was given on the command line");
+        }
+        return defaultPassword;
+    }
 
-        return CommandLine.ExitCode.OK;
+    /**
+     * Check the combination of the single-entry and batch mode options.
+     */
+    private void validateOptions() {
+        if (Objects.nonNull(batchFile)) {
+            if (Objects.nonNull(sourceAlias) || Objects.nonNull(targetAlias)) {
+                throw new CommandLine.ParameterException(
+                        spec.commandLine(),
+                        "Error: --source-alias and --target-alias cannot be used together with --batch");
+            }
+            return;
+        }
+
+        if (Objects.isNull(sourceAlias) || Objects.isNull(targetAlias)
+                || Objects.isNull(sourceEntryPasswordGroup) || Objects.isNull(targetEntryPasswordGroup)) {
+            throw new CommandLine.ParameterException(
+                    spec.commandLine(),
+                    "Error: the source and target aliases and entry passwords are required without --batch");
+        }
     }
 }
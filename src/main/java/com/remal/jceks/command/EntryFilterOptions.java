@@ -0,0 +1,86 @@
+package com.remal.jceks.command;
+
+import com.remal.jceks.keystore.EntryFilter;
+import com.remal.jceks.keystore.EntryType;
+import picocli.CommandLine;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Spec;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Entry filter options shared by the 'list' and 'find' commands.
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+public class EntryFilterOptions {
+
+    /**
+     * Picocli specification of the command that uses the options, used to report invalid input.
+     */
+    @Spec(Spec.Target.MIXEE)
+    CommandSpec mixee;
+
+    /**
+     * CLI definition: set the glob pattern of the aliases.
+     */
+    @Option(names = {"-a", "--alias"},
+            description = "glob pattern of the aliases, e.g. 'am.*signing*', '*' matches any characters, '?' one character")
+    String glob;
+
+    /**
+     * CLI definition: set the regular expression of the aliases.
+     */
+    @Option(names = {"-r", "--regex"},
+            description = "regular expression that the whole alias must match")
+    String regex;
+
+    /**
+     * CLI definition: set the accepted entry types.
+     */
+    @Option(names = {"-e", "--entry-type"},
+            split = ",",
+            description = "entry types to show: ${COMPLETION-CANDIDATES}, default: every type")
+    List<EntryType> types;
+
+    /**
+     * CLI definition: set the earliest creation date.
+     */
+    @Option(names = {"-A", "--created-after"},
+            description = "show the entries created on or after this day (UTC), format: yyyy-MM-dd")
+    LocalDate createdAfter;
+
+    /**
+     * CLI definition: set the latest creation date.
+     */
+    @Option(names = {"-B", "--created-before"},
+            description = "show the entries created before this day (UTC), format: yyyy-MM-dd")
+    LocalDate createdBefore;
+
+    /**
+     * Build the filter from the options.
+     *
+     * @return the entry filter
+     */
+    EntryFilter toFilter() {
+        try {
+            return new EntryFilter(
+                    glob,
+                    regex,
+                    types,
+                    Objects.isNull(createdAfter) ? null : createdAfter.atStartOfDay(ZoneOffset.UTC).toInstant(),
+                    Objects.isNull(createdBefore) ? null : createdBefore.atStartOfDay(ZoneOffset.UTC).toInstant());
+        } catch (PatternSyntaxException e) {
+            throw new CommandLine.ParameterException(
+                    mixee.commandLine(),
+                    "Error: invalid --regex: " + e.getDescription());
+        }
+    }
+}
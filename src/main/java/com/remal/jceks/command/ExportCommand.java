@@ -0,0 +1,292 @@
+package com.remal.jceks.command;
+
+import com.remal.jceks.JceksTool;
+import com.remal.jceks.keystore.Keystore;
+import com.remal.jceks.keystore.KeystoreException;
+import com.remal.jceks.output.OutputFormat;
+import com.remal.jceks.output.RecordWriter;
+import com.remal.jceks.password.PasswordResolver;
+import com.remal.jceks.util.Constants;
+import com.remal.jceks.util.DevNullPrintStream;
+import com.remal.jceks.util.SecretBuffers;
+import picocli.CommandLine;
+import picocli.CommandLine.ArgGroup;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Spec;
+
+import java.io.PrintStream;
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Implementation of the 'export' command.
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+@Command(
+        name = "export",
+        sortOptions = false,
+        usageHelpAutoWidth = true,
+        description = "Show the value of many secret keys.",
+        descriptionHeading = "%n",
+        optionListHeading = "%n",
+        footerHeading = JceksTool.FOOTER_HEADING,
+        footer = JceksTool.FOOTER)
+public class ExportCommand implements Callable<Integer> {
+
+    /**
+     * Number of the entries decrypted in advance per worker thread.
+     */
+    private static final int READ_AHEAD_PER_THREAD = 4;
+
+    /**
+     * Picocli command specification, used to report invalid input.
+     */
+    @Spec
+    CommandSpec spec;
+
+    /**
+     * CLI definition: display the help message.
+     */
+    @Option(names = {"-q", "--quiet"},
+            description = "In this mode nothing will be printed to the output.")
+    private boolean quiet;
+
+    /**
+     * CLI definition: set the keystore path.
+     */
+    @Option(names = {"-k", "--keystore"},
+            description = "path to the keystore",
+            required = true)
+    String keystoreLocation;
+
+    /**
+     * Exclusive CLI group definition for keystore password.
+     */
+    @ArgGroup(multiplicity = "1")
+    KeystorePasswordGroup keystorePasswordGroup;
+
+    static class KeystorePasswordGroup {
+
+        /**
+         * CLI definition: set the keystore password.
+         */
+        @Option(names = {"-p", "--keystore-password"},
+                description = "password for the keystore",
+                required = true)
+        String keystorePassword;
+
+        /**
+         * CLI definition: set the path of the keystore password file.
+         */
+        @Option(names = {"-f", "--keystore-password-file"},
+                description = "keystore password file or reference: " + PasswordResolver.REFERENCES,
+                required = true)
+        String keystorePasswordFile;
+    }
+
+    /**
+     * Exclusive CLI group definition for the exported entries.
+     */
+    @ArgGroup(multiplicity = "1")
+    AliasGroup aliasGroup;
+
+    static class AliasGroup {
+
+        /**
+         * CLI definition: export every secret key.
+         */
+        @Option(names = {"-A", "--all"},
+                description = "export every secret key entry",
+                required = true)
+        boolean all;
+
+        /**
+         * CLI definition: set the keystore alias names.
+         */
+        @Option(names = {"-a", "--alias"},
+                description = "alias name of the keystore entry, can be used more times",
+                required = true)
+        List<String> aliases;
+    }
+
+    /**
+     * Exclusive CLI group definition for the keystore entry password.
+     */
+    @ArgGroup(multiplicity = "1")
+    EntryPasswordGroup entryPasswordGroup;
+
+    static class EntryPasswordGroup {
+
+        /**
+         * CLI definition: set the keystore entry password.
+         */
+        @Option(names = {"-e", "--entry-password"},
+                description = "password for the keystore entries",
+                required = true)
+        String entryPassword;
+
+        /**
+         * CLI definition: set the path of the keystore entry password file.
+         */
+        @Option(names = {"-n", "--entry-password-file"},
+                description = "keystore entry password file or reference: " + PasswordResolver.REFERENCES,
+                required = true)
+        String entryPasswordFile;
+    }
+
+    /**
+     * CLI definition: set the number of worker threads.
+     */
+    @Option(names = {"-t", "--threads"},
+            description = "number of entries decrypted at the same time, default: number of processors")
+    int threads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * CLI definition: set the output format.
+     */
+    @Option(names = {"-o", "--format"},
+            description = "output format: ${COMPLETION-CANDIDATES}, machine-readable formats print the result to "
+                    + "the standard output and the log messages to the standard error",
+            defaultValue = "text")
+    OutputFormat format;
+
+    /**
+     * Execute the command and computes a result.
+     *
+     * @return exit code
+     */
+    @Override
+    public Integer call() throws InterruptedException {
+        PrintStream logWriter = this.quiet
+                ? DevNullPrintStream.getPrintStream()
+                : format.isMachineReadable() ? System.err : System.out;
+        RecordWriter recordWriter = format.newWriter(format.isMachineReadable() ? System.out : logWriter, true);
+        if (threads < 1) {
+            throw new CommandLine.ParameterException(spec.commandLine(), "Error: --threads must be at least 1");
+        }
+
+        try (PasswordResolver passwords = new PasswordResolver(logWriter)) {
+            char[] keystorePassword = passwords.resolve(
+                    keystorePasswordGroup.keystorePassword,
+                    keystorePasswordGroup.keystorePasswordFile);
+            char[] entryPassword = passwords.resolve(
+                    entryPasswordGroup.entryPassword,
+                    entryPasswordGroup.entryPasswordFile);
+            return export(logWriter, recordWriter, keystorePassword, entryPassword);
+        }
+    }
+
+    /**
+     * Decrypt and write the secret keys.
+     *
+     * @param logWriter log writer stream
+     * @param recordWriter writer of the results
+     * @param keystorePassword the keystore password
+     * @param entryPassword password for the keystore entries
+     * @return exit code
+     * @throws InterruptedException if the thread is interrupted while waiting for an entry
+     */
+    private Integer export(PrintStream logWriter,
+                           RecordWriter recordWriter,
+                           char[] keystorePassword,
+                           char[] entryPassword) throws InterruptedException {
+        Keystore keystore = Keystore.open(logWriter, keystoreLocation, keystorePassword, null);
+        List<String> aliases = aliasGroup.all ? secretKeyAliases(logWriter, keystore) : aliasGroup.aliases;
+
+        // the entries are decrypted in parallel, but written in the order of
+        // the aliases as soon as the next one is ready
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        Deque<Future<Map.Entry<String, char[]>>> pending = new ArrayDeque<>();
+        int readAhead = threads * READ_AHEAD_PER_THREAD;
+        try {
+            recordWriter.begin();
+            for (String alias : aliases) {
+                if (pending.size() >= readAhead) {
+                    write(recordWriter, pending.poll().get());
+                }
+                pending.add(executor.submit(() -> new AbstractMap.SimpleImmutableEntry<>(
+                        alias,
+                        keystore.getSecretKeyChars(alias, entryPassword))));
+            }
+
+            while (!pending.isEmpty()) {
+                write(recordWriter, pending.poll().get());
+            }
+            recordWriter.end();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof KeystoreException) {
+                throw (KeystoreException) e.getCause();
+            }
+            throw new KeystoreException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+            pending.forEach(ExportCommand::wipe);
+        }
+
+        logWriter.printf(Constants.INFO_MESSAGE, aliases.size() + " entries have been exported");
+        return CommandLine.ExitCode.OK;
+    }
+
+    /**
+     * Get the alias names of the secret key entries, other entries are skipped.
+     *
+     * @param logWriter log writer stream
+     * @param keystore the keystore
+     * @return the sorted list of the alias names
+     */
+    private static List<String> secretKeyAliases(PrintStream logWriter, Keystore keystore) {
+        return keystore.getAliases()
+                .stream()
+                .filter(alias -> {
+                    boolean secretKey = keystore.isSecretKeyEntry(alias);
+                    if (!secretKey) {
+                        logWriter.printf(Constants.INFO_MESSAGE, "skipping non secret key entry, alias: '" + alias + "'");
+                    }
+                    return secretKey;
+                })
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Write a record and overwrite its value.
+     *
+     * @param recordWriter the record writer
+     * @param record alias and value of the secret key
+     */
+    private static void write(RecordWriter recordWriter, Map.Entry<String, char[]> record) {
+        try {
+            recordWriter.write(record.getKey(), record.getValue());
+        } finally {
+            SecretBuffers.wipe(record.getValue());
+        }
+    }
+
+    /**
+     * Overwrite the value of a record that has not been written, e.g. after an error.
+     *
+     * @param future the pending record
+     */
+    private static void wipe(Future<Map.Entry<String, char[]>> future) {
+        if (future.isDone() && !future.isCancelled()) {
+            try {
+                SecretBuffers.wipe(future.get().getValue());
+            } catch (InterruptedException | ExecutionException e) {
+                // nothing to wipe
+            }
+        }
+    }
+}
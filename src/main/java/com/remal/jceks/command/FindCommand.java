@@ -0,0 +1,114 @@
+package com.remal.jceks.command;
+
+import com.remal.jceks.JceksTool;
+import com.remal.jceks.keystore.EntryFilter;
+import com.remal.jceks.keystore.IndexEntry;
+import com.remal.jceks.keystore.JceksIndex;
+import com.remal.jceks.keystore.KeystoreException;
+import com.remal.jceks.util.Constants;
+import com.remal.jceks.util.DevNullPrintStream;
+import com.remal.jceks.util.FileFinder;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Mixin;
+import picocli.CommandLine.Option;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Implementation of the 'find' command.
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+@Command(
+        name = "find",
+        sortOptions = false,
+        usageHelpAutoWidth = true,
+        description = "Find the entries of many keystores by alias, entry type and creation date without decrypting them.",
+        descriptionHeading = "%n",
+        optionListHeading = "%n",
+        footerHeading = JceksTool.FOOTER_HEADING,
+        footer = JceksTool.FOOTER)
+public class FindCommand implements Callable<Integer> {
+
+    /**
+     * Glob pattern of the keystore files used when a directory is searched.
+     */
+    private static final String DEFAULT_PATTERN = "*.jceks";
+
+    /**
+     * CLI definition: display the help message.
+     */
+    @Option(names = {"-q", "--quiet"},
+            description = "In this mode nothing will be printed to the output.")
+    private boolean quiet;
+
+    /**
+     * CLI definition: set the keystore, keystore directory or glob pattern.
+     */
+    @Option(names = {"-k", "--keystores"},
+            description = "keystore, directory with *.jceks files or glob pattern of the keystores",
+            required = true)
+    String keystores;
+
+    /**
+     * CLI definition: filter of the entries.
+     */
+    @Mixin
+    EntryFilterOptions entryFilterOptions;
+
+    /**
+     * CLI definition: use the index files of the keystores.
+     */
+    @Option(names = {"-I", "--index-file"},
+            description = "read the index files of the keystores (<keystore>.idx) instead of parsing the keystores, "
+                    + "and write them if they are missing or out of date")
+    boolean indexFile;
+
+    /**
+     * Execute the command and computes a result.
+     *
+     * @return exit code
+     */
+    @Override
+    public Integer call() throws IOException {
+        PrintStream logWriter = this.quiet ? DevNullPrintStream.getPrintStream() : System.out;
+        EntryFilter filter = entryFilterOptions.toFilter();
+        List<Path> files = FileFinder.find(keystores, DEFAULT_PATTERN);
+
+        int matches = 0;
+        int failures = 0;
+        PrintStream indexLogWriter = DevNullPrintStream.getPrintStream();
+        logWriter.printf("%n%-20s %-24s  %-30s  %s%n", "TYPE", "CREATED", "ALIAS", "KEYSTORE");
+        for (Path file : files) {
+            try {
+                JceksIndex index = JceksIndex.open(indexLogWriter, file.toString(), indexFile);
+                for (IndexEntry entry : index.find(filter)) {
+                    matches++;
+                    logWriter.printf(
+                            "%-20s %-24s  %-30s  %s%n",
+                            entry.getType(),
+                            DateTimeFormatter.ISO_INSTANT.format(entry.getCreationDate().toInstant()),
+                            entry.getAlias(),
+                            file);
+                }
+            } catch (KeystoreException e) {
+                failures++;
+                logWriter.printf(Constants.ERROR_MESSAGE, "cannot read the keystore '" + file + "': " + e.getMessage());
+            }
+        }
+
+        logWriter.printf("%n");
+        logWriter.printf(
+                Constants.INFO_MESSAGE,
+                matches + " entries found in " + files.size() + " keystores, " + failures + " failures");
+        return failures == 0 ? CommandLine.ExitCode.OK : CommandLine.ExitCode.SOFTWARE;
+    }
+}
@@ -0,0 +1,185 @@
+package com.remal.jceks.command;
+
+import com.remal.jceks.JceksTool;
+import com.remal.jceks.keystore.Keystore;
+import com.remal.jceks.keystore.KeystoreTransaction;
+import com.remal.jceks.password.PasswordResolver;
+import com.remal.jceks.util.Constants;
+import com.remal.jceks.util.DevNullPrintStream;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Mixin;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Spec;
+
+import javax.crypto.KeyGenerator;
+import java.io.PrintStream;
+import java.security.InvalidParameterException;
+import java.security.KeyStore;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IllegalFormatException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+/**
+ * Implementation of the 'generate' command.
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+@Command(
+        name = "generate",
+        sortOptions = false,
+        usageHelpAutoWidth = true,
+        description = "Generate many random secret keys and add them to a keystore.",
+        descriptionHeading = "%n",
+        optionListHeading = "%n",
+        footerHeading = JceksTool.FOOTER_HEADING,
+        footer = JceksTool.FOOTER)
+public class GenerateCommand implements Callable<Integer> {
+
+    /**
+     * Picocli command specification, used to report invalid input.
+     */
+    @Spec
+    CommandSpec spec;
+
+    /**
+     * CLI definition: display the help message.
+     */
+    @Option(names = {"-q", "--quiet"},
+            description = "In this mode nothing will be printed to the output.")
+    private boolean quiet;
+
+    /**
+     * CLI definition: the keystore and the protection of the new entries.
+     */
+    @Mixin
+    BulkKeystoreOptions keystoreOptions;
+
+    /**
+     * CLI definition: set the number of the keys.
+     */
+    @Option(names = {"-c", "--count"},
+            description = "number of the secret keys to generate",
+            required = true)
+    int count;
+
+    /**
+     * CLI definition: set the algorithm of the keys.
+     */
+    @Option(names = {"-A", "--key-algorithm"},
+            description = "algorithm of the secret keys, e.g. AES, HmacSHA256, default: ${DEFAULT-VALUE}",
+            defaultValue = "AES")
+    String keyAlgorithm;
+
+    /**
+     * CLI definition: set the size of the keys.
+     */
+    @Option(names = {"-b", "--key-size"},
+            description = "size of the secret keys in bits, default: the default size of the algorithm")
+    Integer keySize;
+
+    /**
+     * CLI definition: set the pattern of the aliases.
+     */
+    @Option(names = {"-l", "--alias-pattern"},
+            description = "pattern of the aliases, %%d is replaced with the number of the key (1..count), "
+                    + "default: ${DEFAULT-VALUE}",
+            defaultValue = "key-%d")
+    String aliasPattern;
+
+    /**
+     * Execute the command and computes a result.
+     *
+     * @return exit code
+     */
+    @Override
+    public Integer call() {
+        if (count < 1) {
+            throw new CommandLine.ParameterException(spec.commandLine(), "Error: --count must be at least 1");
+        }
+        keystoreOptions.validate();
+        PrintStream logWriter = this.quiet ? DevNullPrintStream.getPrintStream() : System.out;
+
+        // the key generators are not thread-safe, every worker thread gets its own
+        ThreadLocal<KeyGenerator> keyGenerators = ThreadLocal.withInitial(this::newKeyGenerator);
+        keyGenerators.get();
+        List<String> aliases = aliases();
+
+        try (PasswordResolver passwords = new PasswordResolver(logWriter)) {
+            Keystore keystore = keystoreOptions.openOrCreate(logWriter, passwords);
+            KeystoreTransaction transaction = keystore.begin();
+            logWriter.printf(Constants.INFO_MESSAGE, "generating " + count + " " + keyAlgorithm + " keys...");
+            try (ParallelEntryBuilder builder = keystoreOptions.newEntryBuilder(
+                    transaction,
+                    keystoreOptions.entryPassword(passwords))) {
+                aliases.forEach(alias -> builder.submit(
+                        alias,
+                        () -> new KeyStore.SecretKeyEntry(keyGenerators.get().generateKey())));
+                builder.finish();
+            }
+            transaction.commit();
+        }
+
+        logWriter.printf(Constants.INFO_MESSAGE, aliases.size() + " " + keyAlgorithm + " keys have been generated");
+        return CommandLine.ExitCode.OK;
+    }
+
+    /**
+     * Create a key generator of the requested algorithm and key size.
+     *
+     * @return the key generator
+     */
+    private KeyGenerator newKeyGenerator() {
+        try {
+            KeyGenerator keyGenerator = KeyGenerator.getInstance(keyAlgorithm);
+            if (Objects.nonNull(keySize)) {
+                keyGenerator.init(keySize);
+            }
+            return keyGenerator;
+        } catch (NoSuchAlgorithmException | InvalidParameterException e) {
+            throw new CommandLine.ParameterException(
+                    spec.commandLine(),
+                    "Error: cannot generate " + keyAlgorithm + " keys"
+                            + (Objects.isNull(keySize) ? "" : " of " + keySize + " bits") + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Build the aliases of the new keys.
+     *
+     * @return the aliases in the order of the keys
+     */
+    private List<String> aliases() {
+        List<String> aliases = new ArrayList<>(count);
+        Set<String> keys = new HashSet<>();
+        for (int i = 1; i <= count; i++) {
+            String alias = alias(i);
+            if (!keys.add(alias.toLowerCase(Locale.ENGLISH))) {
+                throw new CommandLine.ParameterException(
+                        spec.commandLine(),
+                        "Error: the --alias-pattern gives the same '" + alias + "' alias for more keys");
+            }
+            aliases.add(alias);
+        }
+        return aliases;
+    }
+
+    private String alias(int number) {
+        try {
+            return String.format(Locale.ENGLISH, aliasPattern, number);
+        } catch (IllegalFormatException e) {
+            throw new CommandLine.ParameterException(
+                    spec.commandLine(),
+                    "Error: invalid --alias-pattern: " + e.getMessage());
+        }
+    }
+}
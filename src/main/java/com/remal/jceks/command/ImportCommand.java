@@ -0,0 +1,124 @@
+package com.remal.jceks.command;
+
+import com.remal.jceks.JceksTool;
+import com.remal.jceks.keystore.Keystore;
+import com.remal.jceks.keystore.KeystoreTransaction;
+import com.remal.jceks.password.PasswordResolver;
+import com.remal.jceks.util.Constants;
+import com.remal.jceks.util.DevNullPrintStream;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Mixin;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Spec;
+
+import java.io.PrintStream;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+
+/**
+ * Implementation of the 'import' command.
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+@Command(
+        name = "import",
+        sortOptions = false,
+        usageHelpAutoWidth = true,
+        description = "Add the secret keys of a CSV or JSON Lines file to a keystore.",
+        descriptionHeading = "%n",
+        optionListHeading = "%n",
+        footerHeading = JceksTool.FOOTER_HEADING,
+        footer = JceksTool.FOOTER)
+public class ImportCommand implements Callable<Integer> {
+
+    /**
+     * Picocli command specification, used to report invalid input.
+     */
+    @Spec
+    CommandSpec spec;
+
+    /**
+     * CLI definition: display the help message.
+     */
+    @Option(names = {"-q", "--quiet"},
+            description = "In this mode nothing will be printed to the output.")
+    private boolean quiet;
+
+    /**
+     * CLI definition: the keystore and the protection of the new entries.
+     */
+    @Mixin
+    BulkKeystoreOptions keystoreOptions;
+
+    /**
+     * CLI definition: set the path of the input file.
+     */
+    @Option(names = {"-F", "--input"},
+            description = "CSV or JSON Lines file with alias, base64 encoded value and optional algorithm fields, "
+                    + "e.g. the output of the export command",
+            required = true)
+    String inputFile;
+
+    /**
+     * CLI definition: set the format of the input file.
+     */
+    @Option(names = {"-m", "--input-format"},
+            description = "format of the input file: ${COMPLETION-CANDIDATES}, "
+                    + "default: csv for *.csv files, jsonl otherwise")
+    SecretKeyReader.Format inputFormat;
+
+    /**
+     * CLI definition: set the default algorithm of the keys.
+     */
+    @Option(names = {"-A", "--key-algorithm"},
+            description = "algorithm of the secret keys without an algorithm field, default: ${DEFAULT-VALUE}",
+            defaultValue = "AES")
+    String keyAlgorithm;
+
+    /**
+     * Execute the command and computes a result.
+     *
+     * @return exit code
+     */
+    @Override
+    public Integer call() {
+        PrintStream logWriter = this.quiet ? DevNullPrintStream.getPrintStream() : System.out;
+        keystoreOptions.validate();
+        SecretKeyReader.Format format = Objects.isNull(inputFormat)
+                ? SecretKeyReader.Format.of(inputFile)
+                : inputFormat;
+
+        int imported;
+        try (PasswordResolver passwords = new PasswordResolver(logWriter)) {
+            Keystore keystore = keystoreOptions.openOrCreate(logWriter, passwords);
+            KeystoreTransaction transaction = keystore.begin();
+            try (ParallelEntryBuilder builder = keystoreOptions.newEntryBuilder(
+                    transaction,
+                    keystoreOptions.entryPassword(passwords))) {
+                // the records are decoded on the worker threads while the file is being read
+                SecretKeyReader.read(
+                        logWriter,
+                        inputFile,
+                        format,
+                        keyAlgorithm,
+                        record -> builder.submit(record.getAlias(), record::toEntry));
+                imported = builder.finish();
+            } catch (IllegalArgumentException e) {
+                throw new CommandLine.ParameterException(spec.commandLine(), "Error: " + e.getMessage());
+            }
+
+            if (imported == 0) {
+                logWriter.printf(Constants.INFO_MESSAGE, "the input file is empty, nothing to import");
+                return CommandLine.ExitCode.OK;
+            }
+            transaction.commit();
+        }
+
+        logWriter.printf(Constants.INFO_MESSAGE, imported + " entries have been imported");
+        return CommandLine.ExitCode.OK;
+    }
+}
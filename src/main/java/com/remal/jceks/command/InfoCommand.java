@@ -0,0 +1,90 @@
+package com.remal.jceks.command;
+
+import com.remal.jceks.JceksTool;
+import com.remal.jceks.keystore.EntryType;
+import com.remal.jceks.keystore.IndexEntry;
+import com.remal.jceks.keystore.JceksIndex;
+import com.remal.jceks.util.DevNullPrintStream;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+import java.io.PrintStream;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Implementation of the 'info' command.
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+@Command(
+        name = "info",
+        sortOptions = false,
+        usageHelpAutoWidth = true,
+        description = "Show the metadata of a keystore without decrypting the entries.",
+        descriptionHeading = "%n",
+        optionListHeading = "%n",
+        footerHeading = JceksTool.FOOTER_HEADING,
+        footer = JceksTool.FOOTER)
+public class InfoCommand implements Callable<Integer> {
+
+    /**
+     * CLI definition: display the help message.
+     */
+    @Option(names = {"-q", "--quiet"},
+            description = "In this mode nothing will be printed to the output.")
+    private boolean quiet;
+
+    /**
+     * CLI definition: set the keystore path.
+     */
+    @Option(names = {"-k", "--keystore"},
+            description = "path to the keystore",
+            required = true)
+    String keystoreLocation;
+
+    /**
+     * Execute the command and computes a result.
+     *
+     * @return exit code
+     */
+    @Override
+    public Integer call() {
+        PrintStream logWriter = this.quiet ? DevNullPrintStream.getPrintStream() : System.out;
+
+        JceksIndex index = JceksIndex.open(logWriter, keystoreLocation);
+        List<IndexEntry> entries = index.getEntries();
+
+        Map<EntryType, Integer> counts = new EnumMap<>(EntryType.class);
+        for (EntryType type : EntryType.values()) {
+            counts.put(type, 0);
+        }
+        entries.forEach(entry -> counts.merge(entry.getType(), 1, Integer::sum));
+
+        logWriter.printf("%n%-22s %s%n", "keystore:", index.getKeyStoreLocation());
+        logWriter.printf("%-22s %s, version %d%n", "format:", index.getFormat(), index.getVersion());
+        logWriter.printf("%-22s %d bytes%n", "size:", index.getFileSize());
+        logWriter.printf("%-22s %d%n", "entries:", entries.size());
+        counts.forEach((type, count) -> logWriter.printf("%-22s %d%n", "  " + type + ":", count));
+
+        entries.stream()
+                .min(Comparator.comparing(IndexEntry::getCreationDate))
+                .ifPresent(entry -> logWriter.printf("%-22s %s%n", "oldest entry:", format(entry)));
+        entries.stream()
+                .max(Comparator.comparing(IndexEntry::getCreationDate))
+                .ifPresent(entry -> logWriter.printf("%-22s %s%n", "newest entry:", format(entry)));
+
+        return CommandLine.ExitCode.OK;
+    }
+
+    private static String format(IndexEntry entry) {
+        return DateTimeFormatter.ISO_INSTANT.format(entry.getCreationDate().toInstant()) + " (" + entry.getAlias() + ")";
+    }
+}
@@ -0,0 +1,92 @@
+package com.remal.jceks.command;
+
+import com.remal.jceks.JceksTool;
+import com.remal.jceks.keystore.EntryFilter;
+import com.remal.jceks.keystore.IndexEntry;
+import com.remal.jceks.keystore.JceksIndex;
+import com.remal.jceks.util.Constants;
+import com.remal.jceks.util.DevNullPrintStream;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Mixin;
+import picocli.CommandLine.Option;
+
+import java.io.PrintStream;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Implementation of the 'list' command.
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+@Command(
+        name = "list",
+        sortOptions = false,
+        usageHelpAutoWidth = true,
+        description = "List the entries of a keystore without decrypting them, optionally filtered.",
+        descriptionHeading = "%n",
+        optionListHeading = "%n",
+        footerHeading = JceksTool.FOOTER_HEADING,
+        footer = JceksTool.FOOTER)
+public class ListCommand implements Callable<Integer> {
+
+    /**
+     * CLI definition: display the help message.
+     */
+    @Option(names = {"-q", "--quiet"},
+            description = "In this mode nothing will be printed to the output.")
+    private boolean quiet;
+
+    /**
+     * CLI definition: set the keystore path.
+     */
+    @Option(names = {"-k", "--keystore"},
+            description = "path to the keystore",
+            required = true)
+    String keystoreLocation;
+
+    /**
+     * CLI definition: filter of the listed entries.
+     */
+    @Mixin
+    EntryFilterOptions entryFilterOptions;
+
+    /**
+     * CLI definition: use the index file of the keystore.
+     */
+    @Option(names = {"-I", "--index-file"},
+            description = "read the index file of the keystore (<keystore>.idx) instead of parsing the keystore, "
+                    + "and write it if it is missing or out of date")
+    boolean indexFile;
+
+    /**
+     * Execute the command and computes a result.
+     *
+     * @return exit code
+     */
+    @Override
+    public Integer call() {
+        PrintStream logWriter = this.quiet ? DevNullPrintStream.getPrintStream() : System.out;
+
+        EntryFilter filter = entryFilterOptions.toFilter();
+        JceksIndex index = JceksIndex.open(logWriter, keystoreLocation, indexFile);
+        List<IndexEntry> entries = index.find(filter);
+
+        logWriter.printf("%n%-20s %-24s  %s%n", "TYPE", "CREATED", "ALIAS");
+        for (IndexEntry entry : entries) {
+            logWriter.printf(
+                    "%-20s %-24s  %s%n",
+                    entry.getType(),
+                    DateTimeFormatter.ISO_INSTANT.format(entry.getCreationDate().toInstant()),
+                    entry.getAlias());
+        }
+
+        logWriter.printf("%n");
+        logWriter.printf(Constants.INFO_MESSAGE, entries.size() + " entries");
+        return CommandLine.ExitCode.OK;
+    }
+}
@@ -0,0 +1,263 @@
+package com.remal.jceks.command;
+
+import com.remal.jceks.JceksTool;
+import com.remal.jceks.keystore.Keystore;
+import com.remal.jceks.keystore.KeystoreMerge;
+import com.remal.jceks.keystore.KeystoreType;
+import com.remal.jceks.password.PasswordResolver;
+import com.remal.jceks.util.Constants;
+import com.remal.jceks.util.DevNullPrintStream;
+import picocli.CommandLine;
+import picocli.CommandLine.ArgGroup;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+import java.io.PrintStream;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+
+/**
+ * Implementation of the 'merge' command.
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+@Command(
+        name = "merge",
+        sortOptions = false,
+        usageHelpAutoWidth = true,
+        description = "Merge the entries of many source keystores into a target keystore.",
+        descriptionHeading = "%n",
+        optionListHeading = "%n",
+        footerHeading = JceksTool.FOOTER_HEADING,
+        footer = JceksTool.FOOTER)
+public class MergeCommand implements Callable<Integer> {
+
+    /**
+     * CLI definition: display the help message.
+     */
+    @Option(names = {"-q", "--quiet"},
+            description = "In this mode nothing will be printed to the output.")
+    private boolean quiet;
+
+    /**
+     * CLI group definition of the source keystores, repeat it for every source.
+     */
+    @ArgGroup(exclusive = false, multiplicity = "1..*")
+    List<SourceGroup> sourceGroups;
+
+    static class SourceGroup {
+
+        /**
+         * CLI definition: set the source keystore path.
+         */
+        @Option(
+                names = {"-s", "--source-keystore"},
+                description = "path to a source keystore, the options after it until the next -s belong to it",
+                required = true)
+        String sourceKeystoreLocation;
+
+        /**
+         * Exclusive CLI group definition for source keystore password.
+         */
+        @ArgGroup(multiplicity = "1")
+        SourceKeystorePasswordGroup sourceKeystorePasswordGroup;
+
+        /**
+         * CLI definition: set the format of the source keystore.
+         */
+        @Option(
+                names = {"-c", "--source-keystore-type"},
+                description = "source keystore format: ${COMPLETION-CANDIDATES}, default: detected from the content of the file")
+        KeystoreType sourceKeystoreType;
+
+        /**
+         * Exclusive CLI group definition for the source keystore entry password.
+         */
+        @ArgGroup(multiplicity = "1")
+        SourceEntryPasswordGroup sourceEntryPasswordGroup;
+
+        /**
+         * CLI definition: set the prefix of the renamed aliases.
+         */
+        @Option(
+                names = {"-x", "--alias-prefix"},
+                description = "prefix of the renamed aliases of the source keystore, default: the file name without its extension and a dot")
+        String aliasPrefix;
+    }
+
+    static class SourceKeystorePasswordGroup {
+
+        /**
+         * CLI definition: set the source keystore password.
+         */
+        @Option(
+                names = {"-p", "--source-keystore-password"},
+                description = "password for the source keystore",
+                required = true)
+        String sourceKeystorePassword;
+
+        /**
+         * CLI definition: set the path of the source keystore password file.
+         */
+        @Option(
+                names = {"-f", "--source-keystore-password-file"},
+                description = "source keystore password file or reference: " + PasswordResolver.REFERENCES,
+                required = true)
+        String sourceKeystorePasswordFile;
+    }
+
+    static class SourceEntryPasswordGroup {
+
+        /**
+         * CLI definition: set the source keystore entry password.
+         */
+        @Option(
+                names = {"-e", "--source-entry-password"},
+                description = "password for the source keystore entries",
+                required = true)
+        String sourceEntryPassword;
+
+        /**
+         * CLI definition: set the path of the source keystore entry password file.
+         */
+        @Option(
+                names = {"-n", "--source-entry-password-file"},
+                description = "source keystore entry password file or reference: " + PasswordResolver.REFERENCES,
+                required = true)
+        String sourceEntryPasswordFile;
+    }
+
+    /**
+     * CLI definition: set the target keystore path.
+     */
+    @Option(
+            names = {"-t", "--target-keystore"},
+            description = "path to the target keystore",
+            required = true)
+    String targetKeystoreLocation;
+
+    /**
+     * Exclusive CLI group definition for target keystore password.
+     */
+    @ArgGroup(multiplicity = "1")
+    TargetKeystorePasswordGroup targetKeystorePasswordGroup;
+
+    static class TargetKeystorePasswordGroup {
+
+        /**
+         * CLI definition: set the target keystore password.
+         */
+        @Option(
+                names = {"-o", "--target-keystore-password"},
+                description = "password for the target keystore",
+                required = true)
+        String targetKeystorePassword;
+
+        /**
+         * CLI definition: set the path of the target keystore password file.
+         */
+        @Option(
+                names = {"-u", "--target-keystore-password-file"},
+                description = "target keystore password file or reference: " + PasswordResolver.REFERENCES,
+                required = true)
+        String targetKeystorePasswordFile;
+    }
+
+    /**
+     * CLI definition: set the format of the target keystore.
+     */
+    @Option(
+            names = {"-y", "--target-keystore-type"},
+            description = "target keystore format: ${COMPLETION-CANDIDATES}, default: detected from the content of the file")
+    KeystoreType targetKeystoreType;
+
+    /**
+     * Exclusive CLI group definition for the target keystore entry password.
+     */
+    @ArgGroup(multiplicity = "1")
+    TargetEntryPasswordGroup targetEntryPasswordGroup;
+
+    static class TargetEntryPasswordGroup {
+
+        /**
+         * CLI definition: set the target keystore entry password.
+         */
+        @Option(
+                names = {"-r", "--target-entry-password"},
+                description = "password for the merged target keystore entries",
+                required = true)
+        String targetEntryPassword;
+
+        /**
+         * CLI definition: set the path of the target keystore entry password file.
+         */
+        @Option(
+                names = {"-z", "--target-entry-password-file"},
+                description = "target keystore entry password file or reference: " + PasswordResolver.REFERENCES,
+                required = true)
+        String targetEntryPasswordFile;
+    }
+
+    /**
+     * CLI definition: set how the alias conflicts are resolved.
+     */
+    @Option(
+            names = {"-m", "--on-conflict"},
+            description = "what to do if an alias already exists: ${COMPLETION-CANDIDATES}, default: ${DEFAULT-VALUE}",
+            defaultValue = "skip")
+    KeystoreMerge.ConflictPolicy conflictPolicy;
+
+    /**
+     * Execute the command and computes a result.
+     *
+     * @return exit code
+     */
+    @Override
+    public Integer call() {
+        PrintStream logWriter = this.quiet ? DevNullPrintStream.getPrintStream() : System.out;
+
+        try (PasswordResolver passwords = new PasswordResolver(logWriter)) {
+            List<KeystoreMerge.Source> sources = new ArrayList<>();
+            for (SourceGroup group : sourceGroups) {
+                sources.add(new KeystoreMerge.Source(
+                        group.sourceKeystoreLocation,
+                        passwords.resolve(
+                                group.sourceKeystorePasswordGroup.sourceKeystorePassword,
+                                group.sourceKeystorePasswordGroup.sourceKeystorePasswordFile),
+                        group.sourceKeystoreType,
+                        passwords.resolve(
+                                group.sourceEntryPasswordGroup.sourceEntryPassword,
+                                group.sourceEntryPasswordGroup.sourceEntryPasswordFile),
+                        Objects.isNull(group.aliasPrefix)
+                                ? defaultAliasPrefix(group.sourceKeystoreLocation)
+                                : group.aliasPrefix));
+            }
+            char[] targetKeystorePassword = passwords.resolve(
+                    targetKeystorePasswordGroup.targetKeystorePassword,
+                    targetKeystorePasswordGroup.targetKeystorePasswordFile);
+            char[] targetEntryPassword = passwords.resolve(
+                    targetEntryPasswordGroup.targetEntryPassword,
+                    targetEntryPasswordGroup.targetEntryPasswordFile);
+
+            int merged = new KeystoreMerge(logWriter, conflictPolicy).merge(
+                    sources,
+                    () -> Keystore.open(logWriter, targetKeystoreLocation, targetKeystorePassword, targetKeystoreType),
+                    targetEntryPassword);
+            logWriter.printf(
+                    Constants.INFO_MESSAGE,
+                    merged + " entries of " + sources.size() + " keystores have been merged into the target keystore");
+            return CommandLine.ExitCode.OK;
+        }
+    }
+
+    private static String defaultAliasPrefix(String keystoreLocation) {
+        String fileName = Paths.get(keystoreLocation).getFileName().toString();
+        int extension = fileName.lastIndexOf('.');
+        return (extension > 0 ? fileName.substring(0, extension) : fileName) + ".";
+    }
+}
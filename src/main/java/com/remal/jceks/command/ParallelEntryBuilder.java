@@ -0,0 +1,113 @@
+package com.remal.jceks.command;
+
+import com.remal.jceks.keystore.KeystoreException;
+import com.remal.jceks.keystore.KeystoreTransaction;
+
+import java.security.KeyStore;
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Builds the new entries of the 'generate' and 'import' commands on a pool
+ * of worker threads and stages them into one transaction.
+ *
+ * <p>The producer, e.g. the reader of the input file, submits the entries on
+ * the calling thread. The workers build them meanwhile, e.g. generate or
+ * decode the secret keys, and the built entries are staged in the order of
+ * their submission. At most {@link #READ_AHEAD_PER_THREAD} entries per
+ * thread are in progress, the producer waits for the oldest one when the
+ * limit is reached. The entries are protected with the entry password when
+ * the transaction is committed, the keystore providers of the JDK protect the
+ * entries of a keystore one by one.</p>
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+final class ParallelEntryBuilder implements AutoCloseable {
+
+    /**
+     * Number of the entries built in advance per worker thread.
+     */
+    private static final int READ_AHEAD_PER_THREAD = 4;
+
+    private final KeystoreTransaction transaction;
+    private final char[] entryPassword;
+    private final ExecutorService executor;
+    private final int readAhead;
+    private final Deque<Future<Map.Entry<String, KeyStore.Entry>>> pending = new ArrayDeque<>();
+    private int staged;
+
+    /**
+     * Start the worker threads.
+     *
+     * @param transaction the transaction that gets the new entries
+     * @param entryPassword password for the new entries
+     * @param threads number of the worker threads
+     */
+    ParallelEntryBuilder(KeystoreTransaction transaction, char[] entryPassword, int threads) {
+        this.transaction = transaction;
+        this.entryPassword = entryPassword;
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.readAhead = threads * READ_AHEAD_PER_THREAD;
+    }
+
+    /**
+     * Build an entry on a worker thread. If too many entries are in progress,
+     * the oldest one is staged first.
+     *
+     * @param alias alias for the new entry
+     * @param builder builds the entry
+     * @throws RuntimeException the error of the builder of an earlier entry
+     */
+    void submit(String alias, Callable<KeyStore.Entry> builder) {
+        if (pending.size() >= readAhead) {
+            stage(pending.poll());
+        }
+        pending.add(executor.submit(() -> new AbstractMap.SimpleImmutableEntry<>(alias, builder.call())));
+    }
+
+    /**
+     * Wait for the entries in progress and stage them.
+     *
+     * @return number of the staged entries
+     * @throws RuntimeException the error of the builder of an entry
+     */
+    int finish() {
+        while (!pending.isEmpty()) {
+            stage(pending.poll());
+        }
+        return staged;
+    }
+
+    /**
+     * Stop the worker threads, the entries in progress are dropped.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private void stage(Future<Map.Entry<String, KeyStore.Entry>> future) {
+        try {
+            Map.Entry<String, KeyStore.Entry> entry = future.get();
+            transaction.setEntry(entry.getValue(), entry.getKey(), entryPassword);
+            staged++;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KeystoreException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new KeystoreException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.remal.jceks.command;
+
+import com.remal.jceks.JceksTool;
+import com.remal.jceks.keystore.EntryProtection;
+import com.remal.jceks.keystore.Keystore;
+import com.remal.jceks.keystore.KeystoreTransaction;
+import com.remal.jceks.keystore.KeystoreType;
+import com.remal.jceks.password.PasswordResolver;
+import com.remal.jceks.util.Constants;
+import com.remal.jceks.util.DevNullPrintStream;
+import picocli.CommandLine;
+import picocli.CommandLine.ArgGroup;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+
+/**
+ * Implementation of the 'rekey' command.
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+@Command(
+        name = "rekey",
+        sortOptions = false,
+        usageHelpAutoWidth = true,
+        description = "Re-protect every entry of a keystore with new protection parameters or a new entry password.",
+        descriptionHeading = "%n",
+        optionListHeading = "%n",
+        footerHeading = JceksTool.FOOTER_HEADING,
+        footer = JceksTool.FOOTER)
+public class RekeyCommand implements Callable<Integer> {
+
+    /**
+     * CLI definition: display the help message.
+     */
+    @Option(names = {"-q", "--quiet"},
+            description = "In this mode nothing will be printed to the output.")
+    private boolean quiet;
+
+    /**
+     * CLI definition: set the keystore path.
+     */
+    @Option(names = {"-k", "--keystore"},
+            description = "path to the keystore",
+            required = true)
+    String keystoreLocation;
+
+    /**
+     * Exclusive CLI group definition for keystore password.
+     */
+    @ArgGroup(multiplicity = "1")
+    KeystorePasswordGroup keystorePasswordGroup;
+
+    static class KeystorePasswordGroup {
+
+        /**
+         * CLI definition: set the keystore password.
+         */
+        @Option(names = {"-p", "--keystore-password"},
+                description = "password for the keystore",
+                required = true)
+        String keystorePassword;
+
+        /**
+         * CLI definition: set the path of the keystore password file.
+         */
+        @Option(names = {"-f", "--keystore-password-file"},
+                description = "keystore password file or reference: " + PasswordResolver.REFERENCES,
+                required = true)
+        String keystorePasswordFile;
+    }
+
+    /**
+     * CLI definition: set the format of the keystore.
+     */
+    @Option(names = {"-T", "--keystore-type"},
+            description = "keystore format: ${COMPLETION-CANDIDATES}, default: detected from the content of the file")
+    KeystoreType keystoreType;
+
+    /**
+     * Exclusive CLI group definition for the current keystore entry password.
+     */
+    @ArgGroup(multiplicity = "1")
+    EntryPasswordGroup entryPasswordGroup;
+
+    static class EntryPasswordGroup {
+
+        /**
+         * CLI definition: set the current keystore entry password.
+         */
+        @Option(names = {"-e", "--entry-password"},
+                description = "current password for the keystore entries",
+                required = true)
+        String entryPassword;
+
+        /**
+         * CLI definition: set the path of the current keystore entry password file.
+         */
+        @Option(names = {"-n", "--entry-password-file"},
+                description = "current keystore entry password file or reference: " + PasswordResolver.REFERENCES,
+                required = true)
+        String entryPasswordFile;
+    }
+
+    /**
+     * Exclusive CLI group definition for the new keystore entry password.
+     */
+    @ArgGroup(multiplicity = "0..1")
+    NewEntryPasswordGroup newEntryPasswordGroup;
+
+    static class NewEntryPasswordGroup {
+
+        /**
+         * CLI definition: set the new keystore entry password.
+         */
+        @Option(names = {"-r", "--new-entry-password"},
+                description = "new password for the keystore entries, default: the current entry password",
+                required = true)
+        String newEntryPassword;
+
+        /**
+         * CLI definition: set the path of the new keystore entry password file.
+         */
+        @Option(names = {"-z", "--new-entry-password-file"},
+                description = "new keystore entry password file or reference: " + PasswordResolver.REFERENCES,
+                required = true)
+        String newEntryPasswordFile;
+    }
+
+    /**
+     * CLI definition: set the protection algorithm of the entries.
+     */
+    @Option(names = {"-g", "--protection-algorithm"},
+            description = "PBE algorithm of the entries, PKCS12 and BCFKS only, e.g. "
+                    + EntryProtection.DEFAULT_ALGORITHM + ", default: the provider default")
+    String protectionAlgorithm;
+
+    /**
+     * CLI definition: set the iteration count of the entry protection.
+     */
+    @Option(names = {"-i", "--iteration-count"},
+            description = "PBE iteration count of the entries, PKCS12 and BCFKS only, default: the provider default")
+    int iterationCount;
+
+    /**
+     * Execute the command and computes a result.
+     *
+     * @return exit code
+     */
+    @Override
+    public Integer call() {
+        PrintStream logWriter = this.quiet ? DevNullPrintStream.getPrintStream() : System.out;
+
+        try (PasswordResolver passwords = new PasswordResolver(logWriter)) {
+            char[] keystorePassword = passwords.resolve(
+                    keystorePasswordGroup.keystorePassword,
+                    keystorePasswordGroup.keystorePasswordFile);
+            char[] entryPassword = passwords.resolve(
+                    entryPasswordGroup.entryPassword,
+                    entryPasswordGroup.entryPasswordFile);
+            char[] newEntryPassword = Objects.isNull(newEntryPasswordGroup)
+                    ? entryPassword
+                    : passwords.resolve(
+                            newEntryPasswordGroup.newEntryPassword,
+                            newEntryPasswordGroup.newEntryPasswordFile);
+
+            Keystore keystore = Keystore.open(logWriter, keystoreLocation, keystorePassword, keystoreType);
+            EntryProtection entryProtection = new EntryProtection(protectionAlgorithm, iterationCount);
+            keystore.setEntryProtection(entryProtection);
+
+            // one pass over the entries, the keystore file is written once
+            List<String> aliases = keystore.getAliases();
+            KeystoreTransaction transaction = keystore.begin();
+            for (String alias : aliases) {
+                transaction.setEntry(keystore.getEntry(alias, entryPassword), alias, newEntryPassword);
+            }
+            transaction.commit();
+
+            logWriter.printf(
+                    Constants.INFO_MESSAGE,
+                    aliases.size() + " entries have been re-protected, protection: " + entryProtection);
+            return CommandLine.ExitCode.OK;
+        }
+    }
+}
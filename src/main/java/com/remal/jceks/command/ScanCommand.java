@@ -0,0 +1,219 @@
+package com.remal.jceks.command;
+
+import com.remal.jceks.JceksTool;
+import com.remal.jceks.keystore.Keystore;
+import com.remal.jceks.keystore.KeystoreException;
+import com.remal.jceks.password.PasswordResolver;
+import com.remal.jceks.util.Constants;
+import com.remal.jceks.util.DevNullPrintStream;
+import com.remal.jceks.util.FileFinder;
+import picocli.CommandLine;
+import picocli.CommandLine.ArgGroup;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Spec;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementation of the 'scan' command.
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+@Command(
+        name = "scan",
+        sortOptions = false,
+        usageHelpAutoWidth = true,
+        description = "Load and verify many keystores in parallel.",
+        descriptionHeading = "%n",
+        optionListHeading = "%n",
+        footerHeading = JceksTool.FOOTER_HEADING,
+        footer = JceksTool.FOOTER)
+public class ScanCommand implements Callable<Integer> {
+
+    /**
+     * Glob pattern of the keystore files used when a directory is scanned.
+     */
+    private static final String DEFAULT_PATTERN = "*.jceks";
+
+    /**
+     * Picocli command specification, used to report invalid input.
+     */
+    @Spec
+    CommandSpec spec;
+
+    /**
+     * CLI definition: display the help message.
+     */
+    @Option(names = {"-q", "--quiet"},
+            description = "In this mode nothing will be printed to the output.")
+    private boolean quiet;
+
+    /**
+     * CLI definition: set the keystore directory or glob pattern.
+     */
+    @Option(names = {"-k", "--keystores"},
+            description = "directory with *.jceks files or glob pattern of the keystores",
+            required = true)
+    String keystores;
+
+    /**
+     * Exclusive CLI group definition for keystore password.
+     */
+    @ArgGroup(multiplicity = "1")
+    KeystorePasswordGroup keystorePasswordGroup;
+
+    static class KeystorePasswordGroup {
+
+        /**
+         * CLI definition: set the keystore password.
+         */
+        @Option(names = {"-p", "--keystore-password"},
+                description = "password for the keystores",
+                required = true)
+        String keystorePassword;
+
+        /**
+         * CLI definition: set the path of the keystore password file.
+         */
+        @Option(names = {"-f", "--keystore-password-file"},
+                description = "keystore password file or reference: " + PasswordResolver.REFERENCES,
+                required = true)
+        String keystorePasswordFile;
+    }
+
+    /**
+     * CLI definition: set the number of worker threads.
+     */
+    @Option(names = {"-t", "--threads"},
+            description = "number of keystores loaded at the same time, default: number of processors")
+    int threads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Execute the command and computes a result.
+     *
+     * @return exit code
+     */
+    @Override
+    public Integer call() throws IOException, InterruptedException {
+        PrintStream logWriter = this.quiet ? DevNullPrintStream.getPrintStream() : System.out;
+        if (threads < 1) {
+            throw new CommandLine.ParameterException(spec.commandLine(), "Error: --threads must be at least 1");
+        }
+
+        List<Path> files = FileFinder.find(keystores, DEFAULT_PATTERN);
+        try (PasswordResolver passwords = new PasswordResolver(logWriter)) {
+            char[] keystorePassword = passwords.resolve(
+                    keystorePasswordGroup.keystorePassword,
+                    keystorePasswordGroup.keystorePasswordFile);
+            return scan(logWriter, files, keystorePassword);
+        }
+    }
+
+    /**
+     * Load and verify the keystores in parallel and print the results.
+     *
+     * @param logWriter log writer stream
+     * @param files the keystore files
+     * @param keystorePassword the keystore password
+     * @return exit code
+     * @throws InterruptedException if the thread is interrupted while waiting for a result
+     */
+    private Integer scan(PrintStream logWriter, List<Path> files, char[] keystorePassword) throws InterruptedException {
+        logWriter.printf(Constants.INFO_MESSAGE, "scanning " + files.size() + " keystores on " + threads + " threads...");
+
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<ScanResult>> results = new ArrayList<>();
+        try {
+            files.forEach(file -> results.add(executor.submit(() -> scan(file, keystorePassword))));
+
+            int failures = 0;
+            int entries = 0;
+            logWriter.printf("%n%-8s %8s %10s  %s%n", "STATUS", "ENTRIES", "LOAD (ms)", "KEYSTORE");
+            for (Future<ScanResult> future : results) {
+                ScanResult result = future.get();
+                if (result.isFailed()) {
+                    failures++;
+                    logWriter.printf("%-8s %8s %10d  %s%n         %s%n",
+                            "FAILED", "-", result.loadMillis, result.file, result.error);
+                } else {
+                    entries += result.entries;
+                    logWriter.printf("%-8s %8d %10d  %s%n", "OK", result.entries, result.loadMillis, result.file);
+                }
+            }
+
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            logWriter.printf("%n");
+            logWriter.printf(
+                    Constants.INFO_MESSAGE,
+                    files.size() + " keystores, " + entries + " entries, " + failures + " failures, " + elapsed + " ms");
+            return failures == 0 ? CommandLine.ExitCode.OK : CommandLine.ExitCode.SOFTWARE;
+        } catch (ExecutionException e) {
+            throw new KeystoreException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Load and verify one keystore.
+     *
+     * @param file the keystore file
+     * @param keystorePassword the keystore password
+     * @return result of the load
+     */
+    private static ScanResult scan(Path file, char[] keystorePassword) {
+        long start = System.nanoTime();
+        try {
+            Keystore keystore = Keystore.open(
+                    DevNullPrintStream.getPrintStream(),
+                    file.toString(),
+                    keystorePassword,
+                    null);
+            int entries = keystore.getAliases().size();
+            return new ScanResult(file, entries, elapsedMillis(start), null);
+        } catch (KeystoreException e) {
+            return new ScanResult(file, 0, elapsedMillis(start), e.getMessage());
+        }
+    }
+
+    private static long elapsedMillis(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    /**
+     * Result of loading one keystore.
+     */
+    private static class ScanResult {
+        private final Path file;
+        private final int entries;
+        private final long loadMillis;
+        private final String error;
+
+        ScanResult(Path file, int entries, long loadMillis, String error) {
+            this.file = file;
+            this.entries = entries;
+            this.loadMillis = loadMillis;
+            this.error = error;
+        }
+
+        boolean isFailed() {
+            return Objects.nonNull(error);
+        }
+    }
+}
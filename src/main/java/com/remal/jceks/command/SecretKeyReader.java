@@ -0,0 +1,431 @@
+package com.remal.jceks.command;
+
+import com.remal.jceks.keystore.KeystoreException;
+import com.remal.jceks.util.Constants;
+import com.remal.jceks.util.SecretBuffers;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.KeyStore;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Reads secret keys from a CSV or a JSON Lines file.
+ *
+ * <p>Every record has an {@code alias}, a base64 encoded {@code value} and
+ * an optional {@code algorithm} field, e.g. {@code AES} or {@code HmacSHA256}.
+ * The output of the 'export' command can be read in both formats.</p>
+ *
+ * <p>CSV: comma-separated values (RFC 4180) in the {@code alias,value[,algorithm]}
+ * order, or in the order of an optional header line with the same names.
+ * JSON Lines: one flat JSON object per line, the lines of a JSON array with
+ * one object per line are accepted as well. Empty lines and lines starting
+ * with {@code #} are ignored in both formats.</p>
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+public final class SecretKeyReader {
+
+    /**
+     * Supported formats of the input file.
+     */
+    public enum Format {
+
+        /**
+         * Comma-separated values with an optional header line.
+         */
+        CSV,
+
+        /**
+         * JSON Lines, one JSON object per record.
+         */
+        JSONL;
+
+        /**
+         * Guess the format from the extension of the file name.
+         *
+         * @param pathToFile path to the file
+         * @return CSV for the *.csv files, JSONL otherwise
+         */
+        public static Format of(String pathToFile) {
+            return pathToFile.toLowerCase(Locale.ENGLISH).endsWith(".csv") ? CSV : JSONL;
+        }
+    }
+
+    private static final String COMMENT = "#";
+    private static final String ALIAS = "alias";
+    private static final String VALUE = "value";
+    private static final String ALGORITHM = "algorithm";
+
+    /**
+     * Read the secret keys of a file line by line and pass every record to
+     * the consumer as soon as it has been read. The values are not decoded by
+     * the reader, see {@link KeyRecord#toEntry()}, so the consumer can decode
+     * them on other threads.
+     *
+     * @param logWriter log writer stream
+     * @param pathToFile path to the file
+     * @param format format of the file
+     * @param defaultAlgorithm algorithm of the keys that have no algorithm field
+     * @param consumer gets the records in file order
+     * @return number of the records
+     * @throws IllegalArgumentException if a line of the file is invalid or an alias is repeated
+     * @throws KeystoreException if the file cannot be read
+     */
+    public static int read(PrintStream logWriter,
+                           String pathToFile,
+                           Format format,
+                           String defaultAlgorithm,
+                           Consumer<KeyRecord> consumer) {
+        logWriter.printf(Constants.INFO_MESSAGE, "reading the '" + pathToFile + "' " + format + " file...");
+        int records = 0;
+        Set<String> keys = new HashSet<>();
+        Map<String, Integer> columns = null;
+
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(pathToFile))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith(COMMENT)) {
+                    continue;
+                }
+
+                Map<String, String> record;
+                try {
+                    if (format == Format.CSV) {
+                        List<String> fields = splitCsv(trimmed);
+                        if (Objects.isNull(columns)) {
+                            columns = header(fields);
+                            if (!columns.isEmpty()) {
+                                continue;
+                            }
+                        }
+                        record = toRecord(fields, columns);
+                    } else {
+                        if (trimmed.equals("[") || trimmed.equals("]")) {
+                            continue;
+                        }
+                        record = parseJsonObject(trimmed.endsWith(",")
+                                ? trimmed.substring(0, trimmed.length() - 1)
+                                : trimmed);
+                    }
+                } catch (IllegalArgumentException e) {
+                    throw invalidLine(pathToFile, lineNumber, e.getMessage());
+                }
+
+                String alias = record.getOrDefault(ALIAS, "").trim();
+                String value = record.getOrDefault(VALUE, "").trim();
+                if (alias.isEmpty() || value.isEmpty()) {
+                    throw invalidLine(pathToFile, lineNumber, "the alias and the value are required");
+                }
+                if (!keys.add(alias.toLowerCase(Locale.ENGLISH))) {
+                    throw invalidLine(pathToFile, lineNumber, "the '" + alias + "' alias is repeated");
+                }
+
+                String algorithm = record.getOrDefault(ALGORITHM, "").trim();
+                consumer.accept(new KeyRecord(
+                        pathToFile,
+                        lineNumber,
+                        alias,
+                        value,
+                        algorithm.isEmpty() ? defaultAlgorithm : algorithm));
+                records++;
+            }
+        } catch (IOException e) {
+            throw new KeystoreException(e);
+        }
+
+        return records;
+    }
+
+    /**
+     * Build a secret key entry from its base64 encoded value.
+     * The decoded key material is overwritten when the key has been built.
+     *
+     * @param pathToFile path to the file
+     * @param lineNumber line number of the record
+     * @param value the base64 encoded value of the key
+     * @param algorithm algorithm of the key
+     * @return the secret key entry
+     */
+    private static KeyStore.Entry newEntry(String pathToFile, int lineNumber, String value, String algorithm) {
+        byte[] keyBytes;
+        try {
+            keyBytes = Base64.getDecoder().decode(value);
+        } catch (IllegalArgumentException e) {
+            throw invalidLine(pathToFile, lineNumber, "the value is not base64 encoded");
+        }
+
+        try {
+            if (keyBytes.length == 0) {
+                throw invalidLine(pathToFile, lineNumber, "the value is empty");
+            }
+            return new KeyStore.SecretKeyEntry(new SecretKeySpec(keyBytes, algorithm));
+        } finally {
+            SecretBuffers.wipe(keyBytes);
+        }
+    }
+
+    /**
+     * Get the columns of a CSV header line.
+     *
+     * @param fields fields of the first line
+     * @return the column indexes by name or an empty map if the line is not a header
+     */
+    private static Map<String, Integer> header(List<String> fields) {
+        Map<String, Integer> columns = new HashMap<>();
+        if (!ALIAS.equalsIgnoreCase(fields.get(0).trim())) {
+            return columns;
+        }
+
+        for (int i = 0; i < fields.size(); i++) {
+            columns.put(fields.get(i).trim().toLowerCase(Locale.ENGLISH), i);
+        }
+        if (!columns.containsKey(VALUE)) {
+            throw new IllegalArgumentException("the header has no '" + VALUE + "' column");
+        }
+        return columns;
+    }
+
+    /**
+     * Name the fields of a CSV line.
+     *
+     * @param fields fields of the line
+     * @param columns column indexes of the header line, empty if the file has no header
+     * @return the fields by name
+     */
+    private static Map<String, String> toRecord(List<String> fields, Map<String, Integer> columns) {
+        Map<String, String> record = new HashMap<>();
+        if (columns.isEmpty()) {
+            String[] names = {ALIAS, VALUE, ALGORITHM};
+            for (int i = 0; i < Math.min(fields.size(), names.length); i++) {
+                record.put(names[i], fields.get(i));
+            }
+            return record;
+        }
+
+        columns.forEach((name, index) -> {
+            if (index < fields.size()) {
+                record.put(name, fields.get(index));
+            }
+        });
+        return record;
+    }
+
+    /**
+     * Split a CSV line into fields. A quoted field can contain commas and
+     * doubled quotes, but it cannot span more lines. The batch mapping file
+     * of the 'copy' command is split the same way, see {@link AliasMapping}.
+     *
+     * @param line the line
+     * @return the fields
+     * @throws IllegalArgumentException if a quoted field is not terminated
+     */
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Parse a flat JSON object with string values.
+     *
+     * @param line the JSON object
+     * @return the fields of the object by name
+     */
+    private static Map<String, String> parseJsonObject(String line) {
+        Map<String, String> record = new HashMap<>();
+        int[] position = {0};
+        expect(line, position, '{');
+        if (peek(line, position) == '}') {
+            position[0]++;
+        } else {
+            while (true) {
+                String name = parseJsonString(line, position);
+                expect(line, position, ':');
+                record.put(name, parseJsonString(line, position));
+                char next = peek(line, position);
+                position[0]++;
+                if (next == '}') {
+                    break;
+                }
+                if (next != ',') {
+                    throw new IllegalArgumentException("',' or '}' expected at column " + position[0]);
+                }
+            }
+        }
+
+        if (peek(line, position) != 0) {
+            throw new IllegalArgumentException("unexpected characters after the JSON object");
+        }
+        return record;
+    }
+
+    private static String parseJsonString(String line, int[] position) {
+        expect(line, position, '"');
+        StringBuilder value = new StringBuilder();
+        int i = position[0];
+        while (i < line.length()) {
+            char c = line.charAt(i++);
+            if (c == '"') {
+                position[0] = i;
+                return value.toString();
+            }
+            if (c != '\\') {
+                value.append(c);
+                continue;
+            }
+
+            if (i >= line.length()) {
+                break;
+            }
+            char escaped = line.charAt(i++);
+            switch (escaped) {
+                case 'b':
+                    value.append('\b');
+                    break;
+                case 'f':
+                    value.append('\f');
+                    break;
+                case 'n':
+                    value.append('\n');
+                    break;
+                case 'r':
+                    value.append('\r');
+                    break;
+                case 't':
+                    value.append('\t');
+                    break;
+                case 'u':
+                    if (i + 4 > line.length()) {
+                        throw new IllegalArgumentException("invalid unicode escape at column " + i);
+                    }
+                    try {
+                        value.append((char) Integer.parseInt(line.substring(i, i + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("invalid unicode escape at column " + i);
+                    }
+                    i += 4;
+                    break;
+                default:
+                    value.append(escaped);
+            }
+        }
+        throw new IllegalArgumentException("unterminated JSON string");
+    }
+
+    private static void expect(String line, int[] position, char expected) {
+        if (peek(line, position) != expected) {
+            throw new IllegalArgumentException("'" + expected + "' expected at column " + (position[0] + 1)
+                    + ", only string values are supported");
+        }
+        position[0]++;
+    }
+
+    /**
+     * Skip the whitespace and get the next character.
+     *
+     * @param line the line
+     * @param position the current position, it is moved to the next character
+     * @return the next character or 0 at the end of the line
+     */
+    private static char peek(String line, int[] position) {
+        while (position[0] < line.length() && Character.isWhitespace(line.charAt(position[0]))) {
+            position[0]++;
+        }
+        return position[0] < line.length() ? line.charAt(position[0]) : 0;
+    }
+
+    private static IllegalArgumentException invalidLine(String pathToFile, int lineNumber, String reason) {
+        return new IllegalArgumentException(
+                "invalid record in '" + pathToFile + "' at line " + lineNumber + ": " + reason);
+    }
+
+    /**
+     * Utility classes should not have a public or default constructor.
+     */
+    private SecretKeyReader() {
+    }
+
+    /**
+     * A secret key record of the file with its value still base64 encoded.
+     */
+    public static final class KeyRecord {
+
+        private final String pathToFile;
+        private final int lineNumber;
+        private final String alias;
+        private final String value;
+        private final String algorithm;
+
+        private KeyRecord(String pathToFile, int lineNumber, String alias, String value, String algorithm) {
+            this.pathToFile = pathToFile;
+            this.lineNumber = lineNumber;
+            this.alias = alias;
+            this.value = value;
+            this.algorithm = algorithm;
+        }
+
+        /**
+         * Get the alias of the key.
+         *
+         * @return the alias
+         */
+        public String getAlias() {
+            return alias;
+        }
+
+        /**
+         * Decode the value and build the secret key entry.
+         *
+         * @return the secret key entry
+         * @throws IllegalArgumentException if the value is not a valid key
+         */
+        public KeyStore.Entry toEntry() {
+            return newEntry(pathToFile, lineNumber, value, algorithm);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.remal.jceks.command;
+
+import com.remal.jceks.JceksTool;
+import com.remal.jceks.keystore.EntryCache;
+import com.remal.jceks.keystore.KeystoreWatcher;
+import com.remal.jceks.server.KeystoreServer;
+import com.remal.jceks.server.MetricsEndpoint;
+import com.remal.jceks.util.DevNullPrintStream;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Spec;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.Callable;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementation of the 'serve' command.
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+@Command(
+        name = "serve",
+        sortOptions = false,
+        usageHelpAutoWidth = true,
+        showDefaultValues = true,
+        description = "Keep the keystores in the memory and serve show, list and copy requests on a local socket.",
+        descriptionHeading = "%n",
+        optionListHeading = "%n",
+        footerHeading = JceksTool.FOOTER_HEADING,
+        footer = JceksTool.FOOTER)
+public class ServeCommand implements Callable<Integer> {
+
+    /**
+     * Picocli command specification, used to report invalid input.
+     */
+    @Spec
+    CommandSpec spec;
+
+    /**
+     * CLI definition: display the help message.
+     */
+    @Option(names = {"-q", "--quiet"},
+            description = "In this mode nothing will be printed to the output.")
+    private boolean quiet;
+
+    /**
+     * CLI definition: set the address to listen on.
+     */
+    @Option(names = {"-b", "--bind"},
+            description = "loopback address to listen on",
+            defaultValue = "127.0.0.1")
+    String bindAddress;
+
+    /**
+     * CLI definition: set the TCP port.
+     */
+    @Option(names = {"-p", "--port"},
+            description = "TCP port to listen on",
+            defaultValue = "7733")
+    int port;
+
+    /**
+     * CLI definition: set the number of worker threads.
+     */
+    @Option(names = {"-t", "--threads"},
+            description = "maximum number of clients served at the same time, ignored on Java 21 and later where "
+                    + "every client is served on a virtual thread",
+            defaultValue = "16")
+    int threads;
+
+    /**
+     * CLI definition: set the size of the entry cache.
+     */
+    @Option(names = {"-c", "--cache-size"},
+            description = "maximum number of the recovered entries kept in the memory, 0 disables the cache",
+            defaultValue = "1024")
+    int cacheSize;
+
+    /**
+     * CLI definition: set the time-to-live of the cached entries.
+     */
+    @Option(names = {"-l", "--cache-ttl"},
+            description = "time-to-live of a cached entry in seconds",
+            defaultValue = "300")
+    long cacheTtl;
+
+    /**
+     * CLI definition: set the TCP port of the metrics endpoint.
+     */
+    @Option(names = {"-m", "--metrics-port"},
+            description = "TCP port of the Prometheus metrics endpoint on the bind address, 0 disables the endpoint",
+            defaultValue = "0")
+    int metricsPort;
+
+    /**
+     * CLI definition: reload the changed keystore files.
+     */
+    @Option(names = {"-w", "--watch"},
+            description = "reload a keystore in the background when its file is changed by another process")
+    boolean watch;
+
+    /**
+     * Execute the command and computes a result.
+     *
+     * @return exit code
+     */
+    @Override
+    public Integer call() throws IOException {
+        PrintStream logWriter = this.quiet ? DevNullPrintStream.getPrintStream() : System.out;
+
+        InetAddress address;
+        try {
+            address = InetAddress.getByName(bindAddress);
+        } catch (UnknownHostException e) {
+            throw new CommandLine.ParameterException(spec.commandLine(), "Error: unknown host: " + bindAddress);
+        }
+
+        if (!address.isLoopbackAddress()) {
+            throw new CommandLine.ParameterException(
+                    spec.commandLine(),
+                    "Error: the server can only listen on a loopback address, secrets are sent in plain text");
+        }
+
+        if (threads < 1) {
+            throw new CommandLine.ParameterException(spec.commandLine(), "Error: --threads must be at least 1");
+        }
+
+        if (metricsPort < 0) {
+            throw new CommandLine.ParameterException(spec.commandLine(), "Error: --metrics-port cannot be negative");
+        }
+
+        if (cacheSize < 0 || cacheTtl < 0) {
+            throw new CommandLine.ParameterException(
+                    spec.commandLine(),
+                    "Error: --cache-size and --cache-ttl cannot be negative");
+        }
+
+        EntryCache entryCache = cacheSize == 0 ? null : new EntryCache(cacheSize, cacheTtl, TimeUnit.SECONDS);
+        KeystoreWatcher keystoreWatcher = watch ? new KeystoreWatcher(logWriter) : null;
+        KeystoreServer server = new KeystoreServer(logWriter, address, port, threads, entryCache, keystoreWatcher);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        if (Objects.nonNull(keystoreWatcher)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(keystoreWatcher::close));
+        }
+        if (metricsPort > 0) {
+            MetricsEndpoint metricsEndpoint = new MetricsEndpoint(logWriter, address, metricsPort);
+            Runtime.getRuntime().addShutdownHook(new Thread(metricsEndpoint::close));
+        }
+        server.run();
+
+        return CommandLine.ExitCode.OK;
+    }
+}
@@ -0,0 +1,277 @@
+package com.remal.jceks.command;
+
+import com.remal.jceks.JceksTool;
+import com.remal.jceks.keystore.Keystore;
+import com.remal.jceks.keystore.KeystoreType;
+import com.remal.jceks.keystore.KeystoreDiff;
+import com.remal.jceks.password.PasswordResolver;
+import com.remal.jceks.util.Constants;
+import com.remal.jceks.util.DevNullPrintStream;
+import picocli.CommandLine;
+import picocli.CommandLine.ArgGroup;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+import java.io.PrintStream;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+
+/**
+ * Implementation of the 'sync' command.
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+@Command(
+        name = "sync",
+        sortOptions = false,
+        usageHelpAutoWidth = true,
+        description = "Copy the new and changed entries from the source keystore to a target keystore.",
+        descriptionHeading = "%n",
+        optionListHeading = "%n",
+        footerHeading = JceksTool.FOOTER_HEADING,
+        footer = JceksTool.FOOTER)
+public class SyncCommand implements Callable<Integer> {
+
+    /**
+     * CLI definition: display the help message.
+     */
+    @Option(names = {"-q", "--quiet"},
+            description = "In this mode nothing will be printed to the output.")
+    private boolean quiet;
+
+    /**
+     * CLI definition: set the source keystore path.
+     */
+    @Option(
+            names = {"-s", "--source-keystore"},
+            description = "path to the source keystore",
+            required = true)
+    String sourceKeystoreLocation;
+
+    /**
+     * Exclusive CLI group definition for source keystore password.
+     */
+    @ArgGroup(multiplicity = "1")
+    SourceKeystorePasswordGroup sourceKeystorePasswordGroup;
+
+    static class SourceKeystorePasswordGroup {
+
+        /**
+         * CLI definition: set the source keystore password.
+         */
+        @Option(
+                names = {"-p", "--source-keystore-password"},
+                description = "password for the source keystore",
+                required = true)
+        String sourceKeystorePassword;
+
+        /**
+         * CLI definition: set the path of the source keystore password file.
+         */
+        @Option(
+                names = {"-f", "--source-keystore-password-file"},
+                description = "source keystore password file or reference: " + PasswordResolver.REFERENCES,
+                required = true)
+        String sourceKeystorePasswordFile;
+    }
+
+    /**
+     * CLI definition: set the format of the source keystore.
+     */
+    @Option(
+            names = {"-c", "--source-keystore-type"},
+            description = "source keystore format: ${COMPLETION-CANDIDATES}, default: detected from the content of the file")
+    KeystoreType sourceKeystoreType;
+
+    /**
+     * Exclusive CLI group definition for the source keystore entry password.
+     */
+    @ArgGroup(multiplicity = "1")
+    SourceEntryPasswordGroup sourceEntryPasswordGroup;
+
+    static class SourceEntryPasswordGroup {
+
+        /**
+         * CLI definition: set the source keystore entry password.
+         */
+        @Option(
+                names = {"-e", "--source-entry-password"},
+                description = "password for the source keystore entries",
+                required = true)
+        String sourceEntryPassword;
+
+        /**
+         * CLI definition: set the path of the source keystore entry password file.
+         */
+        @Option(
+                names = {"-n", "--source-entry-password-file"},
+                description = "source keystore entry password file or reference: " + PasswordResolver.REFERENCES,
+                required = true)
+        String sourceEntryPasswordFile;
+    }
+
+    /**
+     * CLI definition: set the target keystore path.
+     */
+    @Option(
+            names = {"-t", "--target-keystore"},
+            description = "path to the target keystore",
+            required = true)
+    String targetKeystoreLocation;
+
+    /**
+     * Exclusive CLI group definition for target keystore password.
+     */
+    @ArgGroup(multiplicity = "1")
+    TargetKeystorePasswordGroup targetKeystorePasswordGroup;
+
+    static class TargetKeystorePasswordGroup {
+
+        /**
+         * CLI definition: set the target keystore password.
+         */
+        @Option(
+                names = {"-o", "--target-keystore-password"},
+                description = "password for the target keystore",
+                required = true)
+        String targetKeystorePassword;
+
+        /**
+         * CLI definition: set the path of the target keystore password file.
+         */
+        @Option(
+                names = {"-u", "--target-keystore-password-file"},
+                description = "target keystore password file or reference: " + PasswordResolver.REFERENCES,
+                required = true)
+        String targetKeystorePasswordFile;
+    }
+
+    /**
+     * CLI definition: set the format of the target keystore.
+     */
+    @Option(
+            names = {"-y", "--target-keystore-type"},
+            description = "target keystore format: ${COMPLETION-CANDIDATES}, default: detected from the content of the file")
+    KeystoreType targetKeystoreType;
+
+    /**
+     * Exclusive CLI group definition for the target keystore entry password.
+     */
+    @ArgGroup(multiplicity = "0..1")
+    TargetEntryPasswordGroup targetEntryPasswordGroup;
+
+    static class TargetEntryPasswordGroup {
+
+        /**
+         * CLI definition: set the target keystore entry password.
+         */
+        @Option(
+                names = {"-r", "--target-entry-password"},
+                description = "password for the target keystore entries, default: the source entry password",
+                required = true)
+        String targetEntryPassword;
+
+        /**
+         * CLI definition: set the path of the target keystore entry password file.
+         */
+        @Option(
+                names = {"-z", "--target-entry-password-file"},
+                description = "target keystore entry password file or reference: " + PasswordResolver.REFERENCES,
+                required = true)
+        String targetEntryPasswordFile;
+    }
+
+    /**
+     * CLI definition: remove the target entries that do not exist in the source keystore.
+     */
+    @Option(
+            names = {"-x", "--delete"},
+            description = "remove the target entries that do not exist in the source keystore")
+    boolean delete;
+
+    /**
+     * CLI definition: show the changes without saving the target keystore.
+     */
+    @Option(
+            names = {"-d", "--dry-run"},
+            description = "print the changes to the standard output, even with --quiet, without saving the target "
+                    + "keystore")
+    boolean dryRun;
+
+    /**
+     * CLI definition: compare the key material of every entry.
+     */
+    @Option(
+            names = {"-a", "--compare-all"},
+            description = "compare the key material of every entry that exists in both keystores, not only the "
+                    + "entries written to the source keystore since they were copied")
+    boolean compareAll;
+
+    /**
+     * CLI definition: overwrite the target entries that cannot be recovered.
+     */
+    @Option(
+            names = {"-F", "--force"},
+            description = "overwrite the target entries that cannot be recovered with the target entry password")
+    boolean force;
+
+    /**
+     * Execute the command and computes a result.
+     *
+     * @return exit code
+     */
+    @Override
+    public Integer call() {
+        PrintStream logWriter = this.quiet ? DevNullPrintStream.getPrintStream() : System.out;
+
+        try (PasswordResolver passwords = new PasswordResolver(logWriter)) {
+            char[] sourceKeystorePassword = passwords.resolve(
+                    sourceKeystorePasswordGroup.sourceKeystorePassword,
+                    sourceKeystorePasswordGroup.sourceKeystorePasswordFile);
+            char[] sourceEntryPassword = passwords.resolve(
+                    sourceEntryPasswordGroup.sourceEntryPassword,
+                    sourceEntryPasswordGroup.sourceEntryPasswordFile);
+            char[] targetKeystorePassword = passwords.resolve(
+                    targetKeystorePasswordGroup.targetKeystorePassword,
+                    targetKeystorePasswordGroup.targetKeystorePasswordFile);
+            char[] targetEntryPassword = Objects.isNull(targetEntryPasswordGroup)
+                    ? sourceEntryPassword
+                    : passwords.resolve(
+                            targetEntryPasswordGroup.targetEntryPassword,
+                            targetEntryPasswordGroup.targetEntryPasswordFile);
+
+            Keystore sourceKeystore = Keystore.open(
+                    logWriter, sourceKeystoreLocation, sourceKeystorePassword, sourceKeystoreType);
+            Keystore targetKeystore = Keystore.open(
+                    logWriter, targetKeystoreLocation, targetKeystorePassword, targetKeystoreType);
+            KeystoreDiff diff = KeystoreDiff.compare(
+                    sourceKeystore,
+                    sourceEntryPassword,
+                    targetKeystore,
+                    targetEntryPassword,
+                    delete,
+                    compareAll,
+                    force);
+
+            String summary = diff.getChanges().size() + " changes, " + diff.getUnchanged() + " entries are "
+                    + "up-to-date, the key material of " + diff.getCompared() + " entries has been compared";
+            if (dryRun) {
+                diff.getChanges().forEach(System.out::println);
+                System.out.println(summary);
+                return CommandLine.ExitCode.OK;
+            }
+
+            diff.getChanges().forEach(change -> logWriter.printf(Constants.INFO_MESSAGE, change));
+            logWriter.printf(Constants.INFO_MESSAGE, summary);
+            if (diff.isEmpty()) {
+                return CommandLine.ExitCode.OK;
+            }
+
+            diff.apply(sourceKeystore, sourceEntryPassword, targetKeystore, targetEntryPassword);
+            logWriter.printf(Constants.INFO_MESSAGE, "the target keystore has been synchronized");
+            return CommandLine.ExitCode.OK;
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.remal.jceks.keystore;
+
+import com.remal.jceks.util.PasswordDigest;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded cache of the recovered keystore entries.
+ *
+ * <p>Recovering an entry runs the password based decryption of the keystore
+ * provider, this cache lets the repeated reads of the same alias skip it.
+ * The entries are keyed by the keystore path and the alias name, the least
+ * recently used entry is evicted when the cache is full, and an entry expires
+ * after the configured time-to-live. Every entry remembers the stamp of the
+ * keystore version it was recovered from, and it is served only while the
+ * keystore has the same version in the memory: a reloaded or saved keystore
+ * drops its cached entries, see {@link #invalidate(Path)}. The keystore file
+ * itself is not checked, so a file changed by another process does not make
+ * every lookup miss while the keystore has not been reloaded.</p>
+ *
+ * <p>Only secret key entries are cached. Their key material is kept in a
+ * private byte array that is overwritten with zeros on eviction, and every
+ * hit returns a new copy, so a caller never sees a key that has been wiped.
+ * The other entry types cannot be copied this way, a shared private key
+ * could be destroyed while a caller still uses it, so they are not cached.</p>
+ *
+ * <p>The cache is guarded by a {@link ReentrantLock} instead of monitors, so a
+ * virtual thread waiting for the cache does not pin its carrier thread.</p>
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+public class EntryCache {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<String, CachedEntry> entries;
+    private final Lock lock = new ReentrantLock();
+
+    /**
+     * Initialize the cache.
+     *
+     * @param maxSize maximum number of the cached entries
+     * @param ttl time-to-live of a cached entry
+     * @param ttlUnit time unit of the time-to-live
+     */
+    public EntryCache(int maxSize, long ttl, TimeUnit ttlUnit) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("the size of the cache must be at least 1");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlUnit.toNanos(ttl);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Get a cached entry.
+     *
+     * @param keystoreLocation path to the keystore file
+     * @param fileStamp stamp of the keystore version in the memory
+     * @param entryAlias alias for the keystore entry
+     * @param entryPassword password for the keystore entry
+     * @return the cached entry or null if the entry is not in the cache,
+     *         has expired, has been recovered from another keystore version
+     *         or the password is not the one the entry was recovered with
+     */
+    public KeyStore.Entry get(Path keystoreLocation, FileStamp fileStamp, String entryAlias, char[] entryPassword) {
+        String key = key(keystoreLocation, entryAlias);
+        lock.lock();
+        try {
+            CachedEntry cached = entries.get(key);
+            if (Objects.isNull(cached)) {
+                return null;
+            }
+
+            boolean stale = System.nanoTime() - cached.createdAt > ttlNanos || !cached.fileStamp.equals(fileStamp);
+            if (stale) {
+                entries.remove(key);
+                cached.wipe();
+                return null;
+            }
+
+            return PasswordDigest.matches(entryPassword, cached.passwordDigest) ? cached.toEntry() : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Add a recovered entry to the cache. Entries other than secret keys
+     * are ignored.
+     *
+     * @param keystoreLocation path to the keystore file
+     * @param fileStamp stamp of the keystore version the entry was recovered from
+     * @param entryAlias alias for the keystore entry
+     * @param entryPassword password for the keystore entry
+     * @param entry the recovered entry
+     */
+    public void put(Path keystoreLocation,
+                    FileStamp fileStamp,
+                    String entryAlias,
+                    char[] entryPassword,
+                    KeyStore.Entry entry) {
+        if (!(entry instanceof KeyStore.SecretKeyEntry)) {
+            return;
+        }
+
+        String key = key(keystoreLocation, entryAlias);
+        CachedEntry cachedEntry = new CachedEntry(
+                ((KeyStore.SecretKeyEntry) entry).getSecretKey(),
+                fileStamp,
+                PasswordDigest.digest(entryPassword),
+                System.nanoTime());
+
+        lock.lock();
+        try {
+            CachedEntry previous = entries.put(key, cachedEntry);
+            if (Objects.nonNull(previous)) {
+                previous.wipe();
+            }
+
+            Iterator<CachedEntry> iterator = entries.values().iterator();
+            while (entries.size() > maxSize && iterator.hasNext()) {
+                CachedEntry eldest = iterator.next();
+                iterator.remove();
+                eldest.wipe();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drop a cached entry.
+     *
+     * @param keystoreLocation path to the keystore file
+     * @param entryAlias alias for the keystore entry
+     */
+    public void invalidate(Path keystoreLocation, String entryAlias) {
+        String key = key(keystoreLocation, entryAlias);
+        lock.lock();
+        try {
+            CachedEntry cached = entries.remove(key);
+            if (Objects.nonNull(cached)) {
+                cached.wipe();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drop every cached entry of a keystore, e.g. after the keystore has been
+     * reloaded or saved.
+     *
+     * @param keystoreLocation path to the keystore file
+     */
+    public void invalidate(Path keystoreLocation) {
+        String prefix = key(keystoreLocation, "");
+        lock.lock();
+        try {
+            Iterator<Map.Entry<String, CachedEntry>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, CachedEntry> cached = iterator.next();
+                if (cached.getKey().startsWith(prefix)) {
+                    iterator.remove();
+                    cached.getValue().wipe();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drop every cached entry.
+     */
+    public void clear() {
+        lock.lock();
+        try {
+            entries.values().forEach(CachedEntry::wipe);
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Number of the cached entries.
+     *
+     * @return number of the entries
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static String key(Path keystoreLocation, String entryAlias) {
+        // JCEKS aliases are case-insensitive
+        return keystoreLocation.toAbsolutePath().normalize() + "\u0000" + entryAlias.toLowerCase(Locale.ENGLISH);
+    }
+
+    /**
+     * A cached secret key with its metadata.
+     */
+    private static class CachedEntry {
+        private final byte[] secretKey;
+        private final String secretKeyAlgorithm;
+        private final FileStamp fileStamp;
+        private final byte[] passwordDigest;
+        private final long createdAt;
+
+        CachedEntry(SecretKey secretKey, FileStamp fileStamp, byte[] passwordDigest, long createdAt) {
+            this.secretKey = secretKey.getEncoded();
+            this.secretKeyAlgorithm = secretKey.getAlgorithm();
+            this.fileStamp = fileStamp;
+            this.passwordDigest = passwordDigest;
+            this.createdAt = createdAt;
+        }
+
+        KeyStore.Entry toEntry() {
+            return new KeyStore.SecretKeyEntry(new SecretKeySpec(secretKey, secretKeyAlgorithm));
+        }
+
+        void wipe() {
+            Arrays.fill(secretKey, (byte) 0);
+            Arrays.fill(passwordDigest, (byte) 0);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.remal.jceks.keystore;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Filter of the keystore entries by alias, entry type and creation date.
+ *
+ * <p>Every condition is optional, an entry matches if it meets all the
+ * given conditions. The alias patterns are case-insensitive because the
+ * JCEKS and JKS keystores store the aliases in lower case.</p>
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+public class EntryFilter implements Predicate<IndexEntry> {
+
+    private final Pattern glob;
+    private final Pattern regex;
+    private final Set<EntryType> types;
+    private final Instant createdAfter;
+    private final Instant createdBefore;
+
+    /**
+     * Initialize the filter.
+     *
+     * @param glob glob pattern of the aliases, '*' matches any characters and '?' one character, or null
+     * @param regex regular expression that the whole alias must match, or null
+     * @param types the accepted entry types, null or empty to accept every type
+     * @param createdAfter the entries created at or after this time are accepted, or null
+     * @param createdBefore the entries created before this time are accepted, or null
+     * @throws IllegalArgumentException if the regular expression is invalid
+     */
+    public EntryFilter(String glob,
+                       String regex,
+                       Collection<EntryType> types,
+                       Instant createdAfter,
+                       Instant createdBefore) {
+        this.glob = Objects.isNull(glob) ? null : Pattern.compile(globToRegex(glob), Pattern.CASE_INSENSITIVE);
+        this.regex = Objects.isNull(regex) ? null : Pattern.compile(regex, Pattern.CASE_INSENSITIVE);
+        this.types = Objects.isNull(types) || types.isEmpty() ? EnumSet.allOf(EntryType.class) : EnumSet.copyOf(types);
+        this.createdAfter = createdAfter;
+        this.createdBefore = createdBefore;
+    }
+
+    /**
+     * Check whether an entry matches the filter.
+     *
+     * @param entry the index entry
+     * @return true if the entry meets every condition
+     */
+    @Override
+    public boolean test(IndexEntry entry) {
+        Instant created = entry.getCreationDate().toInstant();
+        return types.contains(entry.getType())
+                && (Objects.isNull(createdAfter) || !created.isBefore(createdAfter))
+                && (Objects.isNull(createdBefore) || created.isBefore(createdBefore))
+                && (Objects.isNull(glob) || glob.matcher(entry.getAlias()).matches())
+                && (Objects.isNull(regex) || regex.matcher(entry.getAlias()).matches());
+    }
+
+    /**
+     * Translate a glob pattern to a regular expression, every character
+     * except the wildcards is matched literally.
+     *
+     * @param glob the glob pattern
+     * @return the regular expression
+     */
+    private static String globToRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (char c : glob.toCharArray()) {
+            if (c == '*' || c == '?') {
+                if (literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(c == '*' ? ".*" : ".");
+            } else {
+                literal.append(c);
+            }
+        }
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        return regex.toString();
+    }
+}
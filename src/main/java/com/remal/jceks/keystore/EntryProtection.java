@@ -0,0 +1,95 @@
+package com.remal.jceks.keystore;
+
+import javax.crypto.spec.PBEParameterSpec;
+import java.security.KeyStore;
+import java.security.SecureRandom;
+import java.util.Objects;
+
+/**
+ * Password based encryption parameters of the new keystore entries.
+ *
+ * <p>The iteration count sets the cost of every entry recovery: a higher
+ * count makes brute-force attacks slower, but every read of the entry slower
+ * too. The default protection leaves the choice to the keystore provider.
+ * Custom parameters are supported only by the keystore formats that store
+ * them per entry, see {@link KeystoreType#supportsEntryProtection()}.</p>
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+public final class EntryProtection {
+
+    /**
+     * Protection algorithm used when only the iteration count is set.
+     */
+    public static final String DEFAULT_ALGORITHM = "PBEWithHmacSHA256AndAES_256";
+
+    /**
+     * Iteration count used when only the protection algorithm is set.
+     */
+    public static final int DEFAULT_ITERATION_COUNT = 10000;
+
+    /**
+     * The default protection of the keystore provider.
+     */
+    public static final EntryProtection DEFAULT = new EntryProtection(null, 0);
+
+    private static final int SALT_LENGTH = 20;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final String algorithm;
+    private final int iterationCount;
+
+    /**
+     * Initialize the protection parameters.
+     *
+     * @param algorithm name of the PBE algorithm or null to use the default
+     * @param iterationCount iteration count or 0 to use the default
+     * @throws KeystoreException if the iteration count is negative
+     */
+    public EntryProtection(String algorithm, int iterationCount) {
+        if (iterationCount < 0) {
+            throw new KeystoreException("the iteration count must not be negative: " + iterationCount);
+        }
+        this.algorithm = algorithm;
+        this.iterationCount = iterationCount;
+    }
+
+    /**
+     * Check whether the protection is left to the keystore provider.
+     *
+     * @return true if neither the algorithm nor the iteration count is set
+     */
+    public boolean isDefault() {
+        return Objects.isNull(algorithm) && iterationCount == 0;
+    }
+
+    /**
+     * Build the protection parameter of a new entry. Every entry gets its own
+     * random salt.
+     *
+     * @param entryPassword password for the keystore entry
+     * @return the protection parameter
+     */
+    KeyStore.PasswordProtection toParameter(char[] entryPassword) {
+        if (isDefault()) {
+            return new KeyStore.PasswordProtection(entryPassword);
+        }
+
+        byte[] salt = new byte[SALT_LENGTH];
+        RANDOM.nextBytes(salt);
+        return new KeyStore.PasswordProtection(
+                entryPassword,
+                Objects.isNull(algorithm) ? DEFAULT_ALGORITHM : algorithm,
+                new PBEParameterSpec(salt, iterationCount == 0 ? DEFAULT_ITERATION_COUNT : iterationCount));
+    }
+
+    @Override
+    public String toString() {
+        return isDefault()
+                ? "provider default"
+                : (Objects.isNull(algorithm) ? DEFAULT_ALGORITHM : algorithm) + ", "
+                        + (iterationCount == 0 ? DEFAULT_ITERATION_COUNT : iterationCount) + " iterations";
+    }
+}
@@ -0,0 +1,57 @@
+package com.remal.jceks.keystore;
+
+/**
+ * Types of the keystore entries, with the tags used in the JCEKS file format.
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+public enum EntryType {
+
+    /**
+     * Private key with its certificate chain.
+     */
+    PRIVATE_KEY(1),
+
+    /**
+     * Trusted certificate.
+     */
+    TRUSTED_CERTIFICATE(2),
+
+    /**
+     * Secret (symmetric) key.
+     */
+    SECRET_KEY(3);
+
+    private final int tag;
+
+    EntryType(int tag) {
+        this.tag = tag;
+    }
+
+    /**
+     * Get the tag of the entry type in the JCEKS file format.
+     *
+     * @return the tag
+     */
+    public int getTag() {
+        return tag;
+    }
+
+    /**
+     * Get the entry type of a JCEKS tag.
+     *
+     * @param tag the tag
+     * @return the entry type
+     * @throws KeystoreException if the tag is unknown
+     */
+    public static EntryType ofTag(int tag) {
+        for (EntryType type : values()) {
+            if (type.tag == tag) {
+                return type;
+            }
+        }
+        throw new KeystoreException("unrecognized keystore entry: " + tag);
+    }
+}
@@ -0,0 +1,771 @@
+package com.remal.jceks.keystore;
+
+import com.remal.jceks.metrics.Metrics;
+import com.remal.jceks.metrics.Phase;
+import com.remal.jceks.util.ByteBufferInputStream;
+import com.remal.jceks.util.Constants;
+import com.remal.jceks.util.SecretBuffers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.security.KeyStore;
+import java.security.KeyStoreException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.UnrecoverableEntryException;
+import java.security.cert.CertificateException;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Keystore stored in a file, built on the {@link KeyStore} API of the JDK.
+ * The class does not depend on the file format: the format specific parts,
+ * e.g. the provider of the format and the support of custom entry protection,
+ * belong to the {@link KeystoreType} of the file.
+ * Errors are reported with {@link KeystoreException}.
+ *
+ * <p>The class is thread-safe. The readers use the current snapshot of the
+ * keystore without any lock, so a slow read, e.g. the recovery of an entry,
+ * never delays a modification or a reload. The modifications are applied to a
+ * copy that is swapped in after it has been saved, see
+ * {@link #write(Consumer)}, and {@link #reload()} loads a changed keystore file
+ * into a new snapshot and swaps it in atomically.</p>
+ *
+ * <p>More instances, in this process or in other processes, can write the
+ * same keystore file at the same time without losing each other's changes:
+ * a save replaces the file only if it still has the content that has been
+ * loaded, otherwise the latest version is loaded and the changes are applied
+ * to it again.</p>
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+public class FileKeystore implements Keystore {
+
+    private final PrintStream logWriter;
+    private final String keyStoreLocation;
+    private final char[] keyStorePassword;
+    private final KeystoreType type;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private EntryCache entryCache;
+    private volatile EntryProtection entryProtection = EntryProtection.DEFAULT;
+
+    /**
+     * Number of the optimistic saves before the save runs under the file lock.
+     */
+    private static final int OPTIMISTIC_ATTEMPTS = 3;
+
+    /**
+     * Modifications of this instance are serialized, the readers and the
+     * reloads do not take it.
+     */
+    private final Lock writeLock = new ReentrantLock();
+
+    /**
+     * Initialize the keystore manager. The format of the keystore is detected
+     * from the content of the file.
+     *
+     * @param logWriter log writer stream
+     * @param keyStoreLocation keystore location
+     * @param keyStorePassword keystore password
+     */
+    public FileKeystore(PrintStream logWriter, String keyStoreLocation, char[] keyStorePassword) {
+        this(logWriter, keyStoreLocation, keyStorePassword, null);
+    }
+
+    /**
+     * Initialize the keystore manager.
+     *
+     * @param logWriter log writer stream
+     * @param keyStoreLocation keystore location
+     * @param keyStorePassword keystore password
+     * @param type format of the keystore file or null to detect it from the content of the file
+     */
+    public FileKeystore(PrintStream logWriter, String keyStoreLocation, char[] keyStorePassword, KeystoreType type) {
+        this.logWriter = logWriter;
+        this.keyStoreLocation = keyStoreLocation;
+        this.keyStorePassword = keyStorePassword;
+
+        FileStamp fileStamp = FileStamp.of(Paths.get(keyStoreLocation));
+        try {
+            logWriter.printf(Constants.INFO_MESSAGE, "loading keystore from '" + keyStoreLocation + "'...");
+            long start = Metrics.start();
+            ByteBuffer content = MappedFiles.read(Paths.get(keyStoreLocation));
+            long size = content.remaining();
+            this.type = Objects.isNull(type) ? KeystoreType.detect(content) : type;
+            byte[] contentDigest = MappedFiles.digest(content);
+            KeyStore keyStore = this.type.newKeyStore();
+            keyStore.load(new ByteBufferInputStream(content), keyStorePassword);
+            snapshot.set(new Snapshot(keyStore, fileStamp, contentDigest));
+            Metrics.record(Phase.KEYSTORE_LOAD, start, size);
+        } catch (CertificateException | IOException | NoSuchAlgorithmException e) {
+            throw new KeystoreException(e);
+        }
+    }
+
+    /**
+     * Initialize the manager of a new, empty keystore.
+     *
+     * @param logWriter log writer stream
+     * @param keyStoreLocation keystore location
+     * @param keyStorePassword keystore password
+     * @param type format of the keystore file
+     * @param keyStore the empty keystore
+     */
+    private FileKeystore(PrintStream logWriter,
+                          String keyStoreLocation,
+                          char[] keyStorePassword,
+                          KeystoreType type,
+                          KeyStore keyStore) {
+        this.logWriter = logWriter;
+        this.keyStoreLocation = keyStoreLocation;
+        this.keyStorePassword = keyStorePassword;
+        this.type = type;
+        snapshot.set(new Snapshot(keyStore, FileStamp.MISSING, null));
+    }
+
+    /**
+     * Create a new, empty keystore. The file is written when the first
+     * transaction is committed.
+     *
+     * @param logWriter log writer stream
+     * @param keyStoreLocation keystore location, the file must not exist
+     * @param keyStorePassword keystore password
+     * @param type format of the keystore file
+     * @return the keystore manager
+     * @throws KeystoreException if the file already exists
+     */
+    public static FileKeystore create(PrintStream logWriter,
+                                       String keyStoreLocation,
+                                       char[] keyStorePassword,
+                                       KeystoreType type) {
+        if (Files.exists(Paths.get(keyStoreLocation))) {
+            throw new KeystoreException("the keystore already exists: '" + keyStoreLocation + "'");
+        }
+
+        try {
+            logWriter.printf(Constants.INFO_MESSAGE, "creating a new " + type + " keystore: '" + keyStoreLocation + "'...");
+            KeyStore keyStore = type.newKeyStore();
+            keyStore.load(null, keyStorePassword);
+            return new FileKeystore(logWriter, keyStoreLocation, keyStorePassword, type, keyStore);
+        } catch (CertificateException | IOException | NoSuchAlgorithmException e) {
+            throw new KeystoreException(e);
+        }
+    }
+
+    @Override
+    public KeystoreType getType() {
+        return type;
+    }
+
+    /**
+     * Read the value of a secret key entry.
+     *
+     * @param entryAlias alias for the keystore entry
+     * @param entryPassword password for the keystore entry
+     * @return the base64 encoded value of the secret key
+     * @throws KeystoreException if the entry does not exist or it is not a secret key
+     */
+    @Override
+    public String getSecretKeyValue(String entryAlias, char[] entryPassword) {
+        char[] value = getSecretKeyChars(entryAlias, entryPassword);
+        try {
+            return new String(value);
+        } finally {
+            SecretBuffers.wipe(value);
+        }
+    }
+
+    /**
+     * Read the value of a secret key entry without creating a {@code String}.
+     * The caller should overwrite the returned array when it is not needed anymore.
+     *
+     * @param entryAlias alias for the keystore entry
+     * @param entryPassword password for the keystore entry
+     * @return the base64 encoded value of the secret key
+     * @throws KeystoreException if the entry does not exist or it is not a secret key
+     */
+    @Override
+    public char[] getSecretKeyChars(String entryAlias, char[] entryPassword) {
+        KeyStore.Entry keyStoreEntry = getEntry(entryAlias, entryPassword);
+        logWriter.printf(Constants.INFO_MESSAGE, "reading value from keystore entry, alias: '" + entryAlias + "'...");
+        if (Objects.isNull(keyStoreEntry)) {
+            throw new KeystoreException("keystore entry does not exist, alias: '" + entryAlias + "'");
+        }
+        if (!(keyStoreEntry instanceof KeyStore.SecretKeyEntry)) {
+            throw new KeystoreException("keystore entry is not a secret key, alias: '" + entryAlias + "'");
+        }
+        KeyStore.SecretKeyEntry key = (KeyStore.SecretKeyEntry) keyStoreEntry;
+
+        // the key material and its base64 form never become a String
+        byte[] encoded = key.getSecretKey().getEncoded();
+        byte[] base64 = SecretBuffers.scratch(4 * ((encoded.length + 2) / 3));
+        try {
+            int length = Base64.getEncoder().encode(encoded, base64);
+            char[] value = new char[length];
+            for (int i = 0; i < length; i++) {
+                value[i] = (char) base64[i];
+            }
+            return value;
+        } finally {
+            SecretBuffers.wipe(encoded);
+            SecretBuffers.wipe(base64);
+        }
+    }
+
+    /**
+     * Get a keystore entry.
+     *
+     * @param entryAlias alias for the keystore entry
+     * @param entryPassword password for the keystore entry, ignored for trusted certificates
+     * @return the keystore entry or null if the entry does not exist
+     */
+    @Override
+    public KeyStore.Entry getEntry(String entryAlias, char[] entryPassword) {
+        Snapshot current = snapshot.get();
+        try {
+            logWriter.printf(Constants.INFO_MESSAGE, "getting keystore entry, alias: '" + entryAlias + "'...");
+            long start = Metrics.start();
+            if (Objects.nonNull(entryCache)) {
+                KeyStore.Entry cachedEntry = entryCache.get(
+                        Paths.get(keyStoreLocation),
+                        current.fileStamp,
+                        entryAlias,
+                        entryPassword);
+                if (Objects.nonNull(cachedEntry)) {
+                    Metrics.record(Phase.ENTRY_CACHE_HIT, start, 0);
+                    return cachedEntry;
+                }
+            }
+
+            // trusted certificates are not password-protected
+            KeyStore.ProtectionParameter protectionParam = current.keyStore.isCertificateEntry(entryAlias)
+                    ? null
+                    : new KeyStore.PasswordProtection(entryPassword);
+            KeyStore.Entry entry = current.keyStore.getEntry(entryAlias, protectionParam);
+            Metrics.record(Phase.ENTRY_RECOVERY, start, 0);
+            if (Objects.nonNull(entryCache) && Objects.nonNull(entry)) {
+                entryCache.put(Paths.get(keyStoreLocation), current.fileStamp, entryAlias, entryPassword, entry);
+            }
+            return entry;
+        } catch (KeyStoreException | NoSuchAlgorithmException | UnrecoverableEntryException e) {
+            throw new KeystoreException(e);
+        }
+    }
+
+    /**
+     * Get the alias names of the keystore entries.
+     *
+     * @return the sorted list of the alias names
+     */
+    @Override
+    public List<String> getAliases() {
+        KeyStore keyStore = snapshot.get().keyStore;
+        try {
+            List<String> aliases = Collections.list(keyStore.aliases());
+            Collections.sort(aliases);
+            return aliases;
+        } catch (KeyStoreException e) {
+            throw new KeystoreException(e);
+        }
+    }
+
+    /**
+     * Check whether an entry is a secret key entry.
+     * The entry is not decrypted.
+     *
+     * @param entryAlias alias for the keystore entry
+     * @return true if the entry exists and it is a secret key entry
+     */
+    @Override
+    public boolean isSecretKeyEntry(String entryAlias) {
+        KeyStore keyStore = snapshot.get().keyStore;
+        try {
+            return keyStore.entryInstanceOf(entryAlias, KeyStore.SecretKeyEntry.class);
+        } catch (KeyStoreException e) {
+            throw new KeystoreException(e);
+        }
+    }
+
+    /**
+     * Get the type of an entry. The entry is not decrypted.
+     *
+     * @param entryAlias alias for the keystore entry
+     * @return the type of the entry or null if the entry does not exist
+     */
+    @Override
+    public EntryType getEntryType(String entryAlias) {
+        KeyStore keyStore = snapshot.get().keyStore;
+        try {
+            if (keyStore.entryInstanceOf(entryAlias, KeyStore.PrivateKeyEntry.class)) {
+                return EntryType.PRIVATE_KEY;
+            }
+            if (keyStore.entryInstanceOf(entryAlias, KeyStore.TrustedCertificateEntry.class)) {
+                return EntryType.TRUSTED_CERTIFICATE;
+            }
+            if (keyStore.entryInstanceOf(entryAlias, KeyStore.SecretKeyEntry.class)) {
+                return EntryType.SECRET_KEY;
+            }
+            return null;
+        } catch (KeyStoreException e) {
+            throw new KeystoreException(e);
+        }
+    }
+
+    /**
+     * Get the creation date of an entry.
+     *
+     * @param entryAlias alias for the keystore entry
+     * @return the creation date or null if the entry does not exist
+     */
+    @Override
+    public Date getCreationDate(String entryAlias) {
+        KeyStore keyStore = snapshot.get().keyStore;
+        try {
+            return keyStore.getCreationDate(entryAlias);
+        } catch (KeyStoreException e) {
+            throw new KeystoreException(e);
+        }
+    }
+
+    /**
+     * Use a cache for the recovered entries. The same cache can be shared
+     * between more keystores.
+     *
+     * @param entryCache the cache or null to disable caching
+     */
+    @Override
+    public void setEntryCache(EntryCache entryCache) {
+        this.entryCache = entryCache;
+    }
+
+    /**
+     * Set the protection parameters of the entries that are added later.
+     *
+     * @param entryProtection the protection parameters
+     * @throws KeystoreException if the keystore format does not support custom protection
+     */
+    @Override
+    public void setEntryProtection(EntryProtection entryProtection) {
+        if (!entryProtection.isDefault() && !type.supportsEntryProtection()) {
+            throw new KeystoreException("the protection of the " + type + " entries cannot be customized, "
+                    + "convert the keystore to " + KeystoreType.PKCS12 + " first");
+        }
+        this.entryProtection = entryProtection;
+    }
+
+    /**
+     * Load the keystore file again if it has been changed since it was loaded
+     * or saved. The new version is loaded without holding any lock and it is
+     * swapped in with a compare-and-set, the readers keep using the previous
+     * version until then. If the keystore is saved by this instance
+     * meanwhile, the reloaded version is dropped.
+     *
+     * @return true if a new version has been loaded
+     * @throws KeystoreException if the changed file cannot be loaded, the previous version is kept
+     */
+    @Override
+    public boolean reload() {
+        Path path = Paths.get(keyStoreLocation);
+        Snapshot loaded = snapshot.get();
+        FileStamp currentStamp = FileStamp.of(path);
+        if (currentStamp.equals(loaded.fileStamp)) {
+            return false;
+        }
+
+        Snapshot latest;
+        try {
+            logWriter.printf(Constants.INFO_MESSAGE, "reloading keystore from '" + keyStoreLocation + "'...");
+            long start = Metrics.start();
+            ByteBuffer content = MappedFiles.read(path);
+            long size = content.remaining();
+            byte[] latestDigest = MappedFiles.digest(content);
+            KeyStore keyStore = type.newKeyStore();
+            keyStore.load(new ByteBufferInputStream(content), keyStorePassword);
+            latest = new Snapshot(keyStore, currentStamp, latestDigest);
+            Metrics.record(Phase.KEYSTORE_RELOAD, start, size);
+        } catch (CertificateException | IOException | NoSuchAlgorithmException e) {
+            throw new KeystoreException(e);
+        }
+
+        if (!snapshot.compareAndSet(loaded, latest)) {
+            // saved by this instance while the new version was loading
+            return false;
+        }
+        invalidateCachedEntries();
+        return true;
+    }
+
+    /**
+     * Get the location of the keystore file.
+     *
+     * @return the keystore location
+     */
+    @Override
+    public String getKeyStoreLocation() {
+        return keyStoreLocation;
+    }
+
+    /**
+     * Add a new keystore entry to the keystore and save the keystore.
+     * If the entry with the given alias name is exist then it will be overwritten.
+     *
+     * @param entryToAdd keystore entry to add
+     * @param entryAlias alias for the keystore entry
+     * @param entryPassword password for the keystore entry
+     */
+    @Override
+    public void addEntry(KeyStore.Entry entryToAdd, String entryAlias, char[] entryPassword) {
+        begin().setEntry(entryToAdd, entryAlias, entryPassword).commit();
+    }
+
+    /**
+     * Start a new transaction. The keystore file is saved only once, when the
+     * transaction is committed.
+     *
+     * @return the new transaction
+     */
+    @Override
+    public KeystoreTransaction begin() {
+        return new KeystoreTransaction(this);
+    }
+
+    /**
+     * Apply modifications and save the keystore.
+     *
+     * <p>The modifications are applied to a private copy of the keystore,
+     * loaded from the keystore file, and the copy is swapped in after it has
+     * been saved. Meanwhile the readers keep using the previous version
+     * without waiting for any lock, and they never see modifications that
+     * have not been saved: if the save fails, the copy is dropped. The
+     * modifications of this instance are serialized.</p>
+     *
+     * <p>The save is optimistic. The modifications are applied and the
+     * keystore is serialized without holding the lock of the keystore file,
+     * see {@link KeystoreFileLock}, so the writers of the same file encrypt
+     * their entries in parallel. Under the lock, the file is replaced only if
+     * it has not been saved by anybody else since the copy was loaded,
+     * otherwise the latest version is loaded, the modifications are applied
+     * to it again and the save is retried. After {@link #OPTIMISTIC_ATTEMPTS}
+     * lost races the whole save runs under the file lock.</p>
+     *
+     * @param changes modifications of the copy of the keystore, they are applied again at every retry
+     */
+    void write(Consumer<KeyStore> changes) {
+        Path path = Paths.get(keyStoreLocation).toAbsolutePath();
+        writeLock.lock();
+        try {
+            Snapshot previous = snapshot.get();
+            for (int attempt = 0; attempt < OPTIMISTIC_ATTEMPTS; attempt++) {
+                Snapshot copy = loadLatest(path);
+                if (!copy.hasSameContent(previous)) {
+                    logWriter.printf(
+                            Constants.INFO_MESSAGE,
+                            "the keystore has been saved by another writer, merging the changes...");
+                }
+
+                long start = Metrics.start();
+                changes.accept(copy.keyStore);
+                if (replaceIfUnchanged(path, copy, serialize(copy.keyStore), start)) {
+                    return;
+                }
+                previous = copy;
+            }
+
+            KeystoreFileLock fileLock = KeystoreFileLock.acquire(path);
+            try {
+                Snapshot copy = loadLatest(path);
+                long start = Metrics.start();
+                changes.accept(copy.keyStore);
+                replace(path, copy.keyStore, serialize(copy.keyStore), start);
+            } finally {
+                fileLock.close();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Save a modified copy of the keystore if nobody else has saved the
+     * keystore since the copy was loaded.
+     *
+     * @param path the keystore file
+     * @param copy the modified copy
+     * @param content content of the keystore file
+     * @param start start of the save, see {@link Metrics#start()}
+     * @return true if the keystore has been saved
+     */
+    private boolean replaceIfUnchanged(Path path, Snapshot copy, byte[] content, long start) {
+        KeystoreFileLock fileLock = KeystoreFileLock.acquire(path);
+        try {
+            if (!isUnchanged(path, copy)) {
+                return false;
+            }
+            replace(path, copy.keyStore, content, start);
+            return true;
+        } finally {
+            fileLock.close();
+        }
+    }
+
+    /**
+     * Set an entry in a copy of the keystore, see {@link #write(Consumer)}.
+     *
+     * @param keyStore the copy of the keystore
+     * @param entryToAdd keystore entry to add
+     * @param entryAlias alias for the keystore entry
+     * @param entryPassword password for the keystore entry
+     */
+    void setEntry(KeyStore keyStore, KeyStore.Entry entryToAdd, String entryAlias, char[] entryPassword) {
+        try {
+            logWriter.printf(Constants.INFO_MESSAGE, "adding a new keystore entry, alias: '" + entryAlias + "'...");
+            KeyStore.ProtectionParameter protectionParam = entryToAdd instanceof KeyStore.TrustedCertificateEntry
+                    ? null
+                    : entryProtection.toParameter(entryPassword);
+            keyStore.setEntry(entryAlias, entryToAdd, protectionParam);
+        } catch (KeyStoreException e) {
+            throw new KeystoreException(e);
+        }
+    }
+
+    /**
+     * Remove an entry from a copy of the keystore, see {@link #write(Consumer)}.
+     *
+     * @param keyStore the copy of the keystore
+     * @param entryAlias alias for the keystore entry
+     */
+    void deleteEntry(KeyStore keyStore, String entryAlias) {
+        try {
+            logWriter.printf(Constants.INFO_MESSAGE, "removing keystore entry, alias: '" + entryAlias + "'...");
+            keyStore.deleteEntry(entryAlias);
+        } catch (KeyStoreException e) {
+            throw new KeystoreException(e);
+        }
+    }
+
+    /**
+     * Serialize a copy of the keystore.
+     *
+     * @param keyStore the copy of the keystore
+     * @return content of the keystore file
+     */
+    private byte[] serialize(KeyStore keyStore) {
+        logWriter.printf(Constants.INFO_MESSAGE, "saving the keystore, location: '" + keyStoreLocation + "'...");
+        try {
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            keyStore.store(content, keyStorePassword);
+            return content.toByteArray();
+        } catch (CertificateException | KeyStoreException | NoSuchAlgorithmException | IOException e) {
+            throw new KeystoreException(e);
+        }
+    }
+
+    /**
+     * Save the keystore to its location and swap the saved keystore in, the
+     * caller holds the file lock. The keystore is written to a temporary file
+     * in the same directory first, then the temporary file is flushed to the
+     * disk and renamed over the original file, so the keystore file is never
+     * left half-written.
+     *
+     * @param target the keystore file
+     * @param keyStore the saved keystore
+     * @param content content of the keystore file
+     * @param start start of the save, see {@link Metrics#start()}
+     */
+    private void replace(Path target, KeyStore keyStore, byte[] content, long start) {
+        Path tempFile = null;
+
+        try {
+            tempFile = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+            copyPermissions(target, tempFile);
+            try (FileOutputStream fos = new FileOutputStream(tempFile.toFile())) {
+                fos.write(content);
+                fos.getFD().sync();
+            }
+
+            try {
+                Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            syncDirectory(target.getParent());
+            MappedFiles.release(target);
+            snapshot.set(new Snapshot(keyStore, FileStamp.of(target), MappedFiles.digest(ByteBuffer.wrap(content))));
+            invalidateCachedEntries();
+            Metrics.record(Phase.KEYSTORE_STORE, start, content.length);
+        } catch (IOException e) {
+            deleteQuietly(tempFile);
+            throw new KeystoreException(e);
+        }
+    }
+
+    /**
+     * Check whether the keystore file still has the content that a copy has
+     * been loaded from, the caller holds the file lock. A file replaced
+     * within the resolution of the modification time can have the same
+     * stamp, so the content is compared as well.
+     *
+     * @param path the keystore file
+     * @param copy the copy of the keystore
+     * @return true if nobody else has saved the keystore
+     */
+    private boolean isUnchanged(Path path, Snapshot copy) {
+        FileStamp currentStamp = FileStamp.of(path);
+        if (!currentStamp.equals(copy.fileStamp)) {
+            return false;
+        }
+        if (Objects.isNull(copy.contentDigest)) {
+            // a new keystore that has not been created by anybody else
+            return true;
+        }
+
+        try {
+            byte[] currentDigest = MappedFiles.digest(ByteBuffer.wrap(Files.readAllBytes(path)));
+            return MessageDigest.isEqual(copy.contentDigest, currentDigest);
+        } catch (IOException e) {
+            throw new KeystoreException(e);
+        }
+    }
+
+    /**
+     * Load a private copy of the latest version of the keystore file. A new
+     * keystore that has not been saved yet is copied as an empty keystore.
+     * The file is read directly, not through the shared mapping, because the
+     * mapping belongs to the stamp of the file and the stamp may not have
+     * changed.
+     *
+     * @param path the keystore file
+     * @return the copy, it is not published
+     */
+    private Snapshot loadLatest(Path path) {
+        try {
+            long start = Metrics.start();
+            if (Objects.isNull(snapshot.get().contentDigest) && !Files.exists(path)) {
+                KeyStore empty = type.newKeyStore();
+                empty.load(null, keyStorePassword);
+                return new Snapshot(empty, FileStamp.MISSING, null);
+            }
+
+            FileStamp latestStamp = FileStamp.of(path);
+            ByteBuffer content = ByteBuffer.wrap(Files.readAllBytes(path));
+            byte[] latestDigest = MappedFiles.digest(content);
+            KeyStore latest = type.newKeyStore();
+            latest.load(new ByteBufferInputStream(content), keyStorePassword);
+            Metrics.record(Phase.KEYSTORE_RELOAD, start, content.capacity());
+            return new Snapshot(latest, latestStamp, latestDigest);
+        } catch (CertificateException | IOException | NoSuchAlgorithmException e) {
+            throw new KeystoreException(e);
+        }
+    }
+
+    /**
+     * Drop every cached entry of this keystore, if caching is in use. Called
+     * when a new version of the keystore is swapped in.
+     */
+    private void invalidateCachedEntries() {
+        if (Objects.nonNull(entryCache)) {
+            entryCache.invalidate(Paths.get(keyStoreLocation));
+        }
+    }
+
+    /**
+     * Keep the POSIX file permissions of the original keystore file.
+     *
+     * @param source the original file
+     * @param target the new file
+     * @throws IOException in case of an I/O error
+     */
+    private static void copyPermissions(Path source, Path target) throws IOException {
+        if (Files.exists(source) && Files.getFileStore(target).supportsFileAttributeView(PosixFileAttributeView.class)) {
+            Files.setPosixFilePermissions(target, Files.getPosixFilePermissions(source));
+        }
+    }
+
+    /**
+     * Flush the directory entry of the renamed file to the disk.
+     * This is not supported on every platform, so errors are ignored.
+     *
+     * @param directory the directory to flush
+     */
+    private static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // not supported on this platform
+        }
+    }
+
+    /**
+     * Delete a file and ignore the errors.
+     *
+     * @param file the file to delete, can be null
+     */
+    private static void deleteQuietly(Path file) {
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                // nothing to do
+            }
+        }
+    }
+
+    /**
+     * A version of the keystore: the loaded keystore with the stamp and the
+     * digest of the file content it has been loaded from or saved to. A
+     * published snapshot is never modified, so the readers use it without any
+     * lock and the keystore always matches its stamp.
+     */
+    private static final class Snapshot {
+
+        private final KeyStore keyStore;
+        private final FileStamp fileStamp;
+        private final byte[] contentDigest;
+
+        /**
+         * Initialize a snapshot.
+         *
+         * @param keyStore the keystore
+         * @param fileStamp stamp of the keystore file
+         * @param contentDigest digest of the file content or null if the keystore has never been saved
+         */
+        Snapshot(KeyStore keyStore, FileStamp fileStamp, byte[] contentDigest) {
+            this.keyStore = keyStore;
+            this.fileStamp = fileStamp;
+            this.contentDigest = contentDigest;
+        }
+
+        /**
+         * Check whether two snapshots belong to the same content of the file.
+         *
+         * @param other the other snapshot
+         * @return true if both have the same content or none of them has been saved
+         */
+        boolean hasSameContent(Snapshot other) {
+            if (Objects.isNull(contentDigest) || Objects.isNull(other.contentDigest)) {
+                return Objects.isNull(contentDigest) && Objects.isNull(other.contentDigest);
+            }
+            return MessageDigest.isEqual(contentDigest, other.contentDigest);
+        }
+    }
+}
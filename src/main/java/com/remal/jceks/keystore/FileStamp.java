@@ -0,0 +1,78 @@
+package com.remal.jceks.keystore;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+
+/**
+ * Last modification time, size and identity (e.g. the inode) of a file. Used
+ * to detect that a keystore file has been changed or replaced by somebody else.
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+public final class FileStamp {
+
+    /**
+     * Stamp of a file that does not exist or cannot be read.
+     */
+    public static final FileStamp MISSING = new FileStamp(-1, -1, null);
+
+    private final long lastModified;
+    private final long size;
+    private final Object fileKey;
+
+    private FileStamp(long lastModified, long size, Object fileKey) {
+        this.lastModified = lastModified;
+        this.size = size;
+        this.fileKey = fileKey;
+    }
+
+    /**
+     * Read the stamp of a file.
+     *
+     * @param file the file
+     * @return the stamp of the file or {@link #MISSING} if the file cannot be read
+     */
+    public static FileStamp of(Path file) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return new FileStamp(attributes.lastModifiedTime().toMillis(), attributes.size(), attributes.fileKey());
+        } catch (IOException e) {
+            return MISSING;
+        }
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof FileStamp)) {
+            return false;
+        }
+        FileStamp that = (FileStamp) other;
+        return lastModified == that.lastModified && size == that.size && Objects.equals(fileKey, that.fileKey);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(lastModified, size, fileKey);
+    }
+
+    @Override
+    public String toString() {
+        return "FileStamp{lastModified=" + lastModified + ", size=" + size + ", fileKey=" + fileKey + "}";
+    }
+}
@@ -0,0 +1,57 @@
+package com.remal.jceks.keystore;
+
+import java.util.Date;
+
+/**
+ * Metadata of a keystore entry, read from the keystore file without
+ * decrypting the entry.
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+public class IndexEntry {
+
+    private final String alias;
+    private final EntryType type;
+    private final long creationDate;
+    private final long offset;
+    private final int length;
+
+    /**
+     * Initialize the index entry.
+     *
+     * @param alias alias name of the entry
+     * @param type type of the entry
+     * @param creationDate creation date of the entry in milliseconds since the epoch
+     * @param offset position of the entry in the keystore file
+     * @param length length of the entry in bytes
+     */
+    public IndexEntry(String alias, EntryType type, long creationDate, long offset, int length) {
+        this.alias = alias;
+        this.type = type;
+        this.creationDate = creationDate;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    public String getAlias() {
+        return alias;
+    }
+
+    public EntryType getType() {
+        return type;
+    }
+
+    public Date getCreationDate() {
+        return new Date(creationDate);
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public int getLength() {
+        return length;
+    }
+}
@@ -0,0 +1,200 @@
+package com.remal.jceks.keystore;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Persisted alias index of a keystore file, stored next to the keystore
+ * with the {@link #SUFFIX} suffix.
+ *
+ * <p>The index file keeps the index entries of the keystore and the SHA-256
+ * digest of the keystore content it has been built from. The index belongs
+ * to a keystore file only if its digest matches the current content of the
+ * file, the size and the modification time of the file are not trusted: a
+ * keystore rewritten within the resolution of the modification time, or
+ * restored from a backup, is indexed again if its content is different.</p>
+ *
+ * <p>The index file holds only the data that is stored without encryption
+ * in the keystore file as well: the aliases, the entry types and the
+ * creation dates.</p>
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+final class IndexFile {
+
+    /**
+     * File name suffix of the index files.
+     */
+    static final String SUFFIX = ".idx";
+
+    private static final int MAGIC = 0x4a4b4958;
+    private static final int VERSION = 2;
+
+    private final byte[] digest;
+    private final int magic;
+    private final int version;
+    private final List<IndexEntry> entries;
+
+    private IndexFile(byte[] digest,
+                      int magic,
+                      int version,
+                      List<IndexEntry> entries) {
+        this.digest = digest;
+        this.magic = magic;
+        this.version = version;
+        this.entries = entries;
+    }
+
+    /**
+     * Get the location of the index file of a keystore.
+     *
+     * @param keyStoreFile the keystore file
+     * @return the index file
+     */
+    static Path of(Path keyStoreFile) {
+        return keyStoreFile.resolveSibling(keyStoreFile.getFileName() + SUFFIX);
+    }
+
+    /**
+     * Read an index file.
+     *
+     * @param indexFile the index file
+     * @return the index file or null if it does not exist or it cannot be read
+     */
+    static IndexFile read(Path indexFile) {
+        try (InputStream is = Files.newInputStream(indexFile);
+             DataInputStream dis = new DataInputStream(new BufferedInputStream(is))) {
+            if (dis.readInt() != MAGIC || dis.readInt() != VERSION) {
+                return null;
+            }
+
+            byte[] digest = new byte[dis.readInt()];
+            dis.readFully(digest);
+            int magic = dis.readInt();
+            int version = dis.readInt();
+
+            int count = dis.readInt();
+            List<IndexEntry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String alias = dis.readUTF();
+                EntryType type = EntryType.ofTag(dis.readInt());
+                long creationDate = dis.readLong();
+                long offset = dis.readLong();
+                int length = dis.readInt();
+                entries.add(new IndexEntry(alias, type, creationDate, offset, length));
+            }
+            return new IndexFile(digest, magic, version, entries);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | KeystoreException e) {
+            // a damaged index file is built again
+            return null;
+        }
+    }
+
+    /**
+     * Save the index entries of a keystore to its index file.
+     * The file is written to a temporary file first and renamed afterwards,
+     * so the concurrent readers never see a half-written index.
+     *
+     * @param indexFile the index file
+     * @param digest digest of the keystore content
+     * @param magic magic number of the keystore file format
+     * @param version version of the keystore file format
+     * @param entries the index entries
+     * @throws KeystoreException if the index file cannot be written
+     */
+    static void write(Path indexFile,
+                      byte[] digest,
+                      int magic,
+                      int version,
+                      List<IndexEntry> entries) {
+        Path tempFile = null;
+        try {
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            DataOutputStream dos = new DataOutputStream(content);
+            dos.writeInt(MAGIC);
+            dos.writeInt(VERSION);
+            dos.writeInt(digest.length);
+            dos.write(digest);
+            dos.writeInt(magic);
+            dos.writeInt(version);
+            dos.writeInt(entries.size());
+            for (IndexEntry entry : entries) {
+                dos.writeUTF(entry.getAlias());
+                dos.writeInt(entry.getType().getTag());
+                dos.writeLong(entry.getCreationDate().getTime());
+                dos.writeLong(entry.getOffset());
+                dos.writeInt(entry.getLength());
+            }
+            dos.flush();
+
+            tempFile = Files.createTempFile(indexFile.getParent(), indexFile.getFileName().toString(), ".tmp");
+            try (FileOutputStream fos = new FileOutputStream(tempFile.toFile())) {
+                content.writeTo(fos);
+            }
+
+            try {
+                Files.move(tempFile, indexFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            deleteQuietly(tempFile);
+            throw new KeystoreException(e);
+        }
+    }
+
+    /**
+     * Check whether the index has been built from a keystore file with the same format.
+     *
+     * @param magic magic number of the keystore file format
+     * @param version version of the keystore file format
+     * @return true if the format is the same
+     */
+    boolean hasFormat(int magic, int version) {
+        return this.magic == magic && this.version == version;
+    }
+
+    /**
+     * Check whether the index has been built from the same keystore content.
+     *
+     * @param digest digest of the current keystore content
+     * @return true if the digests are the same
+     */
+    boolean hasDigest(byte[] digest) {
+        return MessageDigest.isEqual(this.digest, digest);
+    }
+
+    List<IndexEntry> getEntries() {
+        return entries;
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (Objects.isNull(file)) {
+            return;
+        }
+
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // the temporary file is left behind, it does not affect the index file
+        }
+    }
+}
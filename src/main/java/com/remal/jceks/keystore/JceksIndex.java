@@ -0,0 +1,397 @@
+package com.remal.jceks.keystore;
+
+import com.remal.jceks.metrics.Metrics;
+import com.remal.jceks.metrics.Phase;
+import com.remal.jceks.util.ByteBufferInputStream;
+import com.remal.jceks.util.Constants;
+
+import javax.crypto.SealedObject;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Lightweight, read-only JCEKS keystore reader.
+ *
+ * <p>Reads only the structure of the keystore file and builds an in-memory
+ * index of the entries: alias, entry type, creation date and the position of
+ * the entry in the file. The entries are not materialized and the integrity
+ * check of the whole file is skipped, so listing the aliases of a large
+ * keystore is fast and uses little memory. An entry is decrypted only when
+ * {@link #getEntry(String, char[])} is called. Large files are parsed from a
+ * shared memory mapping, see {@link MappedFiles}.</p>
+ *
+ * <p>The keystore password is not needed to build the index, so the index
+ * does not prove that the keystore has not been tampered with. Use
+ * {@link FileKeystore} when the integrity of the file matters.</p>
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+public class JceksIndex {
+
+    /**
+     * Magic number of the JCEKS file format.
+     */
+    public static final int JCEKS_MAGIC = 0xcececece;
+
+    /**
+     * Magic number of the JKS file format, the JCEKS provider reads it as well.
+     */
+    public static final int JKS_MAGIC = 0xfeedfeed;
+
+    private static final int VERSION_1 = 1;
+    private static final int VERSION_2 = 2;
+
+    /**
+     * Classes allowed in the serialized secret key entries.
+     */
+    private static final List<String> SEALED_KEY_CLASSES = Arrays.asList(
+            SealedObject.class.getName(),
+            "com.sun.crypto.provider.SealedObjectForKeyProtector",
+            byte[].class.getName());
+
+    private final String keyStoreLocation;
+    private final int magic;
+    private final int version;
+    private final ByteBuffer content;
+    private final Map<String, IndexEntry> entries;
+
+    private JceksIndex(String keyStoreLocation,
+                       int magic,
+                       int version,
+                       ByteBuffer content,
+                       Map<String, IndexEntry> entries) {
+        this.keyStoreLocation = keyStoreLocation;
+        this.magic = magic;
+        this.version = version;
+        this.content = content;
+        this.entries = entries;
+    }
+
+    /**
+     * Read the index of a keystore file.
+     *
+     * @param logWriter log writer stream
+     * @param keyStoreLocation keystore location
+     * @return the index of the keystore
+     * @throws KeystoreException if the file cannot be read or it is not a JCEKS keystore
+     */
+    public static JceksIndex open(PrintStream logWriter, String keyStoreLocation) {
+        return open(logWriter, keyStoreLocation, false);
+    }
+
+    /**
+     * Read the index of a keystore file, optionally from its persisted index
+     * file, see {@link IndexFile}. The index file is used if it belongs to the
+     * current content of the keystore, otherwise the keystore is parsed and
+     * the index file is written again. A keystore in a read-only directory is
+     * parsed every time.
+     *
+     * @param logWriter log writer stream
+     * @param keyStoreLocation keystore location
+     * @param useIndexFile whether to use and maintain the index file of the keystore
+     * @return the index of the keystore
+     * @throws KeystoreException if the file cannot be read or it is not a JCEKS keystore
+     */
+    public static JceksIndex open(PrintStream logWriter, String keyStoreLocation, boolean useIndexFile) {
+        logWriter.printf(Constants.INFO_MESSAGE, "reading keystore index from '" + keyStoreLocation + "'...");
+        try {
+            long start = Metrics.start();
+            Path file = Paths.get(keyStoreLocation);
+            ByteBuffer content = MappedFiles.read(file);
+            ByteBufferInputStream stream = new ByteBufferInputStream(content.duplicate());
+            DataInputStream dis = new DataInputStream(stream);
+
+            int magic = dis.readInt();
+            int version = dis.readInt();
+            if ((magic != JCEKS_MAGIC && magic != JKS_MAGIC) || (version != VERSION_1 && version != VERSION_2)) {
+                throw new KeystoreException("invalid keystore format: '" + keyStoreLocation + "'");
+            }
+
+            List<IndexEntry> indexEntries = useIndexFile
+                    ? readIndexFile(logWriter, file.toAbsolutePath(), content, magic, version, dis, stream)
+                    : parse(dis, stream, version);
+            Map<String, IndexEntry> entries = new TreeMap<>();
+            indexEntries.forEach(entry -> entries.put(entry.getAlias().toLowerCase(Locale.ENGLISH), entry));
+
+            Metrics.record(Phase.INDEX_READ, start, content.capacity());
+            return new JceksIndex(keyStoreLocation, magic, version, content, entries);
+        } catch (IOException e) {
+            throw new KeystoreException(e);
+        }
+    }
+
+    /**
+     * Get the index entries.
+     *
+     * @return the index entries sorted by alias name
+     */
+    public List<IndexEntry> getEntries() {
+        return Collections.unmodifiableList(new ArrayList<>(entries.values()));
+    }
+
+    /**
+     * Get the index entries that match a filter.
+     *
+     * @param filter the filter of the entries, see {@link EntryFilter}
+     * @return the matching index entries sorted by alias name
+     */
+    public List<IndexEntry> find(Predicate<IndexEntry> filter) {
+        return Collections.unmodifiableList(entries.values().stream().filter(filter).collect(Collectors.toList()));
+    }
+
+    /**
+     * Get the index entry of an alias.
+     *
+     * @param entryAlias alias for the keystore entry
+     * @return the index entry or null if the alias does not exist
+     */
+    public IndexEntry getIndexEntry(String entryAlias) {
+        return entries.get(entryAlias.toLowerCase(Locale.ENGLISH));
+    }
+
+    /**
+     * Decrypt a keystore entry. Only the bytes of this entry are read, from
+     * the same version of the file that the index was built from.
+     *
+     * @param entryAlias alias for the keystore entry
+     * @param entryPassword password for the keystore entry, ignored for trusted certificates
+     * @return the keystore entry or null if the alias does not exist
+     * @throws KeystoreException if the entry cannot be read or decrypted
+     */
+    public KeyStore.Entry getEntry(String entryAlias, char[] entryPassword) {
+        IndexEntry indexEntry = getIndexEntry(entryAlias);
+        if (Objects.isNull(indexEntry)) {
+            return null;
+        }
+
+        try {
+            byte[] entryBytes = new byte[indexEntry.getLength()];
+            getEntryBytes(indexEntry).get(entryBytes);
+
+            // a keystore with this single entry, without the integrity digest
+            ByteArrayOutputStream singleEntryKeystore = new ByteArrayOutputStream(entryBytes.length + 12);
+            DataOutputStream dos = new DataOutputStream(singleEntryKeystore);
+            dos.writeInt(magic);
+            dos.writeInt(version);
+            dos.writeInt(1);
+            dos.write(entryBytes);
+
+            KeyStore keyStore = KeyStore.getInstance("jceks");
+            keyStore.load(new ByteArrayInputStream(singleEntryKeystore.toByteArray()), null);
+            KeyStore.ProtectionParameter protectionParam = indexEntry.getType() == EntryType.TRUSTED_CERTIFICATE
+                    ? null
+                    : new KeyStore.PasswordProtection(entryPassword);
+            return keyStore.getEntry(indexEntry.getAlias(), protectionParam);
+        } catch (IOException | GeneralSecurityException e) {
+            throw new KeystoreException(e);
+        }
+    }
+
+    /**
+     * Get the serialized form of an entry, as it is stored in the keystore file.
+     *
+     * @param indexEntry the index entry
+     * @return read-only buffer with the bytes of the entry
+     */
+    ByteBuffer getEntryBytes(IndexEntry indexEntry) {
+        ByteBuffer entryBuffer = content.duplicate();
+        entryBuffer.position((int) indexEntry.getOffset());
+        entryBuffer.limit((int) indexEntry.getOffset() + indexEntry.getLength());
+        return entryBuffer.slice();
+    }
+
+    /**
+     * Get the location of the keystore file.
+     *
+     * @return the keystore location
+     */
+    public String getKeyStoreLocation() {
+        return keyStoreLocation;
+    }
+
+    /**
+     * Get the name of the file format.
+     *
+     * @return JCEKS or JKS
+     */
+    public String getFormat() {
+        return magic == JCEKS_MAGIC ? "JCEKS" : "JKS";
+    }
+
+    /**
+     * Get the version of the file format.
+     *
+     * @return the version
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Get the size of the keystore file.
+     *
+     * @return the size in bytes
+     */
+    public long getFileSize() {
+        return content.capacity();
+    }
+
+    /**
+     * Parse the entries of the keystore stream, the stream is positioned after the header.
+     *
+     * @param dis the keystore stream
+     * @param stream the underlying stream, used to get the position of the entries
+     * @param version version of the file format
+     * @return the index entries in the order of the file
+     * @throws IOException in case of an I/O error or invalid content
+     */
+    private static List<IndexEntry> parse(DataInputStream dis,
+                                          ByteBufferInputStream stream,
+                                          int version) throws IOException {
+        int count = dis.readInt();
+        List<IndexEntry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int offset = stream.position();
+            EntryType type = EntryType.ofTag(dis.readInt());
+            String alias = dis.readUTF();
+            long creationDate = dis.readLong();
+            skipEntryBody(dis, type, version);
+
+            int length = stream.position() - offset;
+            entries.add(new IndexEntry(alias, type, creationDate, offset, length));
+        }
+        return entries;
+    }
+
+    /**
+     * Get the index entries from the index file of the keystore, or parse the
+     * keystore and save the index file if the index file does not belong to
+     * the current content of the keystore. The index file is trusted only if
+     * its digest matches the content of the keystore.
+     */
+    private static List<IndexEntry> readIndexFile(PrintStream logWriter,
+                                                  Path file,
+                                                  ByteBuffer content,
+                                                  int magic,
+                                                  int version,
+                                                  DataInputStream dis,
+                                                  ByteBufferInputStream stream) throws IOException {
+        Path indexPath = IndexFile.of(file);
+        IndexFile indexFile = IndexFile.read(indexPath);
+        byte[] digest = MappedFiles.digest(content);
+        if (Objects.nonNull(indexFile) && indexFile.hasFormat(magic, version) && indexFile.hasDigest(digest)) {
+            logWriter.printf(Constants.INFO_MESSAGE, "using the index file '" + indexPath + "'");
+            return indexFile.getEntries();
+        }
+
+        List<IndexEntry> entries = parse(dis, stream, version);
+        try {
+            IndexFile.write(indexPath, digest, magic, version, entries);
+            logWriter.printf(Constants.INFO_MESSAGE, "the index file has been saved: '" + indexPath + "'");
+        } catch (KeystoreException e) {
+            // the index file is an optimization, the next read parses the keystore again
+            logWriter.printf(
+                    Constants.INFO_MESSAGE,
+                    "cannot save the index file '" + indexPath + "': " + e.getMessage());
+        }
+        return entries;
+    }
+
+    /**
+     * Skip the part of the entry after the alias and the creation date.
+     *
+     * @param dis the keystore stream
+     * @param type type of the entry
+     * @param version version of the file format
+     * @throws IOException in case of an I/O error or invalid content
+     */
+    private static void skipEntryBody(DataInputStream dis, EntryType type, int version) throws IOException {
+        switch (type) {
+            case PRIVATE_KEY:
+                skipFully(dis, dis.readInt());
+                int numberOfCertificates = dis.readInt();
+                for (int i = 0; i < numberOfCertificates; i++) {
+                    skipCertificate(dis, version);
+                }
+                break;
+            case TRUSTED_CERTIFICATE:
+                skipCertificate(dis, version);
+                break;
+            default:
+                skipSealedKey(dis);
+        }
+    }
+
+    private static void skipCertificate(DataInputStream dis, int version) throws IOException {
+        if (version == VERSION_2) {
+            dis.readUTF();
+        }
+        skipFully(dis, dis.readInt());
+    }
+
+    /**
+     * Skip a serialized, encrypted secret key. The sealed object is read
+     * without decrypting it, only the expected classes are accepted.
+     *
+     * @param dis the keystore stream
+     * @throws IOException in case of an I/O error or invalid content
+     */
+    private static void skipSealedKey(DataInputStream dis) throws IOException {
+        // do not close this stream, the keystore stream is still in use
+        ObjectInputStream ois = new ObjectInputStream(dis) {
+            @Override
+            protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+                if (!SEALED_KEY_CLASSES.contains(desc.getName())) {
+                    throw new InvalidClassException(desc.getName(), "unexpected class in a secret key entry");
+                }
+                return super.resolveClass(desc);
+            }
+        };
+
+        try {
+            ois.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static void skipFully(DataInputStream dis, int length) throws IOException {
+        if (length < 0) {
+            throw new IOException("invalid keystore entry length: " + length);
+        }
+
+        int remaining = length;
+        while (remaining > 0) {
+            int skipped = dis.skipBytes(remaining);
+            if (skipped <= 0) {
+                throw new EOFException();
+            }
+            remaining -= skipped;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.remal.jceks.keystore;
+
+import java.io.PrintStream;
+import java.security.KeyStore;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * A keystore file, independently of its format.
+ * Errors are reported with {@link KeystoreException}.
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+public interface Keystore {
+
+    /**
+     * Load an existing keystore file.
+     *
+     * @param logWriter log writer stream
+     * @param keyStoreLocation keystore location
+     * @param keyStorePassword keystore password
+     * @param type format of the keystore file or null to detect it from the content of the file
+     * @return the keystore
+     */
+    static Keystore open(PrintStream logWriter, String keyStoreLocation, char[] keyStorePassword, KeystoreType type) {
+        return new FileKeystore(logWriter, keyStoreLocation, keyStorePassword, type);
+    }
+
+    /**
+     * Create a new, empty keystore. The file is written when the first
+     * transaction is committed.
+     *
+     * @param logWriter log writer stream
+     * @param keyStoreLocation keystore location, the file must not exist
+     * @param keyStorePassword keystore password
+     * @param type format of the keystore file
+     * @return the keystore
+     */
+    static Keystore create(PrintStream logWriter, String keyStoreLocation, char[] keyStorePassword, KeystoreType type) {
+        return FileKeystore.create(logWriter, keyStoreLocation, keyStorePassword, type);
+    }
+
+    /**
+     * Get the format of the keystore file.
+     *
+     * @return the keystore type
+     */
+    KeystoreType getType();
+
+    /**
+     * Read the value of a secret key entry.
+     *
+     * @param entryAlias alias for the keystore entry
+     * @param entryPassword password for the keystore entry
+     * @return the base64 encoded value of the secret key
+     * @throws KeystoreException if the entry does not exist or it is not a secret key
+     */
+    String getSecretKeyValue(String entryAlias, char[] entryPassword);
+
+    /**
+     * Read the value of a secret key entry without creating a {@code String}.
+     * The caller should overwrite the returned array when it is not needed anymore.
+     *
+     * @param entryAlias alias for the keystore entry
+     * @param entryPassword password for the keystore entry
+     * @return the base64 encoded value of the secret key
+     * @throws KeystoreException if the entry does not exist or it is not a secret key
+     */
+    char[] getSecretKeyChars(String entryAlias, char[] entryPassword);
+
+    /**
+     * Get a keystore entry.
+     *
+     * @param entryAlias alias for the keystore entry
+     * @param entryPassword password for the keystore entry, ignored for trusted certificates
+     * @return the keystore entry or null if the entry does not exist
+     */
+    KeyStore.Entry getEntry(String entryAlias, char[] entryPassword);
+
+    /**
+     * Get the alias names of the keystore entries.
+     *
+     * @return the sorted list of the alias names
+     */
+    List<String> getAliases();
+
+    /**
+     * Check whether an entry is a secret key entry.
+     * The entry is not decrypted.
+     *
+     * @param entryAlias alias for the keystore entry
+     * @return true if the entry exists and it is a secret key entry
+     */
+    boolean isSecretKeyEntry(String entryAlias);
+
+    /**
+     * Get the type of an entry. The entry is not decrypted.
+     *
+     * @param entryAlias alias for the keystore entry
+     * @return the type of the entry or null if the entry does not exist
+     */
+    EntryType getEntryType(String entryAlias);
+
+    /**
+     * Get the creation date of an entry.
+     *
+     * @param entryAlias alias for the keystore entry
+     * @return the creation date or null if the entry does not exist
+     */
+    Date getCreationDate(String entryAlias);
+
+    /**
+     * Use a cache for the recovered entries. The same cache can be shared
+     * between more keystores.
+     *
+     * @param entryCache the cache or null to disable caching
+     */
+    void setEntryCache(EntryCache entryCache);
+
+    /**
+     * Set the protection parameters of the entries that are added later.
+     *
+     * @param entryProtection the protection parameters
+     * @throws KeystoreException if the keystore format does not support custom protection
+     */
+    void setEntryProtection(EntryProtection entryProtection);
+
+    /**
+     * Load the keystore file again if it has been changed since it was loaded
+     * or saved. The readers are not blocked while the new version is loading.
+     *
+     * @return true if a new version has been loaded
+     * @throws KeystoreException if the changed file cannot be loaded, the previous version is kept
+     */
+    boolean reload();
+
+    /**
+     * Get the location of the keystore file.
+     *
+     * @return the keystore location
+     */
+    String getKeyStoreLocation();
+
+    /**
+     * Add a new keystore entry to the keystore and save the keystore.
+     * If the entry with the given alias name is exist then it will be overwritten.
+     *
+     * @param entryToAdd keystore entry to add
+     * @param entryAlias alias for the keystore entry
+     * @param entryPassword password for the keystore entry
+     */
+    void addEntry(KeyStore.Entry entryToAdd, String entryAlias, char[] entryPassword);
+
+    /**
+     * Start a new transaction. The keystore file is saved only once, when the
+     * transaction is committed.
+     *
+     * @return the new transaction
+     */
+    KeystoreTransaction begin();
+}
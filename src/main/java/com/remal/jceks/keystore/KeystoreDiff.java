@@ -0,0 +1,347 @@
+package com.remal.jceks.keystore;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyStore;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateEncodingException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Difference between a source and a target keystore.
+ *
+ * <p>The entries are matched by alias, case-insensitively. The metadata of
+ * the entries is compared first, it is read without decrypting anything: an
+ * entry with a different type is changed, and an entry that was written to
+ * the target keystore after it was created in the source keystore is
+ * unchanged, because the keystore sets a new creation date every time an
+ * entry is written. Only the remaining entries, the ones that have been
+ * written to the source keystore since they were copied, are decrypted on
+ * both sides to compare the digest of their key material. So the cost of a
+ * diff scales with the number of changed entries, not with the size of the
+ * keystores. The new entries are decrypted only when the diff is applied.</p>
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+public class KeystoreDiff {
+
+    /**
+     * Kind of the modification that makes the target equal to the source.
+     */
+    public enum ChangeType {
+
+        /**
+         * The entry exists only in the source keystore.
+         */
+        ADD,
+
+        /**
+         * The entry exists in both keystores with different content.
+         */
+        UPDATE,
+
+        /**
+         * The entry exists only in the target keystore.
+         */
+        DELETE
+    }
+
+    private final List<Change> changes;
+    private final int unchanged;
+    private final int compared;
+
+    private KeystoreDiff(List<Change> changes, int unchanged, int compared) {
+        this.changes = changes;
+        this.unchanged = unchanged;
+        this.compared = compared;
+    }
+
+    /**
+     * Compare two keystores.
+     *
+     * @param source the source keystore
+     * @param sourceEntryPassword password for the source keystore entries
+     * @param target the target keystore
+     * @param targetEntryPassword password for the target keystore entries
+     * @param withDeletes whether to delete the entries that do not exist in the source keystore
+     * @param compareAll whether to compare the key material of every entry that exists in both
+     *                   keystores with the same type, not only the ones written to the source since
+     * @param force whether to overwrite the target entries that cannot be recovered with the target
+     *              entry password
+     * @return the difference
+     * @throws KeystoreException if a target entry that has to be compared cannot be recovered and
+     *                           force is false
+     */
+    public static KeystoreDiff compare(Keystore source,
+                                       char[] sourceEntryPassword,
+                                       Keystore target,
+                                       char[] targetEntryPassword,
+                                       boolean withDeletes,
+                                       boolean compareAll,
+                                       boolean force) {
+        List<Change> changes = new ArrayList<>();
+        int unchanged = 0;
+        int compared = 0;
+
+        List<String> sourceAliases = source.getAliases();
+        Map<String, String> targetAliases = new HashMap<>();
+        target.getAliases().forEach(alias -> targetAliases.put(key(alias), alias));
+        for (String alias : sourceAliases) {
+            EntryType sourceType = source.getEntryType(alias);
+            Date sourceCreationDate = source.getCreationDate(alias);
+            String targetAlias = targetAliases.get(key(alias));
+
+            if (Objects.isNull(targetAlias)) {
+                changes.add(new Change(ChangeType.ADD, alias, sourceType, sourceCreationDate, null, null));
+                continue;
+            }
+
+            Date targetCreationDate = target.getCreationDate(targetAlias);
+            if (sourceType != target.getEntryType(targetAlias)) {
+                changes.add(new Change(
+                        ChangeType.UPDATE, alias, sourceType, sourceCreationDate, targetCreationDate, null));
+                continue;
+            }
+            if (!compareAll && writtenAfter(targetCreationDate, sourceCreationDate)) {
+                unchanged++;
+                continue;
+            }
+
+            compared++;
+            KeyStore.Entry sourceEntry = source.getEntry(alias, sourceEntryPassword);
+            if (sameKeyMaterial(sourceEntry, target, targetAlias, targetEntryPassword, force)) {
+                unchanged++;
+            } else {
+                changes.add(new Change(
+                        ChangeType.UPDATE, alias, sourceType, sourceCreationDate, targetCreationDate, sourceEntry));
+            }
+        }
+
+        if (withDeletes) {
+            Set<String> sourceAliasSet = new HashSet<>();
+            sourceAliases.forEach(alias -> sourceAliasSet.add(key(alias)));
+            for (String alias : target.getAliases()) {
+                if (!sourceAliasSet.contains(key(alias))) {
+                    changes.add(new Change(
+                            ChangeType.DELETE,
+                            alias,
+                            target.getEntryType(alias),
+                            null,
+                            target.getCreationDate(alias),
+                            null));
+                }
+            }
+        }
+
+        return new KeystoreDiff(changes, unchanged, compared);
+    }
+
+    /**
+     * Apply the changes to the target keystore and save it once. The source
+     * entries that have not been decrypted by the diff are decrypted now.
+     *
+     * @param source the source keystore
+     * @param sourceEntryPassword password for the source keystore entries
+     * @param target the target keystore
+     * @param targetEntryPassword password for the new and updated target keystore entries
+     */
+    public void apply(Keystore source, char[] sourceEntryPassword, Keystore target, char[] targetEntryPassword) {
+        KeystoreTransaction transaction = target.begin();
+        for (Change change : changes) {
+            if (change.getType() == ChangeType.DELETE) {
+                transaction.deleteEntry(change.getAlias());
+            } else {
+                KeyStore.Entry sourceEntry = Objects.isNull(change.sourceEntry)
+                        ? source.getEntry(change.getAlias(), sourceEntryPassword)
+                        : change.sourceEntry;
+                transaction.setEntry(sourceEntry, change.getAlias(), targetEntryPassword);
+            }
+        }
+        transaction.commit();
+    }
+
+    /**
+     * Get the changes.
+     *
+     * @return the changes in alias order, the deletes come last
+     */
+    public List<Change> getChanges() {
+        return Collections.unmodifiableList(changes);
+    }
+
+    /**
+     * Get the number of the entries that are the same in both keystores.
+     *
+     * @return number of the unchanged entries
+     */
+    public int getUnchanged() {
+        return unchanged;
+    }
+
+    /**
+     * Get the number of the entries whose key material has been decrypted and
+     * compared, the metadata of the other entries decided the result.
+     *
+     * @return number of the compared entries
+     */
+    public int getCompared() {
+        return compared;
+    }
+
+    /**
+     * Check whether the target keystore is up-to-date.
+     *
+     * @return true if there is nothing to change
+     */
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    /**
+     * Check whether an entry has been written to the target keystore after
+     * the source entry was created.
+     *
+     * @param targetCreationDate creation date of the target entry
+     * @param sourceCreationDate creation date of the source entry
+     * @return true if the target entry is newer, false if it is older or a date is unknown
+     */
+    private static boolean writtenAfter(Date targetCreationDate, Date sourceCreationDate) {
+        return Objects.nonNull(targetCreationDate)
+                && Objects.nonNull(sourceCreationDate)
+                && !targetCreationDate.before(sourceCreationDate);
+    }
+
+    /**
+     * Compare the key material of a source entry with the same entry of the
+     * target keystore.
+     *
+     * @param sourceEntry the source keystore entry
+     * @param target the target keystore
+     * @param alias alias for the target keystore entry
+     * @param targetEntryPassword password for the target keystore entry
+     * @param force whether a target entry that cannot be recovered is treated as different
+     * @return true if both entries have the same key material
+     * @throws KeystoreException if the target entry cannot be recovered and force is false
+     */
+    private static boolean sameKeyMaterial(KeyStore.Entry sourceEntry,
+                                           Keystore target,
+                                           String alias,
+                                           char[] targetEntryPassword,
+                                           boolean force) {
+        KeyStore.Entry targetEntry;
+        try {
+            targetEntry = target.getEntry(alias, targetEntryPassword);
+        } catch (KeystoreException e) {
+            if (force) {
+                return false;
+            }
+            throw new KeystoreException("the '" + alias + "' entry of the target keystore cannot be recovered with "
+                    + "the target entry password, use --force to overwrite it");
+        }
+        return MessageDigest.isEqual(digest(sourceEntry), digest(targetEntry));
+    }
+
+    private static String key(String alias) {
+        return alias.toLowerCase(Locale.ENGLISH);
+    }
+
+    /**
+     * Calculate the SHA-256 digest of the key material of an entry.
+     *
+     * @param entry the keystore entry
+     * @return the digest
+     */
+    static byte[] digest(KeyStore.Entry entry) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            if (entry instanceof KeyStore.SecretKeyEntry) {
+                SecretKey secretKey = ((KeyStore.SecretKeyEntry) entry).getSecretKey();
+                byte[] encoded = secretKey.getEncoded();
+                messageDigest.update(secretKey.getAlgorithm().getBytes(StandardCharsets.UTF_8));
+                messageDigest.update(encoded);
+                Arrays.fill(encoded, (byte) 0);
+            } else if (entry instanceof KeyStore.PrivateKeyEntry) {
+                KeyStore.PrivateKeyEntry privateKeyEntry = (KeyStore.PrivateKeyEntry) entry;
+                byte[] encoded = privateKeyEntry.getPrivateKey().getEncoded();
+                messageDigest.update(encoded);
+                Arrays.fill(encoded, (byte) 0);
+                for (Certificate certificate : privateKeyEntry.getCertificateChain()) {
+                    messageDigest.update(certificate.getEncoded());
+                }
+            } else if (entry instanceof KeyStore.TrustedCertificateEntry) {
+                messageDigest.update(((KeyStore.TrustedCertificateEntry) entry).getTrustedCertificate().getEncoded());
+            }
+            return messageDigest.digest();
+        } catch (NoSuchAlgorithmException | CertificateEncodingException e) {
+            throw new KeystoreException(e);
+        }
+    }
+
+    /**
+     * A modification of the target keystore.
+     */
+    public static class Change {
+
+        private final ChangeType type;
+        private final String alias;
+        private final EntryType entryType;
+        private final Date sourceCreationDate;
+        private final Date targetCreationDate;
+        private final KeyStore.Entry sourceEntry;
+
+        private Change(ChangeType type,
+                       String alias,
+                       EntryType entryType,
+                       Date sourceCreationDate,
+                       Date targetCreationDate,
+                       KeyStore.Entry sourceEntry) {
+            this.type = type;
+            this.alias = alias;
+            this.entryType = entryType;
+            this.sourceCreationDate = sourceCreationDate;
+            this.targetCreationDate = targetCreationDate;
+            this.sourceEntry = sourceEntry;
+        }
+
+        public ChangeType getType() {
+            return type;
+        }
+
+        public String getAlias() {
+            return alias;
+        }
+
+        public EntryType getEntryType() {
+            return entryType;
+        }
+
+        public Date getSourceCreationDate() {
+            return sourceCreationDate;
+        }
+
+        public Date getTargetCreationDate() {
+            return targetCreationDate;
+        }
+
+        @Override
+        public String toString() {
+            return type + " " + alias + " (" + entryType + ")"
+                    + (Objects.isNull(sourceCreationDate) ? "" : ", source created: " + sourceCreationDate.toInstant())
+                    + (Objects.isNull(targetCreationDate) ? "" : ", target created: " + targetCreationDate.toInstant());
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.remal.jceks.keystore;
+
+/**
+ * Unchecked exception for keystore errors.
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+public class KeystoreException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Initialize the exception with an error message.
+     *
+     * @param message the error message
+     */
+    public KeystoreException(String message) {
+        super(message);
+    }
+
+    /**
+     * Initialize the exception with the original cause.
+     *
+     * @param cause the original exception
+     */
+    public KeystoreException(Throwable cause) {
+        super(cause);
+    }
+}
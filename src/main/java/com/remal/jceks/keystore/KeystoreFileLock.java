@@ -0,0 +1,100 @@
+package com.remal.jceks.keystore;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Exclusive lock of a keystore file between the writers, in this process
+ * and in other processes.
+ *
+ * <p>The keystore file is replaced by every save, so the lock is held on a
+ * separate lock file next to the keystore, {@code <keystore>.lock}, with
+ * {@link FileChannel#lock()}. The lock is advisory: it coordinates the
+ * writers of this tool, other tools such as keytool ignore it. The lock file
+ * is left in place, removing it would let two writers lock two different
+ * files.</p>
+ *
+ * <p>A file lock is held by the whole Java process, so the threads of the
+ * process are serialized by an in-process lock of the same file first.</p>
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+final class KeystoreFileLock implements Closeable {
+
+    /**
+     * File name suffix of the lock files.
+     */
+    static final String SUFFIX = ".lock";
+
+    private static final Map<Path, ReentrantLock> PROCESS_LOCKS = new ConcurrentHashMap<>();
+
+    private final ReentrantLock processLock;
+    private final FileChannel channel;
+    private final FileLock fileLock;
+
+    private KeystoreFileLock(ReentrantLock processLock, FileChannel channel, FileLock fileLock) {
+        this.processLock = processLock;
+        this.channel = channel;
+        this.fileLock = fileLock;
+    }
+
+    /**
+     * Wait until the lock of a keystore file is acquired.
+     *
+     * @param keyStoreFile the keystore file
+     * @return the lock, close it to release the lock
+     * @throws KeystoreException if the lock file cannot be opened or locked
+     */
+    static KeystoreFileLock acquire(Path keyStoreFile) {
+        Path file = keyStoreFile.toAbsolutePath().normalize();
+        ReentrantLock processLock = PROCESS_LOCKS.computeIfAbsent(file, key -> new ReentrantLock());
+        processLock.lock();
+
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(
+                    file.resolveSibling(file.getFileName() + SUFFIX),
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE);
+            return new KeystoreFileLock(processLock, channel, channel.lock());
+        } catch (IOException e) {
+            closeQuietly(channel);
+            processLock.unlock();
+            throw new KeystoreException(e);
+        }
+    }
+
+    /**
+     * Release the lock.
+     */
+    @Override
+    public void close() {
+        try {
+            fileLock.release();
+        } catch (IOException e) {
+            // the lock is released when the channel is closed
+        } finally {
+            closeQuietly(channel);
+            processLock.unlock();
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // nothing to do
+            }
+        }
+    }
+}
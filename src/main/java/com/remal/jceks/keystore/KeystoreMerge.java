@@ -0,0 +1,307 @@
+package com.remal.jceks.keystore;
+
+import com.remal.jceks.util.Constants;
+import com.remal.jceks.util.VirtualThreads;
+
+import java.io.PrintStream;
+import java.security.KeyStore;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
+/**
+ * Merges the entries of many source keystores into one target keystore.
+ *
+ * <p>The merge is a pipeline. Every source keystore is loaded by its own
+ * producer thread, that decrypts the entries and puts them into a bounded
+ * queue. The writer stage, running on the calling thread, loads the target
+ * keystore meanwhile, takes the entries from the queue, resolves the alias
+ * conflicts and saves the target keystore once, when every source has been
+ * read. The loading of the keystores and the decryption of the entries
+ * overlap, so the time of the merge is bounded by the slowest source, not by
+ * the sum of them. If a source cannot be read then the merge stops and the
+ * target keystore is not changed.</p>
+ *
+ * <p>The conflicts are resolved independently of the order the entries
+ * arrive in: the sources are ranked in the order they have been given, see
+ * {@link ConflictPolicy}. The aliases are compared case-insensitively, like
+ * the keystores of the JDK store them, so {@code Foo} and {@code foo} are the
+ * same entry.</p>
+ *
+ * <p>The merged entries are protected for the target keystore only when the
+ * transaction is committed, after every source has been read: the winner of a
+ * conflict is not known until the sources of the other ranks have finished,
+ * and a commit applies the entries to the latest version of the target file,
+ * see {@link FileKeystore}. So the protection and the save of the target do
+ * not overlap the reading of the sources, and the decrypted entries are held
+ * in the memory until the commit.</p>
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+public class KeystoreMerge {
+
+    private static final int QUEUE_CAPACITY = 64;
+
+    /**
+     * How an entry is merged if its alias already exists in the target
+     * keystore or in another source keystore.
+     */
+    public enum ConflictPolicy {
+
+        /**
+         * Keep the existing target entry. Between two sources the first one wins.
+         */
+        SKIP,
+
+        /**
+         * Replace the target entry. Between two sources the last one wins.
+         */
+        OVERWRITE,
+
+        /**
+         * Keep the existing entry and add the new one with the alias prefix
+         * of its source. Between two sources the first one keeps the alias.
+         */
+        RENAME
+    }
+
+    private final PrintStream logWriter;
+    private final ConflictPolicy conflictPolicy;
+
+    /**
+     * Initialize the merge.
+     *
+     * @param logWriter log writer stream
+     * @param conflictPolicy how the alias conflicts are resolved
+     */
+    public KeystoreMerge(PrintStream logWriter, ConflictPolicy conflictPolicy) {
+        this.logWriter = logWriter;
+        this.conflictPolicy = conflictPolicy;
+    }
+
+    /**
+     * Merge the source keystores into the target keystore and save the target keystore once.
+     *
+     * @param sources the source keystores in the order of their rank
+     * @param targetLoader loads the target keystore, it is called while the sources are being read
+     * @param targetEntryPassword password for the merged target keystore entries
+     * @return number of the entries written to the target keystore
+     * @throws KeystoreException if a keystore cannot be loaded or an entry cannot be merged
+     */
+    public int merge(List<Source> sources, Supplier<Keystore> targetLoader, char[] targetEntryPassword) {
+        BlockingQueue<Item> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        ExecutorService executor = VirtualThreads.newExecutor(sources.size());
+        try {
+            for (int rank = 0; rank < sources.size(); rank++) {
+                Source source = sources.get(rank);
+                int sourceRank = rank;
+                executor.execute(() -> produce(source, sourceRank, queue));
+            }
+
+            Keystore target = targetLoader.get();
+            Map<String, Item> merged = consume(sources, target, queue);
+
+            KeystoreTransaction transaction = target.begin();
+            merged.values().forEach(item -> transaction.setEntry(item.entry, item.alias, targetEntryPassword));
+            transaction.commit();
+            return merged.size();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Producer stage: load a source keystore and queue its decrypted entries.
+     * The last item of a source is its end mark or the error that stopped it.
+     */
+    private void produce(Source source, int rank, BlockingQueue<Item> queue) {
+        try {
+            try {
+                Keystore keystore = Keystore.open(
+                        logWriter, source.keyStoreLocation, source.keyStorePassword, source.type);
+                for (String alias : keystore.getAliases()) {
+                    queue.put(new Item(rank, alias, keystore.getEntry(alias, source.entryPassword), null));
+                }
+                queue.put(new Item(rank, null, null, null));
+            } catch (RuntimeException e) {
+                queue.put(new Item(rank, null, null, e));
+            }
+        } catch (InterruptedException e) {
+            // the merge has been stopped
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writer stage: take the entries until every source has finished and
+     * resolve the alias conflicts.
+     *
+     * @return the entries to write with their target aliases, by lowercase target alias
+     */
+    private Map<String, Item> consume(List<Source> sources, Keystore target, BlockingQueue<Item> queue) {
+        Set<String> targetAliases = new HashSet<>();
+        target.getAliases().forEach(alias -> targetAliases.add(key(alias)));
+        Map<String, Item> merged = new TreeMap<>();
+        int running = sources.size();
+        while (running > 0) {
+            Item item = take(queue);
+            if (Objects.nonNull(item.error)) {
+                throw new KeystoreException(
+                        "cannot read the source keystore '" + sources.get(item.rank).keyStoreLocation
+                                + "': " + item.error.getMessage());
+            } else if (Objects.isNull(item.alias)) {
+                running--;
+            } else {
+                resolve(sources, targetAliases, merged, item);
+            }
+        }
+        return merged;
+    }
+
+    private void resolve(List<Source> sources, Set<String> targetAliases, Map<String, Item> merged, Item item) {
+        String alias = item.alias;
+        String key = key(alias);
+        Item other = merged.get(key);
+        boolean inTarget = targetAliases.contains(key);
+        if (Objects.isNull(other) && !inTarget) {
+            merged.put(key, item);
+            return;
+        }
+
+        switch (conflictPolicy) {
+            case SKIP:
+                if (Objects.nonNull(other) && item.rank < other.rank) {
+                    merged.put(key, item);
+                    skipped(sources, other, other.alias);
+                } else {
+                    skipped(sources, item, alias);
+                }
+                break;
+
+            case OVERWRITE:
+                if (Objects.isNull(other) || item.rank > other.rank) {
+                    merged.put(key, item);
+                }
+                if (inTarget && Objects.isNull(other)) {
+                    logWriter.printf(
+                            Constants.INFO_MESSAGE,
+                            "overwriting '" + alias + "' with the entry of '"
+                                    + sources.get(item.rank).keyStoreLocation + "'");
+                }
+                break;
+
+            default:
+                Item renamed = item;
+                if (Objects.nonNull(other) && item.rank < other.rank) {
+                    merged.put(key, item);
+                    renamed = other;
+                }
+                rename(sources, targetAliases, merged, renamed);
+                break;
+        }
+    }
+
+    private void rename(List<Source> sources, Set<String> targetAliases, Map<String, Item> merged, Item item) {
+        String alias = item.alias;
+        String newAlias = sources.get(item.rank).aliasPrefix + alias;
+        String newKey = key(newAlias);
+        if (targetAliases.contains(newKey) || merged.containsKey(newKey)) {
+            throw new KeystoreException(
+                    "cannot rename the entry '" + alias + "' of '" + sources.get(item.rank).keyStoreLocation
+                            + "', the alias '" + newAlias + "' is already used");
+        }
+
+        merged.put(newKey, item.withAlias(newAlias));
+        logWriter.printf(
+                Constants.INFO_MESSAGE,
+                "renamed '" + alias + "' of '" + sources.get(item.rank).keyStoreLocation + "' to '" + newAlias + "'");
+    }
+
+    private void skipped(List<Source> sources, Item item, String alias) {
+        logWriter.printf(
+                Constants.INFO_MESSAGE,
+                "skipped '" + alias + "' of '" + sources.get(item.rank).keyStoreLocation + "', the alias is used");
+    }
+
+    /**
+     * Get the key of an alias, the aliases are compared case-insensitively.
+     */
+    private static String key(String alias) {
+        return alias.toLowerCase(Locale.ENGLISH);
+    }
+
+    private static Item take(BlockingQueue<Item> queue) {
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KeystoreException(e);
+        }
+    }
+
+    /**
+     * A source keystore of the merge.
+     */
+    public static class Source {
+
+        private final String keyStoreLocation;
+        private final char[] keyStorePassword;
+        private final KeystoreType type;
+        private final char[] entryPassword;
+        private final String aliasPrefix;
+
+        /**
+         * Describe a source keystore.
+         *
+         * @param keyStoreLocation keystore location
+         * @param keyStorePassword keystore password
+         * @param type format of the keystore file or null to detect it from the content of the file
+         * @param entryPassword password for the keystore entries
+         * @param aliasPrefix prefix of the renamed aliases, see {@link ConflictPolicy#RENAME}
+         */
+        public Source(String keyStoreLocation,
+                      char[] keyStorePassword,
+                      KeystoreType type,
+                      char[] entryPassword,
+                      String aliasPrefix) {
+            this.keyStoreLocation = keyStoreLocation;
+            this.keyStorePassword = keyStorePassword;
+            this.type = type;
+            this.entryPassword = entryPassword;
+            this.aliasPrefix = aliasPrefix;
+        }
+    }
+
+    /**
+     * A decrypted source entry, the end mark of a source if the alias is
+     * null, or the error of a source.
+     */
+    private static class Item {
+
+        private final int rank;
+        private final String alias;
+        private final KeyStore.Entry entry;
+        private final RuntimeException error;
+
+        private Item(int rank, String alias, KeyStore.Entry entry, RuntimeException error) {
+            this.rank = rank;
+            this.alias = alias;
+            this.entry = entry;
+            this.error = error;
+        }
+
+        private Item withAlias(String newAlias) {
+            return new Item(rank, newAlias, entry, null);
+        }
+    }
+}
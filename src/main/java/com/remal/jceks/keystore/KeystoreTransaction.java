@@ -0,0 +1,113 @@
+package com.remal.jceks.keystore;
+
+import java.security.KeyStore;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A set of keystore modifications that are saved together.
+ *
+ * <p>Operations are only staged in the memory until {@link #commit()} is called.
+ * The commit applies them to the keystore and saves the keystore file once,
+ * atomically. A transaction can be committed or rolled back only once.</p>
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+public class KeystoreTransaction {
+
+    private final FileKeystore keystore;
+    private final List<Operation> operations = new ArrayList<>();
+    private boolean finished;
+
+    /**
+     * Initialize a new transaction. Use {@link FileKeystore#begin()} to start a transaction.
+     *
+     * @param keystore the keystore that the transaction belongs to
+     */
+    KeystoreTransaction(FileKeystore keystore) {
+        this.keystore = keystore;
+    }
+
+    /**
+     * Stage adding a keystore entry.
+     * If the entry with the given alias name is exist then it will be overwritten.
+     *
+     * @param entryToAdd keystore entry to add
+     * @param entryAlias alias for the keystore entry
+     * @param entryPassword password for the keystore entry
+     * @return this transaction
+     */
+    public KeystoreTransaction setEntry(KeyStore.Entry entryToAdd, String entryAlias, char[] entryPassword) {
+        checkNotFinished();
+        operations.add(keyStore -> keystore.setEntry(keyStore, entryToAdd, entryAlias, entryPassword));
+        return this;
+    }
+
+    /**
+     * Stage removing a keystore entry.
+     *
+     * @param entryAlias alias for the keystore entry
+     * @return this transaction
+     */
+    public KeystoreTransaction deleteEntry(String entryAlias) {
+        checkNotFinished();
+        operations.add(keyStore -> keystore.deleteEntry(keyStore, entryAlias));
+        return this;
+    }
+
+    /**
+     * Number of the staged operations.
+     *
+     * @return number of the operations
+     */
+    public int size() {
+        return operations.size();
+    }
+
+    /**
+     * Apply the staged operations and save the keystore once.
+     * Nothing is written if no operation was staged.
+     */
+    public void commit() {
+        checkNotFinished();
+        finished = true;
+
+        if (operations.isEmpty()) {
+            return;
+        }
+
+        keystore.write(keyStore -> operations.forEach(operation -> operation.apply(keyStore)));
+        operations.clear();
+    }
+
+    /**
+     * Discard the staged operations.
+     */
+    public void rollback() {
+        checkNotFinished();
+        finished = true;
+        operations.clear();
+    }
+
+    private void checkNotFinished() {
+        if (finished) {
+            throw new IllegalStateException("the transaction has already been finished");
+        }
+    }
+
+    /**
+     * A staged keystore modification.
+     */
+    @FunctionalInterface
+    private interface Operation {
+
+        /**
+         * Apply the modification to a copy of the keystore.
+         *
+         * @param keyStore the copy of the keystore
+         */
+        void apply(KeyStore keyStore);
+    }
+}
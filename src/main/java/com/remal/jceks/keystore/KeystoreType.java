@@ -0,0 +1,135 @@
+package com.remal.jceks.keystore;
+
+import java.nio.ByteBuffer;
+import java.security.KeyStore;
+import java.security.KeyStoreException;
+import java.security.Provider;
+import java.security.Security;
+import java.util.Objects;
+
+/**
+ * Supported keystore file formats.
+ *
+ * <p>The formats are read and written with the {@link KeyStore} implementations
+ * of the installed security providers. A format that is not supported by the
+ * JDK can name a provider class, which is registered on first use if it is on
+ * the classpath.</p>
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+public enum KeystoreType {
+
+    /**
+     * Java Cryptography Extension KeyStore, the default format of the tool.
+     */
+    JCEKS("jceks", false, null),
+
+    /**
+     * PKCS #12, the default keystore format of Java 9 and later.
+     */
+    PKCS12("pkcs12", true, null),
+
+    /**
+     * The legacy Java KeyStore format, it cannot hold secret keys.
+     */
+    JKS("jks", false, null),
+
+    /**
+     * BouncyCastle FIPS keystore, needs the BouncyCastle FIPS provider on the classpath.
+     */
+    BCFKS("bcfks", true, "org.bouncycastle.jcajce.provider.BouncyCastleFipsProvider");
+
+    private static final int JCEKS_MAGIC = 0xcececece;
+    private static final int JKS_MAGIC = 0xfeedfeed;
+    private static final byte DER_SEQUENCE = 0x30;
+
+    private final String algorithm;
+    private final boolean entryProtection;
+    private final String providerClassName;
+
+    KeystoreType(String algorithm, boolean entryProtection, String providerClassName) {
+        this.algorithm = algorithm;
+        this.entryProtection = entryProtection;
+        this.providerClassName = providerClassName;
+    }
+
+    /**
+     * Get the name of the keystore type used by the security providers.
+     *
+     * @return the keystore type name
+     */
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * Check whether the protection algorithm and the iteration count can be
+     * set per entry. JCEKS and JKS protect every entry with a fixed algorithm.
+     *
+     * @return true if custom {@link EntryProtection} is supported
+     */
+    public boolean supportsEntryProtection() {
+        return entryProtection;
+    }
+
+    /**
+     * Create an empty, not yet loaded keystore of this type.
+     *
+     * @return the keystore
+     * @throws KeystoreException if no installed provider supports this type
+     */
+    public KeyStore newKeyStore() {
+        try {
+            return KeyStore.getInstance(algorithm);
+        } catch (KeyStoreException e) {
+            if (Objects.nonNull(providerClassName) && registerProvider()) {
+                return newKeyStore();
+            }
+            throw new KeystoreException("the " + name() + " keystore type is not supported by the installed "
+                    + "security providers" + (Objects.isNull(providerClassName)
+                            ? ""
+                            : ", add " + providerClassName + " to the classpath"));
+        }
+    }
+
+    /**
+     * Detect the format of a keystore file from its first bytes.
+     * BCFKS and PKCS12 files are both DER encoded and cannot be told apart,
+     * so a DER encoded file is reported as PKCS12.
+     *
+     * @param content content of the keystore file
+     * @return the detected keystore type
+     * @throws KeystoreException if the format is unknown
+     */
+    public static KeystoreType detect(ByteBuffer content) {
+        if (content.remaining() >= Integer.BYTES) {
+            int magic = content.getInt(content.position());
+            if (magic == JCEKS_MAGIC) {
+                return JCEKS;
+            }
+            if (magic == JKS_MAGIC) {
+                return JKS;
+            }
+            if (content.get(content.position()) == DER_SEQUENCE) {
+                return PKCS12;
+            }
+        }
+        throw new KeystoreException("unrecognized keystore format");
+    }
+
+    /**
+     * Register the security provider of this type, if it is on the classpath.
+     *
+     * @return true if the provider has been registered
+     */
+    private boolean registerProvider() {
+        try {
+            Provider provider = (Provider) Class.forName(providerClassName).getDeclaredConstructor().newInstance();
+            return Security.addProvider(provider) != -1;
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.remal.jceks.keystore;
+
+import com.remal.jceks.util.Constants;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reloads the keystores when their files are changed by another process,
+ * e.g. by keytool.
+ *
+ * <p>The directories of the registered keystores are watched with a
+ * {@link WatchService}. The changed keystores are reloaded on the background
+ * thread of the watcher, see {@link Keystore#reload()}, so the readers keep
+ * using the previous version until the new one is swapped in. The reload
+ * starts when no change has been reported for a short quiet period. A file
+ * that still cannot be loaded, e.g. because it is being written, is reloaded
+ * again at its next change.</p>
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+public class KeystoreWatcher implements Closeable {
+
+    private static final long QUIET_PERIOD_MILLIS = 200;
+
+    private final PrintStream logWriter;
+    private final WatchService watchService;
+    private final Map<Path, List<Keystore>> keystores = new ConcurrentHashMap<>();
+    private final Map<Path, WatchKey> directories = new ConcurrentHashMap<>();
+
+    /**
+     * Initialize the watcher and start its background thread.
+     *
+     * @param logWriter log writer stream
+     * @throws IOException if the watch service cannot be created
+     */
+    public KeystoreWatcher(PrintStream logWriter) throws IOException {
+        this.logWriter = logWriter;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        Thread thread = new Thread(this::run, "keystore-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Reload a keystore whenever its file changes.
+     *
+     * @param keystore the keystore to watch
+     * @throws KeystoreException if the directory of the keystore cannot be watched
+     */
+    public void register(Keystore keystore) {
+        Path file = Paths.get(keystore.getKeyStoreLocation()).toAbsolutePath().normalize();
+        Path directory = file.getParent();
+        directories.computeIfAbsent(directory, this::watch);
+        keystores.computeIfAbsent(file, key -> new CopyOnWriteArrayList<>()).add(keystore);
+    }
+
+    /**
+     * Stop watching the keystores.
+     */
+    @Override
+    public void close() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            logWriter.printf(Constants.ERROR_MESSAGE, e);
+        }
+    }
+
+    private WatchKey watch(Path directory) {
+        try {
+            // keytool and the atomic saves replace the file, that is a create event
+            return directory.register(
+                    watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            throw new KeystoreException(e);
+        }
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                // a file is usually written in more steps, wait until the events stop
+                Set<Keystore> changed = new LinkedHashSet<>();
+                WatchKey key = watchService.take();
+                while (Objects.nonNull(key)) {
+                    collect(key, changed);
+                    key = watchService.poll(QUIET_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                changed.forEach(this::reload);
+            }
+        } catch (ClosedWatchServiceException e) {
+            // the watcher has been closed
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void collect(WatchKey key, Set<Keystore> changed) {
+        Path directory = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                keystores.forEach((file, watched) -> {
+                    if (file.getParent().equals(directory)) {
+                        changed.addAll(watched);
+                    }
+                });
+            } else {
+                List<Keystore> watched = keystores.get(directory.resolve((Path) event.context()));
+                if (Objects.nonNull(watched)) {
+                    changed.addAll(watched);
+                }
+            }
+        }
+        key.reset();
+    }
+
+    private void reload(Keystore keystore) {
+        try {
+            if (keystore.reload()) {
+                logWriter.printf(
+                        Constants.INFO_MESSAGE,
+                        "the keystore has been reloaded: '" + keystore.getKeyStoreLocation() + "'");
+            }
+        } catch (KeystoreException e) {
+            logWriter.printf(
+                    Constants.ERROR_MESSAGE,
+                    "cannot reload the keystore '" + keystore.getKeyStoreLocation() + "': " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.remal.jceks.keystore;
+
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read path of the keystore files.
+ *
+ * <p>Large files are memory-mapped with {@link FileChannel#map}, so they are
+ * parsed from the page cache without copying them to the heap first. A
+ * mapping is shared by the repeated opens of the same file in the process as
+ * long as the modification time, the size and the identity of the file do
+ * not change. Small files are simply read into the heap, mapping them costs
+ * more than reading them.</p>
+ *
+ * <p>Memory-mapping can be switched off with the {@code -Djceks.mmap=false}
+ * system property, e.g. on Windows where a mapped file cannot be replaced
+ * until the mapping is garbage collected.</p>
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+public final class MappedFiles {
+
+    /**
+     * Files smaller than this are read into the heap instead of mapping them.
+     */
+    private static final long MAPPING_THRESHOLD = 1024 * 1024;
+
+    private static final boolean MAPPING_ENABLED = Boolean.parseBoolean(System.getProperty("jceks.mmap", "true"));
+
+    private static final Map<Path, SoftReference<Mapping>> MAPPINGS = new ConcurrentHashMap<>();
+
+    /**
+     * Get the content of a file.
+     *
+     * @param file the file to read
+     * @return a read-only buffer with the content of the file, positioned to the beginning of the file
+     * @throws IOException in case of an I/O error
+     */
+    public static ByteBuffer read(Path file) throws IOException {
+        Path key = file.toAbsolutePath().normalize();
+        FileStamp fileStamp = FileStamp.of(key);
+
+        SoftReference<Mapping> reference = MAPPINGS.get(key);
+        Mapping mapping = Objects.isNull(reference) ? null : reference.get();
+        if (Objects.nonNull(mapping) && mapping.fileStamp.equals(fileStamp)) {
+            return mapping.buffer.asReadOnlyBuffer();
+        }
+
+        if (!MAPPING_ENABLED || fileStamp.getSize() < MAPPING_THRESHOLD) {
+            MAPPINGS.remove(key);
+            return ByteBuffer.wrap(Files.readAllBytes(key)).asReadOnlyBuffer();
+        }
+
+        try (FileChannel channel = FileChannel.open(key, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            MAPPINGS.put(key, new SoftReference<>(new Mapping(fileStamp, buffer)));
+            return buffer.asReadOnlyBuffer();
+        }
+    }
+
+    /**
+     * Calculate the SHA-256 digest of a file content, e.g. to check later
+     * whether the file still has the same content.
+     *
+     * @param content content of the file, its position is not changed
+     * @return the digest
+     */
+    public static byte[] digest(ByteBuffer content) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            messageDigest.update(content.duplicate());
+            return messageDigest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new KeystoreException(e);
+        }
+    }
+
+    /**
+     * Forget the shared mapping of a file, e.g. after the file has been written.
+     *
+     * @param file the file
+     */
+    public static void release(Path file) {
+        MAPPINGS.remove(file.toAbsolutePath().normalize());
+    }
+
+    /**
+     * A mapped file together with the stamp of the file at mapping time.
+     */
+    private static class Mapping {
+        private final FileStamp fileStamp;
+        private final MappedByteBuffer buffer;
+
+        Mapping(FileStamp fileStamp, MappedByteBuffer buffer) {
+            this.fileStamp = fileStamp;
+            this.buffer = buffer;
+        }
+    }
+
+    /**
+     * Utility classes should not have a public or default constructor.
+     */
+    private MappedFiles() {
+    }
+}
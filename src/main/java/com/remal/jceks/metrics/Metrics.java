@@ -0,0 +1,140 @@
+package com.remal.jceks.metrics;
+
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Process-wide timings and counters of the keystore operations.
+ *
+ * <p>Each {@link Phase} records the number of the operations, their total and
+ * maximum duration and the number of bytes read or written. Recording is
+ * lock-free, so it can be used on the hot paths and from many threads.</p>
+ *
+ * <p>Usage:</p>
+ * <pre>
+ *     long start = Metrics.start();
+ *     ...
+ *     Metrics.record(Phase.KEYSTORE_LOAD, start, bytes);
+ * </pre>
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+public final class Metrics {
+
+    private static final Map<Phase, Counters> COUNTERS = new EnumMap<>(Phase.class);
+
+    static {
+        for (Phase phase : Phase.values()) {
+            COUNTERS.put(phase, new Counters());
+        }
+    }
+
+    /**
+     * Get the start time of a measurement.
+     *
+     * @return the current value of the high-resolution time source in nanoseconds
+     */
+    public static long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Record a finished operation.
+     *
+     * @param phase the phase of the operation
+     * @param startNanos start time of the operation, returned by {@link #start()}
+     * @param bytes number of the bytes read or written, 0 if not applicable
+     */
+    public static void record(Phase phase, long startNanos, long bytes) {
+        long duration = System.nanoTime() - startNanos;
+        Counters counters = COUNTERS.get(phase);
+        counters.count.increment();
+        counters.totalNanos.add(duration);
+        counters.maxNanos.accumulate(duration);
+        counters.bytes.add(bytes);
+    }
+
+    /**
+     * Print a human-readable summary of the phases that have been used.
+     *
+     * @param out the output stream
+     */
+    public static void printSummary(PrintStream out) {
+        out.printf("%n%-20s %10s %12s %12s %14s%n", "PHASE", "COUNT", "TOTAL (ms)", "MAX (ms)", "BYTES");
+        COUNTERS.forEach((phase, counters) -> {
+            long count = counters.count.sum();
+            if (count > 0) {
+                out.printf(
+                        Locale.ENGLISH,
+                        "%-20s %10d %12.3f %12.3f %14d%n",
+                        phase.getLabel(),
+                        count,
+                        toMillis(counters.totalNanos.sum()),
+                        toMillis(counters.maxNanos.get()),
+                        counters.bytes.sum());
+            }
+        });
+    }
+
+    /**
+     * Write every metric in the Prometheus text exposition format.
+     *
+     * @param out the output writer
+     */
+    public static void writePrometheus(PrintWriter out) {
+        writeMetric(out, "jceks_operations_total", "counter", "Number of the finished operations.",
+                counters -> Long.toString(counters.count.sum()));
+        writeMetric(out, "jceks_operation_seconds_total", "counter", "Total duration of the operations.",
+                counters -> toSeconds(counters.totalNanos.sum()));
+        writeMetric(out, "jceks_operation_seconds_max", "gauge", "Duration of the slowest operation.",
+                counters -> toSeconds(counters.maxNanos.get()));
+        writeMetric(out, "jceks_bytes_total", "counter", "Number of the bytes read or written.",
+                counters -> Long.toString(counters.bytes.sum()));
+        out.flush();
+    }
+
+    private static void writeMetric(PrintWriter out,
+                                    String name,
+                                    String type,
+                                    String help,
+                                    Function<Counters, String> value) {
+        // the exposition format requires '\n' line endings on every platform
+        out.printf("# HELP %s %s\n", name, help);
+        out.printf("# TYPE %s %s\n", name, type);
+        COUNTERS.forEach((phase, counters) ->
+                out.printf("%s{phase=\"%s\"} %s\n", name, phase.getLabel(), value.apply(counters)));
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private static String toSeconds(long nanos) {
+        return String.format(Locale.ENGLISH, "%.9f", nanos / (double) TimeUnit.SECONDS.toNanos(1));
+    }
+
+    /**
+     * Counters of a phase.
+     */
+    private static class Counters {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder bytes = new LongAdder();
+    }
+
+    /**
+     * Utility classes should not have a public or default constructor.
+     */
+    private Metrics() {
+    }
+}
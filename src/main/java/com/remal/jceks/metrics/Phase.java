@@ -0,0 +1,57 @@
+package com.remal.jceks.metrics;
+
+import java.util.Locale;
+
+/**
+ * Measured phases of the keystore operations.
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+public enum Phase {
+
+    /**
+     * Reading a password file.
+     */
+    PASSWORD_FILE_READ,
+
+    /**
+     * Loading and verifying a keystore file.
+     */
+    KEYSTORE_LOAD,
+
+    /**
+     * Loading a changed keystore file again.
+     */
+    KEYSTORE_RELOAD,
+
+    /**
+     * Reading the index of a keystore file without decrypting it.
+     */
+    INDEX_READ,
+
+    /**
+     * Decrypting a keystore entry.
+     */
+    ENTRY_RECOVERY,
+
+    /**
+     * Getting a keystore entry from the entry cache.
+     */
+    ENTRY_CACHE_HIT,
+
+    /**
+     * Saving a keystore file.
+     */
+    KEYSTORE_STORE;
+
+    /**
+     * Get the name of the phase used in the metric labels.
+     *
+     * @return the name in lower case
+     */
+    public String getLabel() {
+        return name().toLowerCase(Locale.ENGLISH);
+    }
+}
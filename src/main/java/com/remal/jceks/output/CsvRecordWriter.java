@@ -0,0 +1,61 @@
+package com.remal.jceks.output;
+
+import java.io.PrintStream;
+
+/**
+ * Writes the records as comma-separated values (RFC 4180) with a header line.
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+public class CsvRecordWriter extends RecordWriter {
+
+    /**
+     * Initialize the writer.
+     *
+     * @param out the output stream
+     */
+    public CsvRecordWriter(PrintStream out) {
+        super(out);
+    }
+
+    @Override
+    public void begin() {
+        out.print("alias,value\r\n");
+    }
+
+    @Override
+    public void write(String alias, char[] value) {
+        quote(alias.toCharArray());
+        out.print(',');
+        quote(value);
+        out.print("\r\n");
+    }
+
+    /**
+     * Print a field, quoted if needed.
+     *
+     * @param value the field value
+     */
+    private void quote(char[] value) {
+        boolean needsQuotes = false;
+        for (char c : value) {
+            needsQuotes |= c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+
+        if (!needsQuotes) {
+            out.print(value);
+            return;
+        }
+
+        out.print('"');
+        for (char c : value) {
+            if (c == '"') {
+                out.print('"');
+            }
+            out.print(c);
+        }
+        out.print('"');
+    }
+}
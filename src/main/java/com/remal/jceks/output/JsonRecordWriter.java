@@ -0,0 +1,97 @@
+package com.remal.jceks.output;
+
+import java.io.PrintStream;
+import java.nio.CharBuffer;
+
+/**
+ * Writes the records as JSON objects, either in one JSON array or as JSON Lines.
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+public class JsonRecordWriter extends RecordWriter {
+
+    private final boolean jsonLines;
+    private boolean first = true;
+
+    /**
+     * Initialize the writer.
+     *
+     * @param out the output stream
+     * @param jsonLines true for JSON Lines, false for a JSON array
+     */
+    public JsonRecordWriter(PrintStream out, boolean jsonLines) {
+        super(out);
+        this.jsonLines = jsonLines;
+    }
+
+    @Override
+    public void begin() {
+        if (!jsonLines) {
+            out.print('[');
+        }
+    }
+
+    @Override
+    public void write(String alias, char[] value) {
+        if (!jsonLines) {
+            out.print(first ? "\n  " : ",\n  ");
+        }
+        first = false;
+
+        out.print("{\"alias\":");
+        quote(alias);
+        out.print(",\"value\":");
+        quote(CharBuffer.wrap(value));
+        out.print('}');
+
+        if (jsonLines) {
+            out.print('\n');
+        }
+    }
+
+    @Override
+    public void end() {
+        if (!jsonLines) {
+            out.print(first ? "]\n" : "\n]\n");
+        }
+        super.end();
+    }
+
+    /**
+     * Print a JSON string literal.
+     *
+     * @param value the string value
+     */
+    private void quote(CharSequence value) {
+        out.print('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.print("\\\"");
+                    break;
+                case '\\':
+                    out.print("\\\\");
+                    break;
+                case '\n':
+                    out.print("\\n");
+                    break;
+                case '\r':
+                    out.print("\\r");
+                    break;
+                case '\t':
+                    out.print("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.printf("\\u%04x", (int) c);
+                    } else {
+                        out.print(c);
+                    }
+            }
+        }
+        out.print('"');
+    }
+}
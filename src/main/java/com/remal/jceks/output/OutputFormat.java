@@ -0,0 +1,69 @@
+package com.remal.jceks.output;
+
+import java.io.PrintStream;
+
+/**
+ * Supported formats of the command results.
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+public enum OutputFormat {
+
+    /**
+     * Human-readable text, printed together with the log messages.
+     */
+    TEXT,
+
+    /**
+     * One JSON array of the records.
+     */
+    JSON,
+
+    /**
+     * JSON Lines, one JSON object per record.
+     */
+    JSONL,
+
+    /**
+     * Comma-separated values with a header line.
+     */
+    CSV,
+
+    /**
+     * Only the values, one per line.
+     */
+    RAW;
+
+    /**
+     * Whether the results are written separately from the log messages.
+     *
+     * @return true if this is a machine-readable format
+     */
+    public boolean isMachineReadable() {
+        return this != TEXT;
+    }
+
+    /**
+     * Create a writer that prints the records in this format.
+     *
+     * @param out the output stream
+     * @param showAlias whether the text format prints the alias names as well
+     * @return the record writer
+     */
+    public RecordWriter newWriter(PrintStream out, boolean showAlias) {
+        switch (this) {
+            case JSON:
+                return new JsonRecordWriter(out, false);
+            case JSONL:
+                return new JsonRecordWriter(out, true);
+            case CSV:
+                return new CsvRecordWriter(out);
+            case RAW:
+                return new RawRecordWriter(out);
+            default:
+                return new TextRecordWriter(out, showAlias);
+        }
+    }
+}
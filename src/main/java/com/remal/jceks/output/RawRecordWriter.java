@@ -0,0 +1,28 @@
+package com.remal.jceks.output;
+
+import java.io.PrintStream;
+
+/**
+ * Writes only the values of the records, one per line.
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+public class RawRecordWriter extends RecordWriter {
+
+    /**
+     * Initialize the writer.
+     *
+     * @param out the output stream
+     */
+    public RawRecordWriter(PrintStream out) {
+        super(out);
+    }
+
+    @Override
+    public void write(String alias, char[] value) {
+        out.print(value);
+        out.print('\n');
+    }
+}
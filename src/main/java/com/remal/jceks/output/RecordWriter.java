@@ -0,0 +1,51 @@
+package com.remal.jceks.output;
+
+import java.io.PrintStream;
+
+/**
+ * Writes the results of a command record by record, so the output can be
+ * processed while the command is still running.
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+public abstract class RecordWriter {
+
+    /**
+     * The output stream.
+     */
+    protected final PrintStream out;
+
+    /**
+     * Initialize the writer.
+     *
+     * @param out the output stream
+     */
+    protected RecordWriter(PrintStream out) {
+        this.out = out;
+    }
+
+    /**
+     * Write the beginning of the output, before the first record.
+     */
+    public void begin() {
+        // nothing to write by default
+    }
+
+    /**
+     * Write one record. The value is written as it is, without creating a
+     * {@code String} from it, so the caller can overwrite it afterwards.
+     *
+     * @param alias alias name of the keystore entry
+     * @param value value of the keystore entry
+     */
+    public abstract void write(String alias, char[] value);
+
+    /**
+     * Write the end of the output, after the last record, and flush the stream.
+     */
+    public void end() {
+        out.flush();
+    }
+}
@@ -0,0 +1,132 @@
+package com.remal.jceks.password;
+
+import com.remal.jceks.keystore.Keystore;
+import com.remal.jceks.keystore.KeystoreException;
+import com.remal.jceks.util.DevNullPrintStream;
+import com.remal.jceks.util.SecretBuffers;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyStore;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Password stored in a local, encrypted JCEKS credential file:
+ * {@code cred:<path-to-credential-file>#<alias>}.
+ *
+ * <p>The credentials are secret key entries whose key material is the
+ * password, as created by
+ * {@code keytool -importpass -storetype jceks -keystore <file> -alias <alias>}.
+ * The password of the credential file is taken from the
+ * {@value #STORE_PASSWORD_VARIABLE} environment variable and it is used as
+ * the password of the entries as well. A credential file is loaded only once,
+ * its password is overwritten when the source is closed.</p>
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+public class CredentialStorePasswordSource implements PasswordSource {
+
+    /**
+     * Environment variable that holds the password of the credential files.
+     */
+    public static final String STORE_PASSWORD_VARIABLE = "JCEKS_TOOL_CREDENTIAL_PASSWORD";
+
+    private static final String ALIAS_SEPARATOR = "#";
+
+    private final Map<String, CredentialStore> credentialStores = new ConcurrentHashMap<>();
+
+    @Override
+    public String getScheme() {
+        return "cred";
+    }
+
+    @Override
+    public char[] resolve(String location) {
+        int separator = location.lastIndexOf(ALIAS_SEPARATOR);
+        if (separator <= 0 || separator == location.length() - 1) {
+            throw new PasswordException("invalid credential reference, use 'cred:<path>#<alias>': '" + location + "'");
+        }
+        String path = location.substring(0, separator);
+        String alias = location.substring(separator + 1);
+
+        String storePassword = System.getenv(STORE_PASSWORD_VARIABLE);
+        if (Objects.isNull(storePassword)) {
+            throw new PasswordException("environment variable is not set: '" + STORE_PASSWORD_VARIABLE + "'");
+        }
+
+        try {
+            CredentialStore credentialStore = credentialStores.computeIfAbsent(
+                    path,
+                    p -> CredentialStore.open(p, storePassword));
+            KeyStore.Entry entry = credentialStore.keystore.getEntry(alias, credentialStore.password);
+            if (!(entry instanceof KeyStore.SecretKeyEntry)) {
+                throw new PasswordException("credential does not exist: '" + location + "'");
+            }
+            return decode(((KeyStore.SecretKeyEntry) entry).getSecretKey().getEncoded());
+        } catch (KeystoreException e) {
+            throw new PasswordException("cannot read the credential: '" + location + "'", e);
+        }
+    }
+
+    /**
+     * Overwrite the passwords of the loaded credential files and forget them.
+     */
+    @Override
+    public void close() {
+        credentialStores.values().forEach(credentialStore -> SecretBuffers.wipe(credentialStore.password));
+        credentialStores.clear();
+    }
+
+    /**
+     * Decode the key material of a credential and overwrite it.
+     *
+     * @param encoded the key material
+     * @return the password
+     */
+    private static char[] decode(byte[] encoded) {
+        CharBuffer chars = null;
+        try {
+            chars = StandardCharsets.UTF_8.newDecoder().decode(ByteBuffer.wrap(encoded));
+            return Arrays.copyOf(chars.array(), chars.limit());
+        } catch (CharacterCodingException e) {
+            throw new PasswordException("the credential is not a valid UTF-8 text", e);
+        } finally {
+            SecretBuffers.wipe(encoded);
+            if (Objects.nonNull(chars)) {
+                SecretBuffers.wipe(chars.array());
+            }
+        }
+    }
+
+    /**
+     * A loaded credential file with its password.
+     */
+    private static class CredentialStore {
+        private final Keystore keystore;
+        private final char[] password;
+
+        private CredentialStore(Keystore keystore, char[] password) {
+            this.keystore = keystore;
+            this.password = password;
+        }
+
+        static CredentialStore open(String path, String storePassword) {
+            char[] password = storePassword.toCharArray();
+            try {
+                return new CredentialStore(
+                        Keystore.open(DevNullPrintStream.getPrintStream(), path, password, null),
+                        password);
+            } catch (KeystoreException e) {
+                SecretBuffers.wipe(password);
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.remal.jceks.password;
+
+import java.util.Objects;
+
+/**
+ * Value of an environment variable: {@code env:<name>}.
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+public class EnvPasswordSource implements PasswordSource {
+
+    @Override
+    public String getScheme() {
+        return "env";
+    }
+
+    @Override
+    public char[] resolve(String location) {
+        String value = System.getenv(location);
+        if (Objects.isNull(value)) {
+            throw new PasswordException("environment variable is not set: '" + location + "'");
+        }
+        return value.toCharArray();
+    }
+}
@@ -0,0 +1,33 @@
+package com.remal.jceks.password;
+
+import com.remal.jceks.util.FileReader;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+
+/**
+ * First line of a text file: {@code file:<path>}.
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+public class FilePasswordSource implements PasswordSource {
+
+    @Override
+    public String getScheme() {
+        return "file";
+    }
+
+    @Override
+    public char[] resolve(String location) {
+        try {
+            return FileReader.firstLine(Paths.get(location));
+        } catch (NoSuchFileException e) {
+            throw new PasswordException("the password file does not exist: '" + location + "'", e);
+        } catch (IOException e) {
+            throw new PasswordException("cannot read the password file: '" + location + "'", e);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.remal.jceks.password;
+
+/**
+ * Password given in the reference itself: {@code pass:<password>}.
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+public class InlinePasswordSource implements PasswordSource {
+
+    @Override
+    public String getScheme() {
+        return "pass";
+    }
+
+    @Override
+    public char[] resolve(String location) {
+        return location.toCharArray();
+    }
+}
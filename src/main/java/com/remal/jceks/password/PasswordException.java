@@ -0,0 +1,32 @@
+package com.remal.jceks.password;
+
+/**
+ * Unchecked exception for the errors of resolving a password.
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+public class PasswordException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Initialize the exception with an error message.
+     *
+     * @param message the error message
+     */
+    public PasswordException(String message) {
+        super(message);
+    }
+
+    /**
+     * Initialize the exception with an error message and the original cause.
+     *
+     * @param message the error message
+     * @param cause the original exception
+     */
+    public PasswordException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
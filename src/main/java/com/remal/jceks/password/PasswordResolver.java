@@ -0,0 +1,174 @@
+package com.remal.jceks.password;
+
+import com.remal.jceks.util.Constants;
+import com.remal.jceks.util.PasswordDigest;
+import com.remal.jceks.util.SecretBuffers;
+
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Resolves the password references with the {@link PasswordSource}s and
+ * caches the results, so every credential is read only once during the
+ * lifetime of the resolver, e.g. one command or one batch.
+ *
+ * <p>A reference is {@code scheme:location}. The built-in schemes are
+ * {@code pass:}, {@code file:}, {@code env:}, {@code stdin:} and
+ * {@code cred:}. A reference without a known scheme is a path to a password
+ * file, so the existing password file options keep working.</p>
+ *
+ * <p>The passwords of the {@code stdin:} references are not cached, see
+ * {@link PasswordSource#isCacheable()}: every reference reads the next
+ * password, e.g. the source and then the target keystore password.</p>
+ *
+ * <p>The resolved passwords belong to the resolver: they must not be
+ * modified by the caller, and they are overwritten when the resolver is
+ * closed. The cache is keyed by the SHA-256 digest of the references, so an
+ * inline password is not kept in the cache as a {@code String}.</p>
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+public class PasswordResolver implements AutoCloseable {
+
+    /**
+     * Short description of the password references, used in the help messages.
+     */
+    public static final String REFERENCES = "env:<name>, stdin:, cred:<file>#<alias>";
+
+    private static final String SCHEME_SEPARATOR = ":";
+    private static final String INLINE_PREFIX = "pass" + SCHEME_SEPARATOR;
+    private static final String FILE_SCHEME = "file";
+
+    private final PrintStream logWriter;
+    private final Map<String, PasswordSource> sources = new LinkedHashMap<>();
+    private final Map<ByteBuffer, char[]> cache = new ConcurrentHashMap<>();
+    private final Queue<char[]> uncached = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Initialize the resolver with the built-in sources and the sources
+     * found on the classpath.
+     *
+     * @param logWriter log writer stream
+     */
+    public PasswordResolver(PrintStream logWriter) {
+        this.logWriter = logWriter;
+        register(new InlinePasswordSource());
+        register(new FilePasswordSource());
+        register(new EnvPasswordSource());
+        register(new StdinPasswordSource());
+        register(new CredentialStorePasswordSource());
+        for (PasswordSource source : ServiceLoader.load(PasswordSource.class)) {
+            if (sources.containsKey(source.getScheme())) {
+                logWriter.printf(
+                        Constants.INFO_MESSAGE,
+                        "ignoring password source " + source.getClass().getName()
+                                + ", the '" + source.getScheme() + "' scheme is already in use");
+            } else {
+                register(source);
+            }
+        }
+    }
+
+    /**
+     * Resolve the value of an exclusive password option group: either the
+     * password itself or a password reference is given.
+     *
+     * @param password the password given on the command line or null
+     * @param reference the password reference or null
+     * @return the password
+     * @throws PasswordException if the password cannot be read
+     */
+    public char[] resolve(String password, String reference) {
+        return Objects.isNull(password)
+                ? resolve(reference)
+                : cache.computeIfAbsent(cacheKey(INLINE_PREFIX, password), key -> password.toCharArray());
+    }
+
+    /**
+     * Resolve a password reference.
+     *
+     * @param reference the password reference, or a path to a password file
+     * @return the password
+     * @throws PasswordException if the password cannot be read
+     */
+    public char[] resolve(String reference) {
+        PasswordSource source = getSource(reference);
+        if (source.isCacheable()) {
+            return cache.computeIfAbsent(cacheKey("", reference), key -> read(source, reference));
+        }
+
+        char[] password = read(source, reference);
+        uncached.add(password);
+        return password;
+    }
+
+    /**
+     * Overwrite the resolved passwords and forget them.
+     */
+    @Override
+    public void close() {
+        cache.values().forEach(SecretBuffers::wipe);
+        cache.clear();
+        uncached.forEach(SecretBuffers::wipe);
+        uncached.clear();
+        sources.values().forEach(PasswordSource::close);
+    }
+
+    /**
+     * Get the cache key of a reference.
+     *
+     * @param prefix prefix of the reference
+     * @param reference the reference
+     * @return the digest of the prefixed reference
+     */
+    private static ByteBuffer cacheKey(String prefix, String reference) {
+        char[] chars = new char[prefix.length() + reference.length()];
+        prefix.getChars(0, prefix.length(), chars, 0);
+        reference.getChars(0, reference.length(), chars, prefix.length());
+        try {
+            return ByteBuffer.wrap(PasswordDigest.digest(chars));
+        } finally {
+            SecretBuffers.wipe(chars);
+        }
+    }
+
+    /**
+     * Get the source of a reference.
+     *
+     * @param reference the password reference
+     * @return the source of the scheme, or the file source if the reference has no known scheme
+     */
+    private PasswordSource getSource(String reference) {
+        int separator = reference.indexOf(SCHEME_SEPARATOR);
+        PasswordSource source = separator < 0 ? null : sources.get(reference.substring(0, separator));
+        return Objects.isNull(source) ? sources.get(FILE_SCHEME) : source;
+    }
+
+    private char[] read(PasswordSource source, String reference) {
+        int separator = reference.indexOf(SCHEME_SEPARATOR);
+        boolean schemeless = separator < 0 || !source.getScheme().equals(reference.substring(0, separator));
+        if (schemeless) {
+            logWriter.printf(Constants.INFO_MESSAGE, "reading the '" + reference + "' file...");
+            return source.resolve(reference);
+        }
+
+        String location = reference.substring(separator + 1);
+        if (!(source instanceof InlinePasswordSource)) {
+            logWriter.printf(Constants.INFO_MESSAGE, "reading the password from '" + reference + "'...");
+        }
+        return source.resolve(location);
+    }
+
+    private void register(PasswordSource source) {
+        sources.put(source.getScheme(), source);
+    }
+}
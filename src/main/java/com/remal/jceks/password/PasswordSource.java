@@ -0,0 +1,52 @@
+package com.remal.jceks.password;
+
+/**
+ * Service provider interface of the password sources.
+ *
+ * <p>A password reference has the form {@code scheme:location}, the scheme
+ * selects the source and the location is passed to the source. Additional
+ * sources can be added to the classpath and registered in
+ * {@code META-INF/services/com.remal.jceks.password.PasswordSource}; they
+ * cannot replace the built-in schemes.</p>
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+public interface PasswordSource {
+
+    /**
+     * Get the scheme handled by this source, without the colon.
+     *
+     * @return the scheme, e.g. {@code env}
+     */
+    String getScheme();
+
+    /**
+     * Read a password. The result of a cacheable source is cached by the
+     * {@link PasswordResolver}, so the source is asked only once per location.
+     *
+     * @param location the part of the reference after the colon
+     * @return the password, the resolver overwrites it when it is closed
+     * @throws PasswordException if the password cannot be read
+     */
+    char[] resolve(String location);
+
+    /**
+     * Check whether the passwords of the source can be cached. A source that
+     * gives a different password for the same location every time, e.g. the
+     * next line of the standard input, is not cacheable.
+     *
+     * @return true if the resolver may cache the passwords of the source
+     */
+    default boolean isCacheable() {
+        return true;
+    }
+
+    /**
+     * Overwrite and forget the secrets kept by the source, e.g. the password
+     * of a cached credential file. Called when the resolver is closed.
+     */
+    default void close() {
+    }
+}
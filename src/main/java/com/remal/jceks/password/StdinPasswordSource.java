@@ -0,0 +1,94 @@
+package com.remal.jceks.password;
+
+import com.remal.jceks.util.SecretBuffers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Console;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Password typed on the console or read from the standard input:
+ * {@code stdin:} or {@code stdin:<prompt>}.
+ *
+ * <p>On a console the password is read without echo. Otherwise the next line
+ * of the standard input is read, so more passwords can be piped in, one per
+ * line, in the order they are needed. The passwords are not cached: every
+ * {@code stdin:} reference of a command reads a new password.</p>
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+public class StdinPasswordSource implements PasswordSource {
+
+    private static final String DEFAULT_PROMPT = "password";
+
+    @Override
+    public String getScheme() {
+        return "stdin";
+    }
+
+    @Override
+    public boolean isCacheable() {
+        return false;
+    }
+
+    @Override
+    public char[] resolve(String location) {
+        String prompt = location.isEmpty() ? DEFAULT_PROMPT : location;
+        Console console = System.console();
+        if (Objects.nonNull(console)) {
+            char[] password = console.readPassword("%s: ", prompt);
+            if (Objects.isNull(password)) {
+                throw new PasswordException("no password has been entered for '" + prompt + "'");
+            }
+            return password;
+        }
+
+        try {
+            return readLine(System.in);
+        } catch (IOException e) {
+            throw new PasswordException("cannot read the password from the standard input", e);
+        }
+    }
+
+    /**
+     * Read one line byte by byte, so nothing after the line is consumed.
+     *
+     * @param in the input stream
+     * @return the line without the line terminator
+     * @throws IOException in case of an I/O error or the end of the stream
+     */
+    private static char[] readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b = in.read();
+        if (b < 0) {
+            throw new IOException("end of the standard input");
+        }
+
+        while (b >= 0 && b != '\n') {
+            if (b != '\r') {
+                line.write(b);
+            }
+            b = in.read();
+        }
+
+        byte[] bytes = line.toByteArray();
+        CharBuffer chars = null;
+        try {
+            chars = StandardCharsets.UTF_8.newDecoder().decode(ByteBuffer.wrap(bytes));
+            return Arrays.copyOf(chars.array(), chars.limit());
+        } finally {
+            SecretBuffers.wipe(bytes);
+            if (Objects.nonNull(chars)) {
+                SecretBuffers.wipe(chars.array());
+            }
+        }
+    }
+}
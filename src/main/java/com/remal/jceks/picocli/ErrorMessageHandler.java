@@ -0,0 +1,40 @@
+package com.remal.jceks.picocli;
+
+import com.remal.jceks.keystore.KeystoreException;
+import com.remal.jceks.password.PasswordException;
+import com.remal.jceks.util.Constants;
+import picocli.CommandLine;
+import picocli.CommandLine.IExecutionExceptionHandler;
+import picocli.CommandLine.ParseResult;
+
+/**
+ * Prints the errors thrown while executing a command as a colored error
+ * message instead of a stack trace.
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+public class ErrorMessageHandler implements IExecutionExceptionHandler {
+
+    /**
+     * Handles an exception thrown by the business logic of the command.
+     *
+     * @param ex the exception thrown by the command
+     * @param commandLine the command line that was executed
+     * @param parseResult the result of parsing the command line arguments
+     * @return exit code
+     */
+    @Override
+    public int handleExecutionException(Exception ex, CommandLine commandLine, ParseResult parseResult) {
+        Object message = ex;
+        if (ex instanceof KeystoreException) {
+            message = ex.getMessage();
+        } else if (ex instanceof PasswordException) {
+            message = ex.getMessage() + (ex.getCause() == null ? "" : ", " + ex.getCause());
+        }
+        commandLine.getErr().printf(Constants.ERROR_MESSAGE, message);
+        commandLine.getErr().flush();
+        return CommandLine.ExitCode.SOFTWARE;
+    }
+}
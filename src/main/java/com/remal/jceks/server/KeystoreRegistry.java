@@ -0,0 +1,126 @@
+package com.remal.jceks.server;
+
+import com.remal.jceks.keystore.EntryCache;
+import com.remal.jceks.keystore.Keystore;
+import com.remal.jceks.keystore.KeystoreException;
+import com.remal.jceks.keystore.KeystoreWatcher;
+import com.remal.jceks.util.DevNullPrintStream;
+import com.remal.jceks.util.PasswordDigest;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Keeps the keystores opened by the server in the memory, so every keystore
+ * file is loaded only once.
+ *
+ * <p>A keystore is loaded by the first request that needs it, outside of any
+ * lock of the registry: the concurrent requests of the same keystore wait for
+ * that load, the requests of the other keystores are not blocked. A failed
+ * load is not kept, the next request tries again.</p>
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+public class KeystoreRegistry {
+
+    private final Map<Path, Future<OpenKeystore>> keystores = new ConcurrentHashMap<>();
+    private final EntryCache entryCache;
+    private final KeystoreWatcher keystoreWatcher;
+
+    /**
+     * Initialize the registry.
+     *
+     * @param entryCache cache of the recovered entries, shared by every keystore, or null to disable caching
+     * @param keystoreWatcher reloads the changed keystore files or null to keep the first loaded version
+     */
+    public KeystoreRegistry(EntryCache entryCache, KeystoreWatcher keystoreWatcher) {
+        this.entryCache = entryCache;
+        this.keystoreWatcher = keystoreWatcher;
+    }
+
+    /**
+     * Get an opened keystore, the keystore is loaded at the first request.
+     *
+     * @param keyStoreLocation keystore location
+     * @param keyStorePassword keystore password
+     * @return the keystore
+     * @throws KeystoreException if the keystore cannot be loaded or the password is wrong
+     */
+    public Keystore get(String keyStoreLocation, char[] keyStorePassword) {
+        Path path = Paths.get(keyStoreLocation).toAbsolutePath().normalize();
+        FutureTask<OpenKeystore> load = new FutureTask<>(() -> open(path, keyStorePassword));
+        Future<OpenKeystore> future = keystores.putIfAbsent(path, load);
+        if (Objects.isNull(future)) {
+            future = load;
+            load.run();
+        }
+
+        OpenKeystore openKeystore;
+        try {
+            openKeystore = future.get();
+        } catch (ExecutionException e) {
+            keystores.remove(path, future);
+            throw e.getCause() instanceof KeystoreException
+                    ? (KeystoreException) e.getCause()
+                    : new KeystoreException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KeystoreException(e);
+        }
+
+        if (!PasswordDigest.matches(keyStorePassword, openKeystore.passwordDigest)) {
+            throw new KeystoreException("Keystore was tampered with, or password was incorrect");
+        }
+        return openKeystore.keystore;
+    }
+
+    /**
+     * Load a keystore.
+     *
+     * @param path path to the keystore file
+     * @param keyStorePassword keystore password
+     * @return the loaded keystore
+     */
+    private OpenKeystore open(Path path, char[] keyStorePassword) {
+        Keystore keystore = Keystore.open(
+                DevNullPrintStream.getPrintStream(),
+                path.toString(),
+                keyStorePassword.clone(),
+                null);
+        keystore.setEntryCache(entryCache);
+        if (Objects.nonNull(keystoreWatcher)) {
+            keystoreWatcher.register(keystore);
+        }
+        return new OpenKeystore(keystore, PasswordDigest.digest(keyStorePassword));
+    }
+
+    /**
+     * Number of the opened keystores.
+     *
+     * @return number of the keystores
+     */
+    public int size() {
+        return keystores.size();
+    }
+
+    /**
+     * A loaded keystore together with the digest of its password.
+     */
+    private static class OpenKeystore {
+        private final Keystore keystore;
+        private final byte[] passwordDigest;
+
+        OpenKeystore(Keystore keystore, byte[] passwordDigest) {
+            this.keystore = keystore;
+            this.passwordDigest = passwordDigest;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.remal.jceks.server;
+
+import com.remal.jceks.keystore.EntryCache;
+import com.remal.jceks.keystore.KeystoreWatcher;
+import com.remal.jceks.util.Constants;
+import com.remal.jceks.util.VirtualThreads;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Long-running keystore server. Keeps the loaded keystores in the memory and
+ * answers the requests of the clients on a loopback TCP socket.
+ *
+ * <p>Every client connection is served on its own virtual thread if the Java
+ * runtime supports them, otherwise on a fixed pool of platform threads.</p>
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+public class KeystoreServer implements Closeable {
+
+    /**
+     * Shortest wait after a failed accept, doubled after every further failure.
+     */
+    private static final long MIN_ACCEPT_BACK_OFF_MILLIS = 10;
+
+    /**
+     * Longest wait after a failed accept.
+     */
+    private static final long MAX_ACCEPT_BACK_OFF_MILLIS = 1000;
+
+    private final PrintStream logWriter;
+    private final ServerSocket serverSocket;
+    private final ExecutorService executor;
+    private final RequestHandler requestHandler;
+
+    /**
+     * Initialize the server and bind the listening socket.
+     *
+     * @param logWriter log writer stream
+     * @param bindAddress the loopback address to listen on
+     * @param port TCP port to listen on
+     * @param threads maximum number of clients served at the same time without virtual threads
+     * @param entryCache cache of the recovered entries or null to disable caching
+     * @param keystoreWatcher reloads the changed keystore files or null to keep the first loaded version
+     * @throws IOException if the socket cannot be opened
+     */
+    public KeystoreServer(PrintStream logWriter,
+                          InetAddress bindAddress,
+                          int port,
+                          int threads,
+                          EntryCache entryCache,
+                          KeystoreWatcher keystoreWatcher) throws IOException {
+        this.logWriter = logWriter;
+        this.serverSocket = new ServerSocket(port, 0, bindAddress);
+        this.executor = VirtualThreads.newExecutor(threads);
+        this.requestHandler = new RequestHandler(new KeystoreRegistry(entryCache, keystoreWatcher));
+    }
+
+    /**
+     * Accept and serve the client connections until the server is closed.
+     */
+    public void run() {
+        logWriter.printf(
+                Constants.INFO_MESSAGE,
+                "listening on " + serverSocket.getLocalSocketAddress() + ", "
+                        + (VirtualThreads.isSupported() ? "virtual" : "platform") + " threads...");
+        long backOff = 0;
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                backOff = 0;
+                executor.execute(() -> serve(socket));
+            } catch (IOException e) {
+                if (serverSocket.isClosed()) {
+                    // the server has been closed while waiting for a connection
+                    return;
+                }
+
+                // e.g. too many open files: the next accept would fail the same way at once
+                logWriter.printf(Constants.ERROR_MESSAGE, "cannot accept a connection: " + e.getMessage());
+                backOff = Math.min(Math.max(backOff * 2, MIN_ACCEPT_BACK_OFF_MILLIS), MAX_ACCEPT_BACK_OFF_MILLIS);
+                if (!sleep(backOff)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Wait before the next attempt to accept a connection.
+     *
+     * @param millis the time to wait
+     * @return false if the thread has been interrupted
+     */
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Stop accepting new connections and stop the worker threads.
+     */
+    @Override
+    public void close() {
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            logWriter.printf(Constants.ERROR_MESSAGE, e);
+        }
+        executor.shutdownNow();
+    }
+
+    /**
+     * Serve the requests of a client until the client closes the connection.
+     *
+     * @param socket the client connection
+     */
+    private void serve(Socket socket) {
+        try (Socket client = socket;
+             BufferedReader reader = new BufferedReader(
+                     new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+             Writer writer = new BufferedWriter(
+                     new OutputStreamWriter(client.getOutputStream(), StandardCharsets.UTF_8))) {
+
+            String request;
+            while ((request = reader.readLine()) != null) {
+                if (request.isEmpty()) {
+                    continue;
+                }
+                writer.write(requestHandler.handle(request));
+                writer.write('\n');
+                writer.flush();
+            }
+        } catch (IOException e) {
+            logWriter.printf(Constants.ERROR_MESSAGE, e);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.remal.jceks.server;
+
+import com.remal.jceks.metrics.Metrics;
+import com.remal.jceks.util.Constants;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * HTTP endpoint that exposes the {@link Metrics} in the Prometheus text
+ * format on {@code /metrics}.
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+public class MetricsEndpoint implements Closeable {
+
+    private static final String PATH = "/metrics";
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final HttpServer httpServer;
+
+    /**
+     * Initialize the endpoint and start serving the requests on a background thread.
+     *
+     * @param logWriter log writer stream
+     * @param bindAddress the address to listen on
+     * @param port TCP port to listen on
+     * @throws IOException if the socket cannot be opened
+     */
+    public MetricsEndpoint(PrintStream logWriter, InetAddress bindAddress, int port) throws IOException {
+        httpServer = HttpServer.create(new InetSocketAddress(bindAddress, port), 0);
+        httpServer.createContext(PATH, MetricsEndpoint::handle);
+        httpServer.start();
+        logWriter.printf(
+                Constants.INFO_MESSAGE,
+                "metrics are available on http:/" + httpServer.getAddress() + PATH);
+    }
+
+    /**
+     * Stop the endpoint.
+     */
+    @Override
+    public void close() {
+        httpServer.stop(0);
+    }
+
+    private static void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            Metrics.writePrometheus(new PrintWriter(new OutputStreamWriter(body, StandardCharsets.UTF_8)));
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.size());
+            try (OutputStream out = exchange.getResponseBody()) {
+                body.writeTo(out);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.remal.jceks.server;
+
+import com.remal.jceks.keystore.Keystore;
+import com.remal.jceks.keystore.KeystoreException;
+import com.remal.jceks.util.SecretBuffers;
+
+import java.security.KeyStore;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Executes one request of the keystore server protocol.
+ *
+ * <p>A request is one line, the fields are separated by a TAB character:</p>
+ * <ul>
+ *     <li>{@code PING}</li>
+ *     <li>{@code SHOW keystore keystore-password alias entry-password}</li>
+ *     <li>{@code LIST keystore keystore-password}</li>
+ *     <li>{@code COPY source-keystore source-keystore-password source-alias source-entry-password
+ *         target-keystore target-keystore-password target-alias target-entry-password}</li>
+ * </ul>
+ *
+ * <p>The response is one line as well: {@code OK} followed by the TAB separated
+ * result values, or {@code ERROR} followed by the error message.</p>
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+public class RequestHandler {
+
+    /**
+     * Field separator of the protocol.
+     */
+    public static final String SEPARATOR = "\t";
+
+    /**
+     * Status of a successful response.
+     */
+    public static final String OK = "OK";
+
+    /**
+     * Status of a failed response.
+     */
+    public static final String ERROR = "ERROR";
+
+    private final KeystoreRegistry registry;
+
+    /**
+     * Initialize the request handler.
+     *
+     * @param registry the opened keystores
+     */
+    public RequestHandler(KeystoreRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Execute a request.
+     *
+     * @param request the request line
+     * @return the response line
+     */
+    public String handle(String request) {
+        String[] fields = request.split(SEPARATOR, -1);
+        String command = fields[0].trim().toUpperCase(Locale.ENGLISH);
+
+        try {
+            switch (command) {
+                case "PING":
+                    return OK;
+                case "SHOW":
+                    checkFieldCount(fields, 5);
+                    return show(fields[1], fields[2], fields[3], fields[4]);
+                case "LIST":
+                    checkFieldCount(fields, 3);
+                    return list(fields[1], fields[2]);
+                case "COPY":
+                    checkFieldCount(fields, 9);
+                    return copy(fields[1], fields[2], fields[3], fields[4], fields[5], fields[6], fields[7], fields[8]);
+                default:
+                    return error("unknown command: '" + command + "'");
+            }
+        } catch (KeystoreException | IllegalArgumentException e) {
+            return error(Objects.toString(e.getMessage(), e.toString()));
+        }
+    }
+
+    private String show(String keystoreLocation, String keystorePassword, String alias, String entryPassword) {
+        Keystore keystore = registry.get(keystoreLocation, keystorePassword.toCharArray());
+        char[] value = keystore.getSecretKeyChars(alias, entryPassword.toCharArray());
+        try {
+            return OK + SEPARATOR + new String(value);
+        } finally {
+            SecretBuffers.wipe(value);
+        }
+    }
+
+    private String list(String keystoreLocation, String keystorePassword) {
+        Keystore keystore = registry.get(keystoreLocation, keystorePassword.toCharArray());
+        StringBuilder response = new StringBuilder(OK);
+        keystore.getAliases().forEach(alias -> response.append(SEPARATOR).append(alias));
+        return response.toString();
+    }
+
+    private String copy(String sourceKeystoreLocation,
+                        String sourceKeystorePassword,
+                        String sourceAlias,
+                        String sourceEntryPassword,
+                        String targetKeystoreLocation,
+                        String targetKeystorePassword,
+                        String targetAlias,
+                        String targetEntryPassword) {
+        Keystore sourceKeystore = registry.get(sourceKeystoreLocation, sourceKeystorePassword.toCharArray());
+        Keystore targetKeystore = registry.get(targetKeystoreLocation, targetKeystorePassword.toCharArray());
+
+        KeyStore.Entry entry = sourceKeystore.getEntry(sourceAlias, sourceEntryPassword.toCharArray());
+        if (Objects.isNull(entry)) {
+            throw new KeystoreException("source entry does not exist, alias: '" + sourceAlias + "'");
+        }
+        targetKeystore.addEntry(entry, targetAlias, targetEntryPassword.toCharArray());
+        return OK;
+    }
+
+    private static void checkFieldCount(String[] fields, int expected) {
+        if (fields.length != expected) {
+            throw new IllegalArgumentException(
+                    "invalid number of fields for " + fields[0] + ": " + fields.length + ", expected: " + expected);
+        }
+    }
+
+    private static String error(String message) {
+        return ERROR + SEPARATOR + message.replaceAll("[\\r\\n\\t]+", " ");
+    }
+}
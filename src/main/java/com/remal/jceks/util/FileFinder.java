@@ -0,0 +1,85 @@
+package com.remal.jceks.util;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Collects the files of a directory or the files that match a glob pattern.
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+public final class FileFinder {
+
+    private static final String GLOB_CHARACTERS = "*?[{";
+
+    /**
+     * Find files.
+     *
+     * <p>If the location is a directory then the files in the directory that
+     * match the default pattern are returned. Otherwise the location is used
+     * as a glob pattern, e.g. {@code /opt/keystores/**}{@code /*.jceks}.</p>
+     *
+     * @param location a directory or a glob pattern
+     * @param defaultPattern glob pattern of the file names used with a directory, e.g. {@code *.jceks}
+     * @return the sorted list of the regular files found
+     * @throws IOException in case of an I/O error
+     */
+    public static List<Path> find(String location, String defaultPattern) throws IOException {
+        Path directory = Paths.get(location);
+        if (Files.isDirectory(directory)) {
+            PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + defaultPattern);
+            try (Stream<Path> files = Files.list(directory)) {
+                return files
+                        .filter(Files::isRegularFile)
+                        .filter(file -> matcher.matches(file.getFileName()))
+                        .sorted()
+                        .collect(Collectors.toList());
+            }
+        }
+
+        Path baseDirectory = baseDirectory(location);
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + location);
+        try (Stream<Path> files = Files.walk(baseDirectory)) {
+            return files
+                    .filter(Files::isRegularFile)
+                    .filter(matcher::matches)
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Get the longest leading part of a glob pattern without glob characters.
+     *
+     * @param pattern the glob pattern
+     * @return the directory to search in
+     */
+    private static Path baseDirectory(String pattern) {
+        int firstGlobCharacter = pattern.length();
+        for (int i = 0; i < pattern.length(); i++) {
+            if (GLOB_CHARACTERS.indexOf(pattern.charAt(i)) >= 0) {
+                firstGlobCharacter = i;
+                break;
+            }
+        }
+
+        String prefix = pattern.substring(0, firstGlobCharacter);
+        int lastSeparator = Math.max(prefix.lastIndexOf('/'), prefix.lastIndexOf('\\'));
+        return lastSeparator < 0 ? Paths.get("") : Paths.get(prefix.substring(0, lastSeparator + 1));
+    }
+
+    /**
+     * Utility classes should not have a public or default constructor.
+     */
+    private FileFinder() {
+    }
+}
@@ -1,11 +1,16 @@
 package com.remal.jceks.util;
 
-import picocli.CommandLine;
+import com.remal.jceks.metrics.Metrics;
+import com.remal.jceks.metrics.Phase;
 
 import java.io.IOException;
-import java.io.PrintStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.nio.file.Path;
+import java.util.Arrays;
 
 /**
  * Text file util.
@@ -17,22 +22,56 @@ import java.nio.file.Paths;
 public class FileReader {
 
     /**
-     * Read the first line of the given text file.
+     * The longest first line that {@link #firstLine(Path)} reads, in bytes.
+     */
+    public static final int MAX_LINE_LENGTH = 8192;
+
+    /**
+     * Read the first line of a UTF-8 text file, e.g. a password.
+     * Only the first line is read, through the scratch buffer of the current
+     * thread, and the buffer is overwritten; the caller should overwrite the
+     * returned array when it is not needed anymore.
      *
-     * @param logWriter log writer stream
-     * @param pathToFile path to the text file
+     * @param path path to the text file
      * @return the first line of the file
+     * @throws IOException in case of an I/O error, invalid UTF-8 content,
+     *         an empty first line or a first line longer than {@link #MAX_LINE_LENGTH} bytes
      */
-    public static String firstLine(PrintStream logWriter, String pathToFile) {
+    public static char[] firstLine(Path path) throws IOException {
+        long start = Metrics.start();
+        byte[] bytes = SecretBuffers.scratch(MAX_LINE_LENGTH + 1);
+        CharBuffer chars = null;
         try {
-            logWriter.printf(Constants.INFO_MESSAGE, "reading the '" + pathToFile + "' file...");
-            return Files.readAllLines(Paths.get(pathToFile)).get(0);
-        } catch (IOException e) {
-            logWriter.printf(Constants.ERROR_MESSAGE, e);
-            System.exit(CommandLine.ExitCode.SOFTWARE);
-        }
+            int lineLength = 0;
+            boolean lineEnd = false;
+            try (InputStream is = Files.newInputStream(path)) {
+                int read;
+                while (!lineEnd && lineLength <= MAX_LINE_LENGTH
+                        && (read = is.read(bytes, lineLength, MAX_LINE_LENGTH + 1 - lineLength)) > 0) {
+                    int end = lineLength + read;
+                    while (lineLength < end && bytes[lineLength] != '\n' && bytes[lineLength] != '\r') {
+                        lineLength++;
+                    }
+                    lineEnd = lineLength < end;
+                }
+            }
+
+            if (lineLength > MAX_LINE_LENGTH) {
+                throw new IOException("the first line is longer than " + MAX_LINE_LENGTH + " bytes");
+            }
+            if (lineLength == 0) {
+                throw new IOException("the first line is empty");
+            }
 
-        return null;
+            chars = StandardCharsets.UTF_8.newDecoder().decode(ByteBuffer.wrap(bytes, 0, lineLength));
+            Metrics.record(Phase.PASSWORD_FILE_READ, start, lineLength);
+            return Arrays.copyOf(chars.array(), chars.limit());
+        } finally {
+            SecretBuffers.wipe(bytes);
+            if (chars != null) {
+                SecretBuffers.wipe(chars.array());
+            }
+        }
     }
 
     /**
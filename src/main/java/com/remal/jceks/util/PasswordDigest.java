@@ -0,0 +1,57 @@
+package com.remal.jceks.util;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Password fingerprint util. Used to check a password against a previously
+ * accepted one without keeping a second copy of the password in the memory.
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+public final class PasswordDigest {
+
+    /**
+     * Calculate the SHA-256 digest of a password.
+     *
+     * @param password the password
+     * @return the digest of the password
+     */
+    public static byte[] digest(char[] password) {
+        ByteBuffer bytes = StandardCharsets.UTF_8.encode(CharBuffer.wrap(password));
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            messageDigest.update(bytes);
+            return messageDigest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            if (bytes.hasArray()) {
+                Arrays.fill(bytes.array(), (byte) 0);
+            }
+        }
+    }
+
+    /**
+     * Check whether a password belongs to a digest, in constant time.
+     *
+     * @param password the password to check
+     * @param digest the digest of the expected password
+     * @return true if the password matches with the digest
+     */
+    public static boolean matches(char[] password, byte[] digest) {
+        return MessageDigest.isEqual(digest(password), digest);
+    }
+
+    /**
+     * Utility classes should not have a public or default constructor.
+     */
+    private PasswordDigest() {
+    }
+}
@@ -0,0 +1,69 @@
+package com.remal.jceks.util;
+
+import java.util.Arrays;
+
+/**
+ * Reusable, per-thread scratch buffers for secrets.
+ *
+ * <p>Passwords and key material pass through these buffers instead of
+ * immutable {@code String}s, so they can be overwritten as soon as they are
+ * not needed anymore. The scratch buffer of a thread is reused by the next
+ * secret of the same thread, so it must be wiped after use and must not be
+ * kept or used by two callers of the same thread at the same time.</p>
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+public final class SecretBuffers {
+
+    private static final int INITIAL_SIZE = 256;
+
+    private static final ThreadLocal<byte[]> SCRATCH = ThreadLocal.withInitial(() -> new byte[INITIAL_SIZE]);
+
+    /**
+     * Get the byte scratch buffer of the current thread.
+     *
+     * @param minLength the minimum size of the buffer
+     * @return the scratch buffer, at least {@code minLength} long
+     */
+    public static byte[] scratch(int minLength) {
+        byte[] buffer = SCRATCH.get();
+        if (buffer.length < minLength) {
+            wipe(buffer);
+            buffer = new byte[Math.max(minLength, buffer.length * 2)];
+            SCRATCH.set(buffer);
+        }
+        return buffer;
+    }
+
+    /**
+     * Overwrite a buffer with zeros.
+     *
+     * @param buffer the buffer, can be null
+     */
+    public static void wipe(byte[] buffer) {
+        if (buffer != null) {
+            Arrays.fill(buffer, (byte) 0);
+        }
+    }
+
+    /**
+     * Overwrite buffers with zeros.
+     *
+     * @param buffers the buffers, can be null
+     */
+    public static void wipe(char[]... buffers) {
+        for (char[] buffer : buffers) {
+            if (buffer != null) {
+                Arrays.fill(buffer, '\0');
+            }
+        }
+    }
+
+    /**
+     * Utility classes should not have a public or default constructor.
+     */
+    private SecretBuffers() {
+    }
+}
@@ -0,0 +1,81 @@
+package com.remal.jceks.util;
+
+import java.lang.reflect.Method;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Executors that run every task on its own virtual thread where the Java
+ * runtime supports it.
+ *
+ * <p>The tool is built for Java 8, so the virtual thread executor of Java 21
+ * is looked up by reflection. On older runtimes, and on the runtimes where
+ * virtual threads are still a preview feature, a fixed pool of platform
+ * threads is used instead.</p>
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+public final class VirtualThreads {
+
+    private static final Method NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = lookup();
+    private static final boolean SUPPORTED = probe();
+
+    /**
+     * Create an executor for blocking tasks, e.g. serving client connections.
+     *
+     * @param platformThreads number of the threads used if virtual threads are not available
+     * @return the executor
+     */
+    public static ExecutorService newExecutor(int platformThreads) {
+        ExecutorService executor = SUPPORTED ? newVirtualThreadExecutor() : null;
+        return Objects.isNull(executor) ? Executors.newFixedThreadPool(platformThreads) : executor;
+    }
+
+    /**
+     * Check whether the executors use virtual threads.
+     *
+     * @return true if virtual threads are available
+     */
+    public static boolean isSupported() {
+        return SUPPORTED;
+    }
+
+    private static boolean probe() {
+        ExecutorService executor = newVirtualThreadExecutor();
+        if (Objects.isNull(executor)) {
+            return false;
+        }
+        executor.shutdown();
+        return true;
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        if (Objects.isNull(NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR)) {
+            return null;
+        }
+
+        try {
+            return (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            // virtual threads are a preview feature that has not been enabled
+            return null;
+        }
+    }
+
+    private static Method lookup() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Utility classes should not have a public or default constructor.
+     */
+    private VirtualThreads() {
+    }
+}
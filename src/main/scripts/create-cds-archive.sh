@@ -0,0 +1,63 @@
+#!/bin/bash
+# ******************************************************************************
+# Creates the AppCDS archive of the jceks-tool uber JAR.
+#
+# The 'show' and 'copy' commands and the usage help are run once against the
+# sample keystores, the classes they load (picocli, the commands, the SunJCE
+# keystore and PBE classes) are dumped into one class list, and the list is
+# archived next to the JAR as jceks-tool-<version>.jsa. The launcher script is
+# copied next to the JAR as well, it uses the archive if it exists.
+#
+# The archive can be used only with the same JDK build and the same JAR file,
+# so it is created by the build and not shipped. Needs Java 10 or later.
+#
+# Usage: src/main/scripts/create-cds-archive.sh target/jceks-tool-<version>.jar
+#
+# Copyright 2021 Arnold Somogyi
+#
+# @author arnold.somogyi@gmail.com
+# ******************************************************************************
+set -e
+
+JAR=$(cd "$(dirname "$1")" && pwd)/$(basename "$1")
+ARCHIVE="${JAR%.jar}.jsa"
+BASE_DIR=$(cd "$(dirname "$0")/../../.." && pwd)
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+WORK_DIR=$(mktemp -d)
+trap 'rm -rf "$WORK_DIR"' EXIT
+
+cd "$BASE_DIR"
+cp sample/empty-keystore/keystore.jceks "$WORK_DIR/keystore.jceks"
+
+# without a command the usage help is printed with exit code 2
+"$JAVA" -Xshare:off -XX:DumpLoadedClassList="$WORK_DIR/help.classlist" -jar "$JAR" > /dev/null 2>&1 || true
+
+"$JAVA" -Xshare:off -XX:DumpLoadedClassList="$WORK_DIR/show.classlist" -jar "$JAR" show -q \
+    -k sample/amster/amster-transportkey-keystore.jceks \
+    -f sample/amster/.storepass \
+    -a sms.transport.key \
+    -n sample/amster/.keypass > /dev/null
+
+"$JAVA" -Xshare:off -XX:DumpLoadedClassList="$WORK_DIR/copy.classlist" -jar "$JAR" copy -q \
+    -s sample/amster/amster-transportkey-keystore.jceks \
+    -f sample/amster/.storepass \
+    -a sms.transport.key \
+    -n sample/amster/.keypass \
+    -t "$WORK_DIR/keystore.jceks" \
+    -u sample/empty-keystore/.storepass \
+    -l sms.transport.key \
+    -z sample/empty-keystore/.keypass
+
+# merge the lists, keep the loading order and drop the duplicates
+cat "$WORK_DIR/help.classlist" "$WORK_DIR/show.classlist" "$WORK_DIR/copy.classlist" \
+    | awk '!seen[$0]++' > "$WORK_DIR/jceks-tool.classlist"
+
+rm -f "$ARCHIVE"
+"$JAVA" -Xshare:dump -Xlog:cds=off \
+    -XX:SharedClassListFile="$WORK_DIR/jceks-tool.classlist" \
+    -XX:SharedArchiveFile="$ARCHIVE" \
+    -cp "$JAR" > /dev/null
+
+cp src/main/scripts/jceks-tool.sh "$(dirname "$JAR")/jceks-tool.sh"
+chmod +x "$(dirname "$JAR")/jceks-tool.sh"
+echo "CDS archive has been created: $ARCHIVE"
@@ -0,0 +1,41 @@
+#!/bin/bash
+# ******************************************************************************
+# Launcher of the jceks-tool uber JAR, tuned for short runs.
+#
+# Runs the newest jceks-tool-<version>.jar of the directory of the script with
+# the AppCDS archive next to it, if it exists (see create-cds-archive.sh), and
+# with JVM options that favour the startup time over the peak performance:
+#    -XX:TieredStopAtLevel=1   C1 compiler only
+#    -XX:+UseSerialGC          no GC worker threads to start
+#    -XX:-UsePerfData          no hsperfdata file to create
+#
+# The 'serve' command is long-running, it keeps the default compiler and GC.
+# Further JVM options can be set in the JAVA_OPTS environment variable.
+#
+# Copyright 2021 Arnold Somogyi
+#
+# @author arnold.somogyi@gmail.com
+# ******************************************************************************
+
+DIR=$(cd "$(dirname "$0")" && pwd)
+JAR=$(ls "$DIR"/jceks-tool-*.jar 2> /dev/null | sort -V | tail -1)
+if [ -z "$JAR" ]; then
+    echo "jceks-tool JAR cannot be found in $DIR" >&2
+    exit 1
+fi
+
+ARCHIVE="${JAR%.jar}.jsa"
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+
+OPTIONS=(-XX:-UsePerfData)
+if [ -f "$ARCHIVE" ]; then
+    # -Xshare:auto falls back to the default archive if this one does not match the JDK or the JAR
+    OPTIONS+=(-XX:SharedArchiveFile="$ARCHIVE" -Xshare:auto -Xlog:cds=off)
+fi
+
+case " $* " in
+    *" serve "*) ;;
+    *) OPTIONS+=(-XX:TieredStopAtLevel=1 -XX:+UseSerialGC) ;;
+esac
+
+exec "$JAVA" "${OPTIONS[@]}" $JAVA_OPTS -jar "$JAR" "$@"
@@ -0,0 +1,89 @@
+package com.remal.jceks.command;
+
+import com.remal.jceks.util.DevNullPrintStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Parses the batch mapping file of the 'copy' command.
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+class AliasMappingTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsTheMappingsInFileOrder() throws Exception {
+        List<AliasMapping> mappings = read(
+                "# source,target,source password,target password",
+                "",
+                "first, renamed ",
+                "second,second,file:source.keypass,env:TARGET_KEYPASS",
+                "third,third,,env:TARGET_KEYPASS");
+
+        assertEquals(3, mappings.size());
+        assertEquals(3, mappings.get(0).getLineNumber());
+        assertEquals("first", mappings.get(0).getSourceAlias());
+        assertEquals("renamed", mappings.get(0).getTargetAlias());
+        assertNull(mappings.get(0).getSourceEntryPasswordRef());
+        assertNull(mappings.get(0).getTargetEntryPasswordRef());
+        assertEquals("file:source.keypass", mappings.get(1).getSourceEntryPasswordRef());
+        assertEquals("env:TARGET_KEYPASS", mappings.get(1).getTargetEntryPasswordRef());
+        assertNull(mappings.get(2).getSourceEntryPasswordRef());
+        assertEquals("env:TARGET_KEYPASS", mappings.get(2).getTargetEntryPasswordRef());
+    }
+
+    @Test
+    void quotedFieldCanContainAComma() throws Exception {
+        List<AliasMapping> mappings = read("key,key,\"file:/secrets/a,b/.keypass\",\"file:say \"\"hi\"\".txt\"");
+
+        assertEquals("file:/secrets/a,b/.keypass", mappings.get(0).getSourceEntryPasswordRef());
+        assertEquals("file:say \"hi\".txt", mappings.get(0).getTargetEntryPasswordRef());
+    }
+
+    @Test
+    void rejectsInlinePasswords() {
+        IllegalArgumentException e = assertThrows(
+                IllegalArgumentException.class,
+                () -> read("key,key,pass:secret"));
+
+        assertTrue(e.getMessage().contains("at line 1"), e.getMessage());
+        assertTrue(e.getMessage().contains("'pass:'"), e.getMessage());
+    }
+
+    @Test
+    void rejectsAnUnquotedComma() {
+        IllegalArgumentException e = assertThrows(
+                IllegalArgumentException.class,
+                () -> read("key,key,file:a,b.txt,env:TARGET_KEYPASS"));
+
+        assertTrue(e.getMessage().contains("too many fields"), e.getMessage());
+    }
+
+    @Test
+    void rejectsAMissingTargetAlias() {
+        assertThrows(IllegalArgumentException.class, () -> read("key"));
+        assertThrows(IllegalArgumentException.class, () -> read("key, ,file:a.txt"));
+        assertThrows(IllegalArgumentException.class, () -> read("\"key,key"));
+    }
+
+    private List<AliasMapping> read(String... lines) throws Exception {
+        Path file = directory.resolve("mapping.txt");
+        Files.write(file, String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+        return AliasMapping.read(DevNullPrintStream.getPrintStream(), file.toString());
+    }
+}
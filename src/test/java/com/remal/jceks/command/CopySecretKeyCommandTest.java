@@ -0,0 +1,142 @@
+package com.remal.jceks.command;
+
+import com.remal.jceks.keystore.Keystore;
+import com.remal.jceks.keystore.KeystoreTransaction;
+import com.remal.jceks.keystore.KeystoreType;
+import com.remal.jceks.util.DevNullPrintStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import picocli.CommandLine;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Copies the entries listed in the batch mapping file of the 'copy' command.
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+class CopySecretKeyCommandTest {
+
+    private static final String KEYSTORE_PASSWORD = "storepass";
+    private static final String ENTRY_PASSWORD = "keypass";
+    private static final String OTHER_ENTRY_PASSWORD = "otherpass";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void batchCopiesEveryListedEntry() throws Exception {
+        String source = keystore("source.jceks", "first", "second", "third");
+        String target = keystore("target.jceks", "existing");
+        Path otherPassword = directory.resolve("other.keypass");
+        Files.write(otherPassword, Collections.singletonList(OTHER_ENTRY_PASSWORD), StandardCharsets.UTF_8);
+        Path batch = batchFile(
+                "# source,target,source password,target password",
+                "first,renamed",
+                "second,second,,\"file:" + otherPassword + "\"");
+
+        int exitCode = copy(source, target, "-e", ENTRY_PASSWORD, "-r", ENTRY_PASSWORD, "-b", batch.toString());
+
+        assertEquals(CommandLine.ExitCode.OK, exitCode);
+        Keystore result = open(target);
+        assertEquals(Arrays.asList("existing", "renamed", "second"), result.getAliases());
+        assertEquals("first", value(result, "renamed", ENTRY_PASSWORD));
+        assertEquals("second", value(result, "second", OTHER_ENTRY_PASSWORD));
+    }
+
+    @Test
+    void batchWithAMissingSourceEntryDoesNotChangeTheTarget() throws Exception {
+        String source = keystore("source.jceks", "first");
+        String target = keystore("target.jceks", "existing");
+        Path batch = batchFile("first,first", "missing,missing");
+
+        int exitCode = copy(source, target, "-e", ENTRY_PASSWORD, "-r", ENTRY_PASSWORD, "-b", batch.toString());
+
+        assertEquals(CommandLine.ExitCode.SOFTWARE, exitCode);
+        assertEquals(Collections.singletonList("existing"), open(target).getAliases());
+    }
+
+    @Test
+    void batchWithoutAnEntryPasswordIsRejected() throws Exception {
+        String source = keystore("source.jceks", "first");
+        String target = keystore("target.jceks", "existing");
+        Path batch = batchFile("first,first");
+
+        int exitCode = copy(source, target, "-e", ENTRY_PASSWORD, "-b", batch.toString());
+
+        assertEquals(CommandLine.ExitCode.USAGE, exitCode);
+        assertEquals(Collections.singletonList("existing"), open(target).getAliases());
+    }
+
+    @Test
+    void batchCannotBeCombinedWithAnAlias() throws Exception {
+        String source = keystore("source.jceks", "first");
+        String target = keystore("target.jceks", "existing");
+        Path batch = batchFile("first,first");
+
+        int exitCode = copy(source, target, "-a", "first", "-b", batch.toString());
+
+        assertEquals(CommandLine.ExitCode.USAGE, exitCode);
+    }
+
+    private int copy(String source, String target, String... options) {
+        String[] keystoreOptions = {"-q", "-s", source, "-p", KEYSTORE_PASSWORD, "-t", target, "-o", KEYSTORE_PASSWORD};
+        String[] args = Arrays.copyOf(keystoreOptions, keystoreOptions.length + options.length);
+        System.arraycopy(options, 0, args, keystoreOptions.length, options.length);
+
+        CommandLine commandLine = new CommandLine(new CopySecretKeyCommand());
+        commandLine.setErr(new PrintWriter(DevNullPrintStream.getPrintStream()));
+        return commandLine.execute(args);
+    }
+
+    private Path batchFile(String... lines) throws Exception {
+        Path batch = directory.resolve("batch.csv");
+        Files.write(batch, Arrays.asList(lines), StandardCharsets.UTF_8);
+        return batch;
+    }
+
+    /**
+     * Create a keystore with secret keys, the values of the keys are their
+     * own aliases.
+     */
+    private String keystore(String fileName, String... aliases) {
+        Keystore keystore = Keystore.create(
+                DevNullPrintStream.getPrintStream(),
+                directory.resolve(fileName).toString(),
+                KEYSTORE_PASSWORD.toCharArray(),
+                KeystoreType.JCEKS);
+        KeystoreTransaction transaction = keystore.begin();
+        for (String alias : aliases) {
+            transaction.setEntry(
+                    new KeyStore.SecretKeyEntry(new SecretKeySpec(alias.getBytes(StandardCharsets.US_ASCII), "RAW")),
+                    alias,
+                    ENTRY_PASSWORD.toCharArray());
+        }
+        transaction.commit();
+        return keystore.getKeyStoreLocation();
+    }
+
+    private static Keystore open(String location) {
+        return Keystore.open(
+                DevNullPrintStream.getPrintStream(),
+                location,
+                KEYSTORE_PASSWORD.toCharArray(),
+                KeystoreType.JCEKS);
+    }
+
+    private static String value(Keystore keystore, String alias, String entryPassword) {
+        KeyStore.SecretKeyEntry entry = (KeyStore.SecretKeyEntry) keystore.getEntry(alias, entryPassword.toCharArray());
+        return new String(entry.getSecretKey().getEncoded(), StandardCharsets.US_ASCII);
+    }
+}
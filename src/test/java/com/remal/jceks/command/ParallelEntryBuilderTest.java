@@ -0,0 +1,89 @@
+package com.remal.jceks.command;
+
+import com.remal.jceks.keystore.Keystore;
+import com.remal.jceks.keystore.KeystoreTransaction;
+import com.remal.jceks.keystore.KeystoreType;
+import com.remal.jceks.util.DevNullPrintStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Builds the entries of the 'generate' and 'import' commands on worker threads.
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+class ParallelEntryBuilderTest {
+
+    private static final char[] KEYSTORE_PASSWORD = "storepass".toCharArray();
+    private static final char[] ENTRY_PASSWORD = "keypass".toCharArray();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void stagesEveryEntryIntoTheTransaction() {
+        Keystore keystore = newKeystore();
+        KeystoreTransaction transaction = keystore.begin();
+        int count = 50;
+
+        try (ParallelEntryBuilder builder = new ParallelEntryBuilder(transaction, ENTRY_PASSWORD, 3)) {
+            for (int i = 0; i < count; i++) {
+                String value = String.format("%016d", i);
+                builder.submit("key-" + i, () -> {
+                    // the entries are finished in a random order
+                    Thread.sleep(ThreadLocalRandom.current().nextInt(5));
+                    return entry(value);
+                });
+            }
+            assertEquals(count, builder.finish());
+        }
+        transaction.commit();
+
+        assertEquals(count, keystore.getAliases().size());
+        assertEquals("MDAwMDAwMDAwMDAwMDAxNw==", keystore.getSecretKeyValue("key-17", ENTRY_PASSWORD));
+    }
+
+    @Test
+    void errorOfABuilderIsThrown() {
+        Keystore keystore = newKeystore();
+        KeystoreTransaction transaction = keystore.begin();
+
+        try (ParallelEntryBuilder builder = new ParallelEntryBuilder(transaction, ENTRY_PASSWORD, 2)) {
+            builder.submit("valid", () -> entry("0123456789abcdef"));
+            builder.submit("broken", () -> {
+                throw new IllegalArgumentException("invalid record");
+            });
+
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class, builder::finish);
+            assertEquals("invalid record", e.getMessage());
+        }
+        transaction.rollback();
+
+        assertFalse(Files.exists(directory.resolve("keystore.jceks")));
+    }
+
+    private Keystore newKeystore() {
+        return Keystore.create(
+                DevNullPrintStream.getPrintStream(),
+                directory.resolve("keystore.jceks").toString(),
+                KEYSTORE_PASSWORD,
+                KeystoreType.JCEKS);
+    }
+
+    private static KeyStore.SecretKeyEntry entry(String value) {
+        return new KeyStore.SecretKeyEntry(new SecretKeySpec(value.getBytes(StandardCharsets.US_ASCII), "AES"));
+    }
+}
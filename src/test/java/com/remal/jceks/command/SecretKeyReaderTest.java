@@ -0,0 +1,104 @@
+package com.remal.jceks.command;
+
+import com.remal.jceks.util.DevNullPrintStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reads the input files of the 'import' command.
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+class SecretKeyReaderTest {
+
+    private static final String KEY = Base64.getEncoder().encodeToString(
+            "0123456789abcdef".getBytes(StandardCharsets.US_ASCII));
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsCsvInTheOrderOfTheHeader() throws Exception {
+        List<SecretKeyReader.KeyRecord> records = read(
+                SecretKeyReader.Format.CSV,
+                "Alias,algorithm,value",
+                "# comment",
+                "\"hmac,key\",HmacSHA256," + KEY,
+                "aes,," + KEY);
+
+        assertEquals(Arrays.asList("hmac,key", "aes"), aliases(records));
+        assertEquals("HmacSHA256", secretKey(records.get(0)).getSecretKey().getAlgorithm());
+        assertEquals("AES", secretKey(records.get(1)).getSecretKey().getAlgorithm());
+        assertArrayEquals(Base64.getDecoder().decode(KEY), secretKey(records.get(1)).getSecretKey().getEncoded());
+    }
+
+    @Test
+    void readsTheLinesOfAJsonArray() throws Exception {
+        List<SecretKeyReader.KeyRecord> records = read(
+                SecretKeyReader.Format.JSONL,
+                "[",
+                "{\"alias\": \"first\", \"value\": \"" + KEY + "\"},",
+                "{\"value\": \"" + KEY + "\", \"alias\": \"second\", \"algorithm\": \"HmacSHA256\"}",
+                "]");
+
+        assertEquals(Arrays.asList("first", "second"), aliases(records));
+        assertEquals("HmacSHA256", secretKey(records.get(1)).getSecretKey().getAlgorithm());
+    }
+
+    @Test
+    void rejectsARepeatedAlias() {
+        IllegalArgumentException e = assertThrows(
+                IllegalArgumentException.class,
+                () -> read(SecretKeyReader.Format.CSV, "Key," + KEY, "key," + KEY));
+
+        assertTrue(e.getMessage().contains("at line 2"), e.getMessage());
+    }
+
+    @Test
+    void valueIsDecodedOnlyWhenTheEntryIsBuilt() throws Exception {
+        List<SecretKeyReader.KeyRecord> records = read(SecretKeyReader.Format.CSV, "broken,not base64!");
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> records.get(0).toEntry());
+        assertTrue(e.getMessage().contains("at line 1: the value is not base64 encoded"), e.getMessage());
+    }
+
+    private List<SecretKeyReader.KeyRecord> read(SecretKeyReader.Format format, String... lines) throws Exception {
+        Path file = directory.resolve("keys");
+        Files.write(file, Arrays.asList(lines), StandardCharsets.UTF_8);
+        List<SecretKeyReader.KeyRecord> records = new ArrayList<>();
+        int count = SecretKeyReader.read(
+                DevNullPrintStream.getPrintStream(),
+                file.toString(),
+                format,
+                "AES",
+                records::add);
+        assertEquals(records.size(), count);
+        return records;
+    }
+
+    private static List<String> aliases(List<SecretKeyReader.KeyRecord> records) {
+        List<String> aliases = new ArrayList<>();
+        records.forEach(record -> aliases.add(record.getAlias()));
+        return aliases;
+    }
+
+    private static KeyStore.SecretKeyEntry secretKey(SecretKeyReader.KeyRecord record) {
+        return (KeyStore.SecretKeyEntry) record.toEntry();
+    }
+}
@@ -0,0 +1,138 @@
+package com.remal.jceks.keystore;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPairGenerator;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Expiry and invalidation of the cached keystore entries.
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+class EntryCacheTest {
+
+    private static final char[] ENTRY_PASSWORD = "keypass".toCharArray();
+    private static final byte[] KEY = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    @TempDir
+    Path directory;
+
+    private Path keystore;
+    private FileStamp stamp;
+
+    @BeforeEach
+    void createKeystoreFile() throws Exception {
+        keystore = Files.write(directory.resolve("keystore.jceks"), new byte[] {1});
+        stamp = FileStamp.of(keystore);
+    }
+
+    @Test
+    void servesACopyOfTheEntry() {
+        EntryCache cache = new EntryCache(10, 1, TimeUnit.HOURS);
+        cache.put(keystore, stamp, "Alias", ENTRY_PASSWORD, entry());
+
+        KeyStore.SecretKeyEntry cached = (KeyStore.SecretKeyEntry) cache.get(keystore, stamp, "alias", ENTRY_PASSWORD);
+
+        assertArrayEquals(KEY, cached.getSecretKey().getEncoded());
+        assertNull(cache.get(keystore, stamp, "alias", "other".toCharArray()));
+    }
+
+    @Test
+    void evictionDoesNotWipeTheCopyOfACaller() {
+        EntryCache cache = new EntryCache(10, 1, TimeUnit.HOURS);
+        cache.put(keystore, stamp, "alias", ENTRY_PASSWORD, entry());
+        KeyStore.SecretKeyEntry cached = (KeyStore.SecretKeyEntry) cache.get(keystore, stamp, "alias", ENTRY_PASSWORD);
+
+        cache.invalidate(keystore);
+
+        assertArrayEquals(KEY, cached.getSecretKey().getEncoded());
+    }
+
+    @Test
+    void privateKeyIsNotCached() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(1024);
+        KeyStore.PrivateKeyEntry entry = new KeyStore.PrivateKeyEntry(
+                generator.generateKeyPair().getPrivate(),
+                new Certificate[] {JceksIndexTest.certificate()});
+        EntryCache cache = new EntryCache(10, 1, TimeUnit.HOURS);
+
+        cache.put(keystore, stamp, "private", ENTRY_PASSWORD, entry);
+
+        assertEquals(0, cache.size());
+        assertNull(cache.get(keystore, stamp, "private", ENTRY_PASSWORD));
+    }
+
+    @Test
+    void expiredEntryIsDropped() throws Exception {
+        EntryCache cache = new EntryCache(10, 50, TimeUnit.MILLISECONDS);
+        cache.put(keystore, stamp, "alias", ENTRY_PASSWORD, entry());
+        assertNotNull(cache.get(keystore, stamp, "alias", ENTRY_PASSWORD));
+
+        Thread.sleep(100);
+
+        assertNull(cache.get(keystore, stamp, "alias", ENTRY_PASSWORD));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void entryOfAnotherKeystoreVersionIsDropped() throws Exception {
+        EntryCache cache = new EntryCache(10, 1, TimeUnit.HOURS);
+        cache.put(keystore, stamp, "alias", ENTRY_PASSWORD, entry());
+
+        FileStamp newStamp = FileStamp.of(Files.write(keystore, new byte[] {1, 2}));
+
+        assertNull(cache.get(keystore, newStamp, "alias", ENTRY_PASSWORD));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void invalidateDropsOnlyTheEntriesOfTheKeystore() throws Exception {
+        Path otherKeystore = Files.write(directory.resolve("other.jceks"), new byte[] {1});
+        FileStamp otherStamp = FileStamp.of(otherKeystore);
+        EntryCache cache = new EntryCache(10, 1, TimeUnit.HOURS);
+        cache.put(keystore, stamp, "first", ENTRY_PASSWORD, entry());
+        cache.put(keystore, stamp, "second", ENTRY_PASSWORD, entry());
+        cache.put(otherKeystore, otherStamp, "first", ENTRY_PASSWORD, entry());
+
+        cache.invalidate(keystore);
+
+        assertNull(cache.get(keystore, stamp, "first", ENTRY_PASSWORD));
+        assertNull(cache.get(keystore, stamp, "second", ENTRY_PASSWORD));
+        assertNotNull(cache.get(otherKeystore, otherStamp, "first", ENTRY_PASSWORD));
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvicted() {
+        EntryCache cache = new EntryCache(2, 1, TimeUnit.HOURS);
+        cache.put(keystore, stamp, "first", ENTRY_PASSWORD, entry());
+        cache.put(keystore, stamp, "second", ENTRY_PASSWORD, entry());
+        cache.get(keystore, stamp, "first", ENTRY_PASSWORD);
+
+        cache.put(keystore, stamp, "third", ENTRY_PASSWORD, entry());
+
+        assertNotNull(cache.get(keystore, stamp, "first", ENTRY_PASSWORD));
+        assertNull(cache.get(keystore, stamp, "second", ENTRY_PASSWORD));
+        assertEquals(2, cache.size());
+    }
+
+    private static KeyStore.SecretKeyEntry entry() {
+        return new KeyStore.SecretKeyEntry(new SecretKeySpec(KEY, "AES"));
+    }
+}
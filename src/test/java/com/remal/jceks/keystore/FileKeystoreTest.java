@@ -0,0 +1,178 @@
+package com.remal.jceks.keystore;
+
+import com.remal.jceks.util.DevNullPrintStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Saves keystores with one or more writers of the same file and reloads them
+ * while they are read.
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+class FileKeystoreTest {
+
+    private static final char[] KEYSTORE_PASSWORD = "storepass".toCharArray();
+    private static final char[] ENTRY_PASSWORD = "keypass".toCharArray();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void transactionCanBeLoadedByTheJdk() throws Exception {
+        Path file = directory.resolve("keystore.jceks");
+        Map<String, KeyStore.Entry> entries = new LinkedHashMap<>();
+        entries.put("aes", secretKeyEntry("0123456789abcdef", "AES"));
+        entries.put("hmac", secretKeyEntry("0123456789abcdef0123456789abcdef", "HmacSHA256"));
+
+        FileKeystore keystore = FileKeystore.create(quiet(), file.toString(), KEYSTORE_PASSWORD, KeystoreType.JCEKS);
+        KeystoreTransaction transaction = keystore.begin();
+        entries.forEach((alias, entry) -> transaction.setEntry(entry, alias, ENTRY_PASSWORD));
+        transaction.commit();
+
+        KeyStore keyStore = load(file);
+        assertEquals(Arrays.asList("aes", "hmac"), sorted(Collections.list(keyStore.aliases())));
+        for (Map.Entry<String, KeyStore.Entry> entry : entries.entrySet()) {
+            KeyStore.SecretKeyEntry loaded = (KeyStore.SecretKeyEntry) keyStore.getEntry(
+                    entry.getKey(),
+                    new KeyStore.PasswordProtection(ENTRY_PASSWORD));
+            KeyStore.SecretKeyEntry expected = (KeyStore.SecretKeyEntry) entry.getValue();
+            assertEquals(expected.getSecretKey().getAlgorithm(), loaded.getSecretKey().getAlgorithm());
+            assertArrayEquals(expected.getSecretKey().getEncoded(), loaded.getSecretKey().getEncoded());
+        }
+    }
+
+    @Test
+    void writerWithAnOutdatedKeystoreKeepsTheOtherChanges() throws Exception {
+        Path file = directory.resolve("keystore.jceks");
+        FileKeystore first = FileKeystore.create(quiet(), file.toString(), KEYSTORE_PASSWORD, KeystoreType.JCEKS);
+        first.addEntry(secretKeyEntry("0123456789abcdef", "AES"), "initial", ENTRY_PASSWORD);
+        ByteArrayOutputStream secondLog = new ByteArrayOutputStream();
+        FileKeystore second = new FileKeystore(new PrintStream(secondLog, true), file.toString(), KEYSTORE_PASSWORD);
+
+        first.addEntry(secretKeyEntry("1123456789abcdef", "AES"), "first", ENTRY_PASSWORD);
+        // the second writer still has the initial version in the memory
+        second.addEntry(secretKeyEntry("2123456789abcdef", "AES"), "second", ENTRY_PASSWORD);
+
+        List<String> expected = Arrays.asList("first", "initial", "second");
+        assertEquals(expected, sorted(Collections.list(load(file).aliases())));
+        assertEquals(expected, sorted(second.getAliases()));
+        assertTrue(secondLog.toString().contains("saved by another writer"));
+    }
+
+    @Test
+    void failedSaveDropsTheChanges() throws Exception {
+        Path file = directory.resolve("keystore.jceks");
+        FileKeystore keystore = FileKeystore.create(quiet(), file.toString(), KEYSTORE_PASSWORD, KeystoreType.JCEKS);
+        keystore.addEntry(secretKeyEntry("0123456789abcdef", "AES"), "initial", ENTRY_PASSWORD);
+        byte[] content = Files.readAllBytes(file);
+
+        // the lock file cannot be opened
+        Path lockFile = directory.resolve("keystore.jceks" + KeystoreFileLock.SUFFIX);
+        Files.deleteIfExists(lockFile);
+        Files.createDirectory(lockFile);
+        assertThrows(
+                KeystoreException.class,
+                () -> keystore.addEntry(secretKeyEntry("1123456789abcdef", "AES"), "lost", ENTRY_PASSWORD));
+
+        assertEquals(Collections.singletonList("initial"), keystore.getAliases());
+        assertArrayEquals(content, Files.readAllBytes(file));
+    }
+
+    @Test
+    void reloadDoesNotWaitForTheReaders() throws Exception {
+        Path file = directory.resolve("keystore.jceks");
+        FileKeystore writer = FileKeystore.create(quiet(), file.toString(), KEYSTORE_PASSWORD, KeystoreType.JCEKS);
+        writer.addEntry(secretKeyEntry("0123456789abcdef", "AES"), "initial", ENTRY_PASSWORD);
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch reloaded = new CountDownLatch(1);
+        FileKeystore reader = new FileKeystore(pausingLog(reading, reloaded), file.toString(), KEYSTORE_PASSWORD);
+        writer.addEntry(secretKeyEntry("1123456789abcdef", "AES"), "added", ENTRY_PASSWORD);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // the reader stops in the middle of the read
+            Future<KeyStore.Entry> read = executor.submit(() -> reader.getEntry("initial", ENTRY_PASSWORD));
+            assertTrue(reading.await(10, TimeUnit.SECONDS));
+
+            assertTimeoutPreemptively(Duration.ofSeconds(10), () -> assertTrue(reader.reload()));
+            assertEquals(Arrays.asList("added", "initial"), reader.getAliases());
+
+            reloaded.countDown();
+            assertNotNull(read.get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static KeyStore.SecretKeyEntry secretKeyEntry(String value, String algorithm) {
+        return new KeyStore.SecretKeyEntry(new SecretKeySpec(value.getBytes(StandardCharsets.US_ASCII), algorithm));
+    }
+
+    private static KeyStore load(Path file) throws Exception {
+        KeyStore keyStore = KeyStore.getInstance("JCEKS");
+        try (InputStream in = Files.newInputStream(file)) {
+            keyStore.load(in, KEYSTORE_PASSWORD);
+        }
+        return keyStore;
+    }
+
+    private static List<String> sorted(List<String> aliases) {
+        Collections.sort(aliases);
+        return aliases;
+    }
+
+    /**
+     * Log writer that stops the reading thread when it logs the read of an
+     * entry, until the reload is done.
+     */
+    private static PrintStream pausingLog(CountDownLatch reading, CountDownLatch reloaded) {
+        return new PrintStream(new ByteArrayOutputStream(), true) {
+            @Override
+            public PrintStream printf(String format, Object... args) {
+                if (String.valueOf(args[0]).startsWith("getting keystore entry")) {
+                    reading.countDown();
+                    try {
+                        reloaded.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return this;
+            }
+        };
+    }
+
+    private static PrintStream quiet() {
+        return DevNullPrintStream.getPrintStream();
+    }
+}
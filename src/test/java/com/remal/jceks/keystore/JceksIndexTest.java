@@ -0,0 +1,160 @@
+package com.remal.jceks.keystore;
+
+import com.remal.jceks.util.DevNullPrintStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.KeyPairGenerator;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateFactory;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reads the index of keystore files written by the JDK providers.
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+class JceksIndexTest {
+
+    private static final char[] KEYSTORE_PASSWORD = "storepass".toCharArray();
+    private static final char[] ENTRY_PASSWORD = "keypass".toCharArray();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsEveryEntryTypeOfJceks() throws Exception {
+        Date before = new Date(System.currentTimeMillis() - 1000);
+        SecretKey secretKey = new SecretKeySpec("0123456789abcdef".getBytes(StandardCharsets.US_ASCII), "AES");
+        Path file = store("JCEKS", "keystore.jceks", keyStore -> {
+            keyStore.setEntry("Secret", new KeyStore.SecretKeyEntry(secretKey), protection());
+            keyStore.setEntry("private", privateKeyEntry(), protection());
+            keyStore.setEntry("trusted", new KeyStore.TrustedCertificateEntry(certificate()), null);
+        });
+        Date after = new Date(System.currentTimeMillis() + 1000);
+
+        JceksIndex index = JceksIndex.open(DevNullPrintStream.getPrintStream(), file.toString());
+
+        assertEquals("JCEKS", index.getFormat());
+        List<IndexEntry> entries = index.getEntries();
+        assertEquals(3, entries.size());
+        assertEquals(EntryType.PRIVATE_KEY, index.getIndexEntry("private").getType());
+        assertEquals(EntryType.SECRET_KEY, index.getIndexEntry("SECRET").getType());
+        assertEquals(EntryType.TRUSTED_CERTIFICATE, index.getIndexEntry("trusted").getType());
+        entries.forEach(entry -> {
+            assertFalse(entry.getCreationDate().before(before), entry.getAlias());
+            assertFalse(entry.getCreationDate().after(after), entry.getAlias());
+        });
+
+        KeyStore.Entry entry = index.getEntry("secret", ENTRY_PASSWORD);
+        assertArrayEquals(secretKey.getEncoded(), ((KeyStore.SecretKeyEntry) entry).getSecretKey().getEncoded());
+        assertNull(index.getEntry("missing", ENTRY_PASSWORD));
+    }
+
+    @Test
+    void readsJks() throws Exception {
+        Path file = store("JKS", "keystore.jks", keyStore -> {
+            keyStore.setEntry("private", privateKeyEntry(), protection());
+            keyStore.setEntry("trusted", new KeyStore.TrustedCertificateEntry(certificate()), null);
+        });
+
+        JceksIndex index = JceksIndex.open(DevNullPrintStream.getPrintStream(), file.toString());
+
+        assertEquals("JKS", index.getFormat());
+        assertEquals(
+                "private trusted",
+                index.getEntries().stream().map(IndexEntry::getAlias).collect(Collectors.joining(" ")));
+        assertEquals(EntryType.PRIVATE_KEY, index.getIndexEntry("private").getType());
+        assertEquals(EntryType.TRUSTED_CERTIFICATE, index.getIndexEntry("trusted").getType());
+    }
+
+    @Test
+    void rejectsOtherFormats() throws Exception {
+        Path file = store("PKCS12", "keystore.p12", keyStore ->
+                keyStore.setEntry("trusted", new KeyStore.TrustedCertificateEntry(certificate()), null));
+
+        assertThrows(
+                KeystoreException.class,
+                () -> JceksIndex.open(DevNullPrintStream.getPrintStream(), file.toString()));
+    }
+
+    @Test
+    void rebuildsTheIndexFileWhenTheKeystoreChanges() throws Exception {
+        Path file = store("JCEKS", "keystore.jceks", keyStore ->
+                keyStore.setEntry("first", new KeyStore.TrustedCertificateEntry(certificate()), null));
+        Path indexFile = directory.resolve("keystore.jceks" + IndexFile.SUFFIX);
+
+        JceksIndex.open(DevNullPrintStream.getPrintStream(), file.toString(), true);
+        assertTrue(Files.exists(indexFile));
+        byte[] firstIndex = Files.readAllBytes(indexFile);
+        FileTime lastModified = Files.getLastModifiedTime(file);
+
+        // same size and same modification time, only the content differs
+        store("JCEKS", "keystore.jceks", keyStore ->
+                keyStore.setEntry("other", new KeyStore.TrustedCertificateEntry(certificate()), null));
+        Files.setLastModifiedTime(file, lastModified);
+
+        JceksIndex index = JceksIndex.open(DevNullPrintStream.getPrintStream(), file.toString(), true);
+        assertNull(index.getIndexEntry("first"));
+        assertEquals(EntryType.TRUSTED_CERTIFICATE, index.getIndexEntry("other").getType());
+        assertFalse(Arrays.equals(firstIndex, Files.readAllBytes(indexFile)));
+    }
+
+    private Path store(String type, String fileName, KeystoreSetup setup) throws Exception {
+        KeyStore keyStore = KeyStore.getInstance(type);
+        keyStore.load(null, KEYSTORE_PASSWORD);
+        setup.accept(keyStore);
+
+        Path file = directory.resolve(fileName);
+        try (OutputStream out = Files.newOutputStream(file)) {
+            keyStore.store(out, KEYSTORE_PASSWORD);
+        }
+        return file;
+    }
+
+    private static KeyStore.PasswordProtection protection() {
+        return new KeyStore.PasswordProtection(ENTRY_PASSWORD);
+    }
+
+    private static KeyStore.PrivateKeyEntry privateKeyEntry() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(1024);
+        PrivateKey privateKey = generator.generateKeyPair().getPrivate();
+        return new KeyStore.PrivateKeyEntry(privateKey, new Certificate[] {certificate()});
+    }
+
+    static Certificate certificate() throws Exception {
+        try (InputStream in = JceksIndexTest.class.getResourceAsStream("/certificate.pem")) {
+            return CertificateFactory.getInstance("X.509").generateCertificate(in);
+        }
+    }
+
+    /**
+     * Adds the entries of a keystore.
+     */
+    private interface KeystoreSetup {
+        void accept(KeyStore keyStore) throws Exception;
+    }
+}
@@ -0,0 +1,165 @@
+package com.remal.jceks.keystore;
+
+import com.remal.jceks.util.DevNullPrintStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares and synchronizes two keystores.
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+class KeystoreDiffTest {
+
+    private static final char[] KEYSTORE_PASSWORD = "storepass".toCharArray();
+    private static final char[] ENTRY_PASSWORD = "keypass".toCharArray();
+
+    @TempDir
+    Path directory;
+
+    private Keystore source;
+    private Keystore target;
+
+    @BeforeEach
+    void createKeystores() {
+        source = create("source.jceks");
+        source.begin()
+                .setEntry(secretKeyEntry("0123456789abcdef"), "first", ENTRY_PASSWORD)
+                .setEntry(secretKeyEntry("1123456789abcdef"), "second", ENTRY_PASSWORD)
+                .commit();
+        target = create("target.jceks");
+    }
+
+    @Test
+    void newEntriesAreAddedWithoutComparingThem() {
+        KeystoreDiff diff = compare(false, false);
+
+        assertEquals(Arrays.asList("ADD first", "ADD second"), changes(diff));
+        assertEquals(0, diff.getCompared());
+
+        diff.apply(source, ENTRY_PASSWORD, target, ENTRY_PASSWORD);
+        assertArrayEquals(key("0123456789abcdef"), key(target, "first"));
+        assertArrayEquals(key("1123456789abcdef"), key(target, "second"));
+    }
+
+    @Test
+    void syncedEntriesAreUpToDateWithoutDecryptingThem() {
+        sync();
+
+        KeystoreDiff diff = compare(false, false);
+
+        assertTrue(diff.isEmpty());
+        assertEquals(2, diff.getUnchanged());
+        assertEquals(0, diff.getCompared());
+    }
+
+    @Test
+    void onlyTheEntriesWrittenToTheSourceSinceTheSyncAreCompared() throws Exception {
+        sync();
+        Thread.sleep(10);
+        source.begin()
+                .setEntry(secretKeyEntry("2123456789abcdef"), "first", ENTRY_PASSWORD)
+                .setEntry(secretKeyEntry("1123456789abcdef"), "second", ENTRY_PASSWORD)
+                .commit();
+
+        KeystoreDiff diff = compare(false, false);
+
+        assertEquals(Arrays.asList("UPDATE first"), changes(diff));
+        assertEquals(1, diff.getUnchanged());
+        assertEquals(2, diff.getCompared());
+
+        diff.apply(source, ENTRY_PASSWORD, target, ENTRY_PASSWORD);
+        assertArrayEquals(key("2123456789abcdef"), key(target, "first"));
+    }
+
+    @Test
+    void targetEntryThatCannotBeRecoveredIsAnErrorWithoutForce() throws Exception {
+        sync();
+        target.addEntry(secretKeyEntry("9123456789abcdef"), "first", "other".toCharArray());
+        Thread.sleep(10);
+        source.addEntry(secretKeyEntry("2123456789abcdef"), "first", ENTRY_PASSWORD);
+
+        KeystoreException e = assertThrows(KeystoreException.class, () -> compare(false, false));
+        assertTrue(e.getMessage().contains("'first'"), e.getMessage());
+
+        assertEquals(Arrays.asList("UPDATE first"), changes(compare(false, true)));
+    }
+
+    @Test
+    void compareAllFindsTheEntriesChangedInTheTarget() {
+        sync();
+        target.addEntry(secretKeyEntry("9123456789abcdef"), "first", ENTRY_PASSWORD);
+
+        assertTrue(compare(false, false).isEmpty());
+
+        KeystoreDiff diff = KeystoreDiff.compare(
+                source, ENTRY_PASSWORD, target, ENTRY_PASSWORD, false, true, false);
+        assertEquals(Arrays.asList("UPDATE first"), changes(diff));
+        assertEquals(2, diff.getCompared());
+    }
+
+    @Test
+    void entriesMissingFromTheSourceAreDeletedOnRequest() {
+        sync();
+        target.addEntry(secretKeyEntry("9123456789abcdef"), "third", ENTRY_PASSWORD);
+
+        assertTrue(compare(false, false).isEmpty());
+        KeystoreDiff diff = compare(true, false);
+        assertEquals(Arrays.asList("DELETE third"), changes(diff));
+
+        diff.apply(source, ENTRY_PASSWORD, target, ENTRY_PASSWORD);
+        assertEquals(
+                Arrays.asList("first", "second"),
+                target.getAliases().stream().sorted().collect(Collectors.toList()));
+    }
+
+    private void sync() {
+        compare(false, false).apply(source, ENTRY_PASSWORD, target, ENTRY_PASSWORD);
+    }
+
+    private KeystoreDiff compare(boolean withDeletes, boolean force) {
+        return KeystoreDiff.compare(source, ENTRY_PASSWORD, target, ENTRY_PASSWORD, withDeletes, false, force);
+    }
+
+    private Keystore create(String fileName) {
+        return Keystore.create(
+                DevNullPrintStream.getPrintStream(),
+                directory.resolve(fileName).toString(),
+                KEYSTORE_PASSWORD,
+                KeystoreType.JCEKS);
+    }
+
+    private static List<String> changes(KeystoreDiff diff) {
+        return diff.getChanges().stream()
+                .map(change -> change.getType() + " " + change.getAlias())
+                .collect(Collectors.toList());
+    }
+
+    private static KeyStore.SecretKeyEntry secretKeyEntry(String value) {
+        return new KeyStore.SecretKeyEntry(new SecretKeySpec(key(value), "AES"));
+    }
+
+    private static byte[] key(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] key(Keystore keystore, String alias) {
+        return ((KeyStore.SecretKeyEntry) keystore.getEntry(alias, ENTRY_PASSWORD)).getSecretKey().getEncoded();
+    }
+}
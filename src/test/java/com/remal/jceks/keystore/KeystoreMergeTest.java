@@ -0,0 +1,163 @@
+package com.remal.jceks.keystore;
+
+import com.remal.jceks.util.DevNullPrintStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Resolves the alias conflicts of the merged keystores.
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+class KeystoreMergeTest {
+
+    private static final char[] KEYSTORE_PASSWORD = "storepass".toCharArray();
+    private static final char[] ENTRY_PASSWORD = "keypass".toCharArray();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void skipKeepsTheTargetAndTheFirstSource() {
+        Keystore target = keystore("target.jceks", "shared", "target");
+        List<KeystoreMerge.Source> sources = Arrays.asList(
+                source("first.jceks", "shared", "first-shared", "both", "first-both"),
+                source("second.jceks", "shared", "second-shared", "both", "second-both", "only", "second-only"));
+
+        int merged = merge(KeystoreMerge.ConflictPolicy.SKIP, sources, target);
+
+        assertEquals(2, merged);
+        Keystore result = reopen(target);
+        assertEquals(Arrays.asList("both", "only", "shared"), result.getAliases());
+        assertEquals("target", value(result, "shared"));
+        assertEquals("first-both", value(result, "both"));
+        assertEquals("second-only", value(result, "only"));
+    }
+
+    @Test
+    void overwriteTakesTheLastSource() {
+        Keystore target = keystore("target.jceks", "shared", "target");
+        List<KeystoreMerge.Source> sources = Arrays.asList(
+                source("first.jceks", "shared", "first-shared", "both", "first-both"),
+                source("second.jceks", "both", "second-both"),
+                source("third.jceks", "shared", "third-shared"));
+
+        int merged = merge(KeystoreMerge.ConflictPolicy.OVERWRITE, sources, target);
+
+        assertEquals(2, merged);
+        Keystore result = reopen(target);
+        assertEquals("third-shared", value(result, "shared"));
+        assertEquals("second-both", value(result, "both"));
+    }
+
+    @Test
+    void renameAddsThePrefixOfTheSource() {
+        Keystore target = keystore("target.jceks", "shared", "target");
+        List<KeystoreMerge.Source> sources = Arrays.asList(
+                source("first.jceks", "shared", "first-shared", "both", "first-both"),
+                source("second.jceks", "shared", "second-shared", "both", "second-both"));
+
+        int merged = merge(KeystoreMerge.ConflictPolicy.RENAME, sources, target);
+
+        assertEquals(4, merged);
+        Keystore result = reopen(target);
+        assertEquals(
+                Arrays.asList("both", "first.jceks.shared", "second.jceks.both", "second.jceks.shared", "shared"),
+                result.getAliases());
+        assertEquals("target", value(result, "shared"));
+        assertEquals("first-both", value(result, "both"));
+        assertEquals("first-shared", value(result, "first.jceks.shared"));
+        assertEquals("second-both", value(result, "second.jceks.both"));
+    }
+
+    @Test
+    void renameFailsIfTheNewAliasIsUsed() {
+        Keystore target = keystore("target.jceks", "shared", "target", "first.jceks.shared", "renamed");
+        List<KeystoreMerge.Source> sources = Arrays.asList(source("first.jceks", "shared", "first-shared"));
+
+        assertThrows(KeystoreException.class, () -> merge(KeystoreMerge.ConflictPolicy.RENAME, sources, target));
+
+        assertEquals("target", value(reopen(target), "shared"));
+    }
+
+    @Test
+    void conflictsIgnoreTheCaseOfTheAliases() {
+        // a target format that keeps the case of the aliases, e.g. BCFKS
+        Keystore stored = keystore("target.jceks", "shared", "target");
+        Keystore target = new FileKeystore(quiet(), stored.getKeyStoreLocation(), KEYSTORE_PASSWORD) {
+            @Override
+            public List<String> getAliases() {
+                return super.getAliases().stream().map(String::toUpperCase).collect(Collectors.toList());
+            }
+        };
+        List<KeystoreMerge.Source> sources = Arrays.asList(source("first.jceks", "shared", "first-shared"));
+
+        int merged = merge(KeystoreMerge.ConflictPolicy.SKIP, sources, target);
+
+        assertEquals(0, merged);
+        assertEquals("target", value(reopen(target), "shared"));
+    }
+
+    private int merge(KeystoreMerge.ConflictPolicy policy, List<KeystoreMerge.Source> sources, Keystore target) {
+        return new KeystoreMerge(quiet(), policy).merge(sources, () -> target, ENTRY_PASSWORD);
+    }
+
+    private KeystoreMerge.Source source(String fileName, String... aliasesAndValues) {
+        Keystore keystore = keystore(fileName, aliasesAndValues);
+        return new KeystoreMerge.Source(
+                keystore.getKeyStoreLocation(),
+                KEYSTORE_PASSWORD,
+                KeystoreType.JCEKS,
+                ENTRY_PASSWORD,
+                fileName + ".");
+    }
+
+    /**
+     * Create a keystore with secret keys, the values of the keys are their
+     * own names.
+     */
+    private Keystore keystore(String fileName, String... aliasesAndValues) {
+        Keystore keystore = Keystore.create(
+                quiet(),
+                directory.resolve(fileName).toString(),
+                KEYSTORE_PASSWORD,
+                KeystoreType.JCEKS);
+        KeystoreTransaction transaction = keystore.begin();
+        for (int i = 0; i < aliasesAndValues.length; i += 2) {
+            byte[] value = aliasesAndValues[i + 1].getBytes(StandardCharsets.US_ASCII);
+            transaction.setEntry(
+                    new KeyStore.SecretKeyEntry(new SecretKeySpec(value, "RAW")),
+                    aliasesAndValues[i],
+                    ENTRY_PASSWORD);
+        }
+        transaction.commit();
+        return keystore;
+    }
+
+    private static Keystore reopen(Keystore keystore) {
+        return Keystore.open(quiet(), keystore.getKeyStoreLocation(), KEYSTORE_PASSWORD, KeystoreType.JCEKS);
+    }
+
+    private static String value(Keystore keystore, String alias) {
+        KeyStore.SecretKeyEntry entry = (KeyStore.SecretKeyEntry) keystore.getEntry(alias, ENTRY_PASSWORD);
+        return new String(entry.getSecretKey().getEncoded(), StandardCharsets.US_ASCII);
+    }
+
+    private static PrintStream quiet() {
+        return DevNullPrintStream.getPrintStream();
+    }
+}
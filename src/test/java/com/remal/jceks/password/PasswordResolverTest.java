@@ -0,0 +1,111 @@
+package com.remal.jceks.password;
+
+import com.remal.jceks.util.DevNullPrintStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Resolves and caches the password references.
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+class PasswordResolverTest {
+
+    @TempDir
+    Path directory;
+
+    private PasswordResolver passwords;
+    private InputStream stdin;
+
+    @BeforeEach
+    void createResolver() {
+        passwords = new PasswordResolver(DevNullPrintStream.getPrintStream());
+        stdin = System.in;
+    }
+
+    @AfterEach
+    void closeResolver() {
+        passwords.close();
+        System.setIn(stdin);
+    }
+
+    @Test
+    void inlinePasswordOrReference() throws Exception {
+        Path file = write("password.txt", "from-file\n");
+
+        assertArrayEquals("inline".toCharArray(), passwords.resolve("inline", null));
+        assertArrayEquals("from-ref".toCharArray(), passwords.resolve(null, "pass:from-ref"));
+        assertArrayEquals("from-file".toCharArray(), passwords.resolve(null, file.toString()));
+    }
+
+    @Test
+    void fileIsReadOnce() throws Exception {
+        Path file = write("password.txt", "first\n");
+        char[] first = passwords.resolve("file:" + file);
+
+        write("password.txt", "second\n");
+
+        assertSame(first, passwords.resolve("file:" + file));
+        assertArrayEquals("first".toCharArray(), passwords.resolve("file:" + file));
+    }
+
+    @Test
+    void pathWithAnUnknownSchemeIsAPasswordFile() throws Exception {
+        Path file = write("c:password.txt", "from-file\n");
+
+        assertArrayEquals("from-file".toCharArray(), passwords.resolve(file.toString()));
+        assertArrayEquals("from-file".toCharArray(), passwords.resolve("file:" + file));
+    }
+
+    @Test
+    void everyStdinReferenceReadsTheNextLine() {
+        System.setIn(new ByteArrayInputStream("source\r\ntarget\n".getBytes(StandardCharsets.UTF_8)));
+
+        assertArrayEquals("source".toCharArray(), passwords.resolve(null, "stdin:"));
+        assertArrayEquals("target".toCharArray(), passwords.resolve(null, "stdin:"));
+        assertThrows(PasswordException.class, () -> passwords.resolve("stdin:"));
+    }
+
+    @Test
+    void missingCredentialsAreReported() {
+        PasswordException e = assertThrows(
+                PasswordException.class,
+                () -> passwords.resolve("file:" + directory.resolve("missing.txt")));
+        assertTrue(e.getMessage().contains("does not exist"), e.getMessage());
+
+        assertThrows(PasswordException.class, () -> passwords.resolve("env:JCEKS_TOOL_TEST_NOT_SET"));
+    }
+
+    @Test
+    void closeOverwritesThePasswords() throws Exception {
+        System.setIn(new ByteArrayInputStream("typed\n".getBytes(StandardCharsets.UTF_8)));
+        char[] inline = passwords.resolve("inline", null);
+        char[] fromFile = passwords.resolve(write("password.txt", "from-file\n").toString());
+        char[] typed = passwords.resolve("stdin:");
+
+        passwords.close();
+
+        assertArrayEquals(new char["inline".length()], inline);
+        assertArrayEquals(new char["from-file".length()], fromFile);
+        assertArrayEquals(new char["typed".length()], typed);
+    }
+
+    private Path write(String fileName, String content) throws Exception {
+        return Files.write(directory.resolve(fileName), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
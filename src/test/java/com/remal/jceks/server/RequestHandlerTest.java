@@ -0,0 +1,130 @@
+package com.remal.jceks.server;
+
+import com.remal.jceks.keystore.Keystore;
+import com.remal.jceks.keystore.KeystoreTransaction;
+import com.remal.jceks.keystore.KeystoreType;
+import com.remal.jceks.util.DevNullPrintStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.KeyStore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Executes the requests of the keystore server protocol.
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+class RequestHandlerTest {
+
+    private static final String KEYSTORE_PASSWORD = "storepass";
+    private static final String ENTRY_PASSWORD = "keypass";
+
+    @TempDir
+    Path directory;
+
+    private String source;
+    private String target;
+    private RequestHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        source = keystore("source.jceks", "first", "second");
+        target = keystore("target.jceks", "existing");
+        handler = new RequestHandler(new KeystoreRegistry(null, null));
+    }
+
+    @Test
+    void pingIsAnswered() {
+        assertEquals("OK", handler.handle("PING"));
+        assertEquals("OK", handler.handle(" ping "));
+    }
+
+    @Test
+    void showReturnsTheValueOfTheEntry() {
+        assertEquals(
+                "OK\tZmlyc3Q=",
+                handler.handle(request("SHOW", source, KEYSTORE_PASSWORD, "first", ENTRY_PASSWORD)));
+    }
+
+    @Test
+    void listReturnsTheAliases() {
+        assertEquals("OK\tfirst\tsecond", handler.handle(request("LIST", source, KEYSTORE_PASSWORD)));
+        assertEquals("OK\texisting", handler.handle(request("LIST", target, KEYSTORE_PASSWORD)));
+    }
+
+    @Test
+    void copyAddsTheEntryToTheTarget() {
+        assertEquals("OK", handler.handle(request(
+                "COPY",
+                source, KEYSTORE_PASSWORD, "second", ENTRY_PASSWORD,
+                target, KEYSTORE_PASSWORD, "copied", "newpass")));
+
+        assertEquals("OK\tcopied\texisting", handler.handle(request("LIST", target, KEYSTORE_PASSWORD)));
+        assertEquals(
+                "OK\tc2Vjb25k",
+                handler.handle(request("SHOW", target, KEYSTORE_PASSWORD, "copied", "newpass")));
+    }
+
+    @Test
+    void copyOfAMissingEntryFails() {
+        assertEquals(
+                "ERROR\tsource entry does not exist, alias: 'missing'",
+                handler.handle(request(
+                        "COPY",
+                        source, KEYSTORE_PASSWORD, "missing", ENTRY_PASSWORD,
+                        target, KEYSTORE_PASSWORD, "copied", ENTRY_PASSWORD)));
+        assertEquals("OK\texisting", handler.handle(request("LIST", target, KEYSTORE_PASSWORD)));
+    }
+
+    @Test
+    void invalidRequestsAreAnsweredWithAnError() {
+        assertEquals("ERROR\tunknown command: 'DELETE'", handler.handle(request("DELETE", source)));
+        assertEquals(
+                "ERROR\tinvalid number of fields for SHOW: 3, expected: 5",
+                handler.handle(request("SHOW", source, KEYSTORE_PASSWORD)));
+    }
+
+    @Test
+    void wrongKeystorePasswordFails() {
+        assertEquals("OK\tfirst\tsecond", handler.handle(request("LIST", source, KEYSTORE_PASSWORD)));
+
+        // the keystore is already opened, the password is checked again
+        String response = handler.handle(request("LIST", source, "wrong"));
+        assertTrue(response.startsWith("ERROR\t"), response);
+    }
+
+    private static String request(String... fields) {
+        return String.join(RequestHandler.SEPARATOR, fields);
+    }
+
+    /**
+     * Create a keystore with secret keys, the values of the keys are their
+     * own aliases.
+     */
+    private String keystore(String fileName, String... aliases) {
+        Keystore keystore = Keystore.create(
+                DevNullPrintStream.getPrintStream(),
+                directory.resolve(fileName).toString(),
+                KEYSTORE_PASSWORD.toCharArray(),
+                KeystoreType.JCEKS);
+        KeystoreTransaction transaction = keystore.begin();
+        for (String alias : aliases) {
+            byte[] value = alias.getBytes(StandardCharsets.US_ASCII);
+            transaction.setEntry(
+                    new KeyStore.SecretKeyEntry(new SecretKeySpec(value, "RAW")),
+                    alias,
+                    ENTRY_PASSWORD.toCharArray());
+        }
+        transaction.commit();
+        return keystore.getKeyStoreLocation();
+    }
+}
@@ -0,0 +1,72 @@
+package com.remal.jceks.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reads the first line of password files.
+ *
+ * <p>Copyright 2021 Arnold Somogyi</p>
+ *
+ * @author arnold.somogyi@gmail.com
+ */
+class FileReaderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsOnlyTheFirstLine() throws Exception {
+        assertArrayEquals("s3cr3t".toCharArray(), FileReader.firstLine(write("s3cr3t\nsecond line\n")));
+        assertArrayEquals("s3cr3t".toCharArray(), FileReader.firstLine(write("s3cr3t\r\n")));
+        assertArrayEquals("s3cr3t".toCharArray(), FileReader.firstLine(write("s3cr3t")));
+    }
+
+    @Test
+    void decodesUtf8() throws Exception {
+        assertArrayEquals("jelszó".toCharArray(), FileReader.firstLine(write("jelszó\n")));
+    }
+
+    @Test
+    void readsTheLongestAllowedLine() throws Exception {
+        char[] line = new char[FileReader.MAX_LINE_LENGTH];
+        Arrays.fill(line, 'x');
+
+        assertArrayEquals(line, FileReader.firstLine(write(new String(line) + "\n")));
+    }
+
+    @Test
+    void rejectsATooLongFirstLine() {
+        char[] line = new char[FileReader.MAX_LINE_LENGTH + 1];
+        Arrays.fill(line, 'x');
+
+        IOException e = assertThrows(IOException.class, () -> FileReader.firstLine(write(new String(line))));
+        assertTrue(e.getMessage().contains("longer than"), e.getMessage());
+    }
+
+    @Test
+    void rejectsAnEmptyFirstLine() {
+        assertThrows(IOException.class, () -> FileReader.firstLine(write("")));
+        assertThrows(IOException.class, () -> FileReader.firstLine(write("\ns3cr3t\n")));
+    }
+
+    @Test
+    void rejectsAMissingFile() {
+        assertThrows(NoSuchFileException.class, () -> FileReader.firstLine(directory.resolve("missing")));
+    }
+
+    private Path write(String content) throws IOException {
+        return Files.write(directory.resolve("password.txt"), content.getBytes(StandardCharsets.UTF_8));
+    }
+}